@@ -12,10 +12,16 @@ public class TodoListMenu {
     private Scanner scanner;
     public List<TodoItem> todoList;
     private static final String FILE_PATH = "todo_list.txt";
+    private final String filePath;
     private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
 
     public TodoListMenu(Scanner scanner) {
+        this(scanner, FILE_PATH);
+    }
+
+    public TodoListMenu(Scanner scanner, String filePath) {
         this.scanner = scanner;
+        this.filePath = filePath;
         this.todoList = loadTodoList();
         Collections.sort(todoList); // 排序待办列表
     }
@@ -165,7 +171,7 @@ public class TodoListMenu {
 
     public List<TodoItem> loadTodoList() {
         List<TodoItem> list = new ArrayList<>();
-        try (BufferedReader reader = new BufferedReader(new FileReader(FILE_PATH))) {
+        try (BufferedReader reader = new BufferedReader(new FileReader(filePath))) {
             String line;
             while ((line = reader.readLine()) != null) {
                 String[] parts = line.split(",");
@@ -183,7 +189,7 @@ public class TodoListMenu {
     }
 
     public void saveTodoList() {
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(FILE_PATH))) {
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(filePath))) {
             for (TodoItem item : todoList) {
                 writer.write(item.getContent() + "," + item.getPriority() + "," + item.isCompleted() + "," +
                         item.getCreationTime().format(DATE_TIME_FORMATTER));
@@ -0,0 +1,93 @@
+package com.example.health;
+
+import com.example.health.HealthStatistics.Metric;
+
+import java.time.LocalDate;
+
+/**
+ * 一条健康异常提醒：某条记录的某项指标明显偏离本人的历史基线，或身高体重比例异常。
+ * <p>
+ * 偏离基线的提醒同时给出普通 z 分数（相对历史平均值和标准差）和稳健 z 分数（相对最近窗口的中位数和 MAD）；
+ * BMI 提醒的 value 是 BMI，两个分数均为 NaN。
+ */
+public final class HealthAlert {
+
+    public enum Kind {
+        ABOVE_BASELINE("高于平时"),
+        BELOW_BASELINE("低于平时"),
+        BMI_OUT_OF_RANGE("身高体重比例异常");
+
+        private final String label;
+
+        Kind(String label) {
+            this.label = label;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+    }
+
+    private final LocalDate date;
+    private final Metric metric;
+    private final Kind kind;
+    private final double value;
+    private final double baselineMean;
+    private final double baselineMedian;
+    private final double zScore;
+    private final double robustZScore;
+
+    HealthAlert(LocalDate date, Metric metric, Kind kind, double value,
+                double baselineMean, double baselineMedian, double zScore, double robustZScore) {
+        this.date = date;
+        this.metric = metric;
+        this.kind = kind;
+        this.value = value;
+        this.baselineMean = baselineMean;
+        this.baselineMedian = baselineMedian;
+        this.zScore = zScore;
+        this.robustZScore = robustZScore;
+    }
+
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public Metric getMetric() {
+        return metric;
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    public double getValue() {
+        return value;
+    }
+
+    public double getBaselineMean() {
+        return baselineMean;
+    }
+
+    public double getBaselineMedian() {
+        return baselineMedian;
+    }
+
+    public double getZScore() {
+        return zScore;
+    }
+
+    public double getRobustZScore() {
+        return robustZScore;
+    }
+
+    @Override
+    public String toString() {
+        if (kind == Kind.BMI_OUT_OF_RANGE) {
+            return date + " " + kind.getLabel() + " (BMI: " + String.format("%.1f", value) + ")";
+        }
+        return String.format("%s %s%s: %.1f %s (平时中位数 %.1f, 平均 %.1f, z=%.1f, 稳健z=%.1f)",
+                date, metric.getLabel(), kind.getLabel(), value, metric.getUnit(),
+                baselineMedian, baselineMean, zScore, robustZScore);
+    }
+}
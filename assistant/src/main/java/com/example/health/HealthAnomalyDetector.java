@@ -0,0 +1,143 @@
+package com.example.health;
+
+import com.example.health.HealthStatistics.Metric;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 按记录添加顺序逐条检查体重、心率和血压是否明显偏离本人的基线。
+ * <p>
+ * 每项指标维护全部历史的 Welford 平均值和方差，以及最近 {@link #WINDOW} 个值的中位数和 MAD（中位数绝对偏差）。
+ * 新值先与已有基线比较再并入基线：历史至少 {@link #MIN_BASELINE} 个值，且普通 z 分数达到 {@link #Z_THRESHOLD}
+ * 或稳健 z 分数达到 {@link #ROBUST_Z_THRESHOLD} 时产生提醒。窗口大小固定，每次检查的开销与历史长度无关。
+ * 标准差和 MAD 都有按指标设定的下限，避免历史值完全相同时微小变化也被标记。
+ */
+class HealthAnomalyDetector {
+    static final int WINDOW = 31;
+    static final int MIN_BASELINE = 7;
+    static final double Z_THRESHOLD = 3.0;
+    static final double ROBUST_Z_THRESHOLD = 3.5;
+    // 正态分布下 MAD ≈ 0.6745 σ
+    private static final double MAD_SCALE = 0.6745;
+    private static final double MIN_BMI = 10;
+    private static final double MAX_BMI = 60;
+
+    private static final Metric[] CHECKED = {
+            Metric.WEIGHT, Metric.HEART_RATE, Metric.BLOOD_PRESSURE_HIGH, Metric.BLOOD_PRESSURE_LOW
+    };
+
+    private final Map<Metric, Baseline> baselines = new EnumMap<>(Metric.class);
+
+    HealthAnomalyDetector() {
+        reset();
+    }
+
+    void reset() {
+        for (Metric metric : CHECKED) baselines.put(metric, new Baseline(minSpread(metric)));
+    }
+
+    //检查一条新记录并把它并入基线，返回产生的提醒
+    List<HealthAlert> observe(HealthRecord record) {
+        List<HealthAlert> alerts = new ArrayList<>();
+        for (Metric metric : CHECKED) {
+            double value = metric.valueOf(record);
+            if (Double.isNaN(value)) continue;
+            Baseline baseline = baselines.get(metric);
+            HealthAlert alert = baseline.check(record, metric, value);
+            if (alert != null) alerts.add(alert);
+            baseline.add(value);
+        }
+        if (record.getWeight() != null && record.getHeight() != null && record.getHeight() > 0) {
+            double meters = record.getHeight() / 100;
+            double bmi = record.getWeight() / (meters * meters);
+            if (bmi < MIN_BMI || bmi > MAX_BMI) {
+                alerts.add(new HealthAlert(record.getRecordDate(), Metric.WEIGHT, HealthAlert.Kind.BMI_OUT_OF_RANGE,
+                        bmi, Double.NaN, Double.NaN, Double.NaN, Double.NaN));
+            }
+        }
+        return alerts;
+    }
+
+    //清空基线后按顺序重新检查所有记录，返回全部提醒
+    List<HealthAlert> replay(List<HealthRecord> history) {
+        reset();
+        List<HealthAlert> alerts = new ArrayList<>();
+        for (HealthRecord record : history) alerts.addAll(observe(record));
+        return alerts;
+    }
+
+    // 低于该差异不视为异常：体重 0.5 kg，心率和血压 3
+    private static double minSpread(Metric metric) {
+        return metric == Metric.WEIGHT ? 0.5 : 3;
+    }
+
+    //单项指标的基线
+    private static final class Baseline {
+        private final double minSpread;
+        // Welford
+        private int count;
+        private double mean;
+        private double m2;
+        // 最近 WINDOW 个值：按到达顺序的环形缓冲区和同样内容的有序数组
+        private final double[] ring = new double[WINDOW];
+        private final double[] sorted = new double[WINDOW];
+        private final double[] deviations = new double[WINDOW];
+        private int head;
+        private int windowSize;
+
+        Baseline(double minSpread) {
+            this.minSpread = minSpread;
+        }
+
+        HealthAlert check(HealthRecord record, Metric metric, double value) {
+            if (count < MIN_BASELINE) return null;
+            double sd = Math.max(Math.sqrt(m2 / count), minSpread);
+            double z = (value - mean) / sd;
+            double median = median();
+            double mad = Math.max(mad(median), minSpread * MAD_SCALE);
+            double robustZ = MAD_SCALE * (value - median) / mad;
+            if (Math.abs(z) < Z_THRESHOLD && Math.abs(robustZ) < ROBUST_Z_THRESHOLD) return null;
+            HealthAlert.Kind kind = value > median ? HealthAlert.Kind.ABOVE_BASELINE : HealthAlert.Kind.BELOW_BASELINE;
+            return new HealthAlert(record.getRecordDate(), metric, kind, value, mean, median, z, robustZ);
+        }
+
+        void add(double value) {
+            count++;
+            double delta = value - mean;
+            mean += delta / count;
+            m2 += delta * (value - mean);
+
+            if (windowSize == WINDOW) {
+                double evicted = ring[head];
+                int at = Arrays.binarySearch(sorted, 0, windowSize, evicted);
+                System.arraycopy(sorted, at + 1, sorted, at, windowSize - at - 1);
+                windowSize--;
+            }
+            int at = Arrays.binarySearch(sorted, 0, windowSize, value);
+            if (at < 0) at = -at - 1;
+            System.arraycopy(sorted, at, sorted, at + 1, windowSize - at);
+            sorted[at] = value;
+            windowSize++;
+            ring[head] = value;
+            head = (head + 1) % WINDOW;
+        }
+
+        private double median() {
+            return middle(sorted, windowSize);
+        }
+
+        private double mad(double median) {
+            for (int i = 0; i < windowSize; i++) deviations[i] = Math.abs(sorted[i] - median);
+            Arrays.sort(deviations, 0, windowSize);
+            return middle(deviations, windowSize);
+        }
+
+        private static double middle(double[] values, int n) {
+            return n % 2 == 1 ? values[n / 2] : (values[n / 2 - 1] + values[n / 2]) / 2;
+        }
+    }
+}
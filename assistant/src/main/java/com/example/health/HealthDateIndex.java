@@ -0,0 +1,115 @@
+package com.example.health;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * 按记录日期排序的二级索引，日期范围查询只需 O(log n + k)，补录的旧记录也按日期排好。
+ * <p>
+ * 以纪元日为键，值为当天记录在 {@link HealthRecordStore} 中的下标（升序，即添加顺序）。
+ * 修改记录日期前要先 {@link #remove}，写回存储后再 {@link #add}；删除记录时用 {@link #delete}，
+ * 它会把其后所有记录的下标减一，与存储的前移保持一致。
+ */
+class HealthDateIndex {
+    private final HealthRecordStore store;
+    private final NavigableMap<Integer, int[]> byDay = new TreeMap<>();
+
+    HealthDateIndex(HealthRecordStore store) {
+        this.store = store;
+    }
+
+    //按存储中当前的日期加入下标
+    void add(int index) {
+        int day = store.epochDay(index);
+        int[] same = byDay.get(day);
+        if (same == null) {
+            byDay.put(day, new int[]{index});
+            return;
+        }
+        int at = -Arrays.binarySearch(same, index) - 1;
+        int[] grown = new int[same.length + 1];
+        System.arraycopy(same, 0, grown, 0, at);
+        grown[at] = index;
+        System.arraycopy(same, at, grown, at + 1, same.length - at);
+        byDay.put(day, grown);
+    }
+
+    //按存储中当前的日期移除下标
+    void remove(int index) {
+        int day = store.epochDay(index);
+        int[] same = byDay.get(day);
+        if (same == null) return;
+        int at = Arrays.binarySearch(same, index);
+        if (at < 0) return;
+        if (same.length == 1) {
+            byDay.remove(day);
+        } else {
+            int[] shrunk = new int[same.length - 1];
+            System.arraycopy(same, 0, shrunk, 0, at);
+            System.arraycopy(same, at + 1, shrunk, at, same.length - at - 1);
+            byDay.put(day, shrunk);
+        }
+    }
+
+    //记录将从存储中删除：移除下标，并把更大的下标减一
+    void delete(int index) {
+        remove(index);
+        for (int[] same : byDay.values()) {
+            for (int i = 0; i < same.length; i++) {
+                if (same[i] > index) same[i]--;
+            }
+        }
+    }
+
+    //日期在 [start, end] 内的记录，按日期升序，同一天按添加顺序
+    List<HealthRecord> range(LocalDate start, LocalDate end) {
+        if (start.isAfter(end)) return new ArrayList<>();
+        return views(byDay.subMap(day(start), true, day(end), true));
+    }
+
+    //全部记录，按日期升序
+    List<HealthRecord> all() {
+        return views(byDay);
+    }
+
+    //某一天的记录
+    List<HealthRecord> on(LocalDate date) {
+        int[] same = byDay.get(day(date));
+        return same == null ? new ArrayList<>() : views(Map.of(day(date), same));
+    }
+
+    //某一天最早添加的记录的下标，没有时返回 -1
+    int first(LocalDate date) {
+        int[] same = byDay.get(day(date));
+        return same == null ? -1 : same[0];
+    }
+
+    //最近 days 个有记录的日期上的所有记录，按日期升序
+    List<HealthRecord> latestDays(int days) {
+        if (days <= 0 || byDay.isEmpty()) return new ArrayList<>();
+        Iterator<Integer> newest = byDay.descendingKeySet().iterator();
+        int first = newest.next();
+        for (int i = 1; i < days && newest.hasNext(); i++) {
+            first = newest.next();
+        }
+        return views(byDay.tailMap(first, true));
+    }
+
+    private static int day(LocalDate date) {
+        return Math.toIntExact(date.toEpochDay());
+    }
+
+    private List<HealthRecord> views(Map<Integer, int[]> slice) {
+        List<HealthRecord> result = new ArrayList<>();
+        for (int[] same : slice.values()) {
+            for (int index : same) result.add(store.get(index));
+        }
+        return result;
+    }
+}
@@ -1,6 +1,10 @@
 package com.example.health;
 
+import com.example.util.ParallelFileLoader;
+
 import java.io.*;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -9,29 +13,61 @@ import java.nio.file.StandardOpenOption;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
-
+import java.util.NavigableSet;
+import java.util.TreeSet;
+
+/**
+ * 健康记录管理器。
+ * <p>
+ * 记录按列存放在 {@link HealthRecordStore} 中，{@link #getRecord} 和 {@link #getAllRecords} 返回的
+ * {@link HealthRecord} 都是按需构造的独立视图，修改它们不会影响存储，需通过 {@link #editRecord} 修改。
+ */
 public class HealthRecordManager {
-    private List<HealthRecord> records;
+    // 按列存放的记录，保持添加顺序
+    private final HealthRecordStore records = new HealthRecordStore();
+    // 按日期排序的索引，供日期查询使用
+    private final HealthDateIndex dateIndex = new HealthDateIndex(records);
+    // 滚动平均、EWMA 和日变化量，按日期顺序追加时增量更新
+    private final HealthTrends trends = new HealthTrends(dateIndex::all);
+    // 按添加顺序检查新记录是否偏离基线
+    private final HealthAnomalyDetector anomalies = new HealthAnomalyDetector();
+    // 基线是否需要按现有记录重建（加载、编辑、删除后）
+    private boolean anomaliesStale = true;
     private static final String DATA_DIR = "data";
     private static final String FILE_NAME = "health_records.txt";
-    private static final String FILE_PATH = DATA_DIR + "/" + FILE_NAME;
+    // 穿戴设备样本存放在数据目录下的子目录
+    private static final String SAMPLE_DIR = "samples";
+    // 由样本汇总新建的记录的备注
+    static final String SAMPLE_NOTE = "穿戴设备汇总";
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+
+    private final String dataDir;
+    private final String dataFile;
+    // 穿戴设备样本存储，第一次使用时创建
+    private WearableSampleStore sampleStore;
 
     public HealthRecordManager() {
-        this.records  = new ArrayList<>();
+        this(DATA_DIR, FILE_NAME);
+    }
+
+    public HealthRecordManager(String dataDir, String fileName) {
+        this.dataDir = dataDir;
+        this.dataFile = dataDir + "/" + fileName;
         createDataDirectory();
         loadRecordsFromFile();
     }
 
     private void createDataDirectory() {
         try {
-            Path dataPath = Paths.get(DATA_DIR);
+            Path dataPath = Paths.get(dataDir);
             if (!Files.exists(dataPath))  {
                 Files.createDirectories(dataPath);
                 System.out.println(" 创建数据目录: " + dataPath.toAbsolutePath());
             }
 
-            Path filePath = Paths.get(FILE_PATH);
+            Path filePath = Paths.get(dataFile);
             if (!Files.exists(filePath))  {
                 Files.createFile(filePath);
                 System.out.println(" 创建数据文件: " + filePath.toAbsolutePath());
@@ -44,29 +80,18 @@ public class HealthRecordManager {
 
     private void loadRecordsFromFile() {
         try {
-            Path filePath = Paths.get(FILE_PATH);
+            Path filePath = Paths.get(dataFile);
             if (Files.exists(filePath))  {
-                List<String> lines = Files.readAllLines(filePath,  StandardCharsets.UTF_8);
-                for (String line : lines) {
-                    if (!line.trim().isEmpty())  {
-                        // 解析文件格式: date | weight | height | heartRate | bpHigh | bpLow | sleepHours | steps | notes
-                        String[] parts = line.split(" \\| ", 9);
-                        if (parts.length  >= 8) {
-                            LocalDate date = LocalDate.parse(parts[0],  DateTimeFormatter.ofPattern("yyyy-MM-dd"));
-                            Double weight = parts[1].isEmpty() ? null : Double.parseDouble(parts[1]);
-                            Double height = parts[2].isEmpty() ? null : Double.parseDouble(parts[2]);
-                            Integer heartRate = parts[3].isEmpty() ? null : Integer.parseInt(parts[3]);
-                            Integer bpHigh = parts[4].isEmpty() ? null : Integer.parseInt(parts[4]);
-                            Integer bpLow = parts[5].isEmpty() ? null : Integer.parseInt(parts[5]);
-                            Integer sleepHours = parts[6].isEmpty() ? null : Integer.parseInt(parts[6]);
-                            Integer steps = parts[7].isEmpty() ? null : Integer.parseInt(parts[7]);
-                            String notes = parts.length  > 8 ? parts[8] : "";
-
-                            records.add(new  HealthRecord(date, weight, height, heartRate,
-                                    bpHigh, bpLow, sleepHours, steps, notes));
-                        }
+                // 大文件按区间并行解析，再按文件顺序合并
+                for (List<HealthRecordStore> chunk : ParallelFileLoader.load(filePath, HealthRecordManager::parseRange)) {
+                    for (HealthRecordStore part : chunk) {
+                        records.addAll(part);
                     }
                 }
+                for (int i = 0; i < records.size(); i++) {
+                    dateIndex.add(i);
+                }
+                trends.invalidate();
                 System.out.println("Loaded  " + records.size()  + " health records from file.");
             }
         } catch (IOException e) {
@@ -74,9 +99,41 @@ public class HealthRecordManager {
         }
     }
 
+    //解析数据文件 [start, end) 字节区间内的记录，每个区间解析成一个列式存储
+    private static List<HealthRecordStore> parseRange(FileChannel channel, long start, long end) throws IOException {
+        HealthRecordStore chunk = new HealthRecordStore();
+        if (end > start) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+            String text = StandardCharsets.UTF_8.newDecoder().decode(buffer).toString();
+            text.lines().forEach(line -> {
+                HealthRecord record = parseLine(line);
+                if (record != null) chunk.add(record);
+            });
+        }
+        return Collections.singletonList(chunk);
+    }
+
+    // 解析文件格式: date | weight | height | heartRate | bpHigh | bpLow | sleepHours | steps | notes
+    static HealthRecord parseLine(String line) {
+        if (line.trim().isEmpty()) return null;
+        String[] parts = line.split(" \\| ", 9);
+        if (parts.length < 8) return null;
+        LocalDate date = LocalDate.parse(parts[0], DATE_FORMATTER);
+        Double weight = parts[1].isEmpty() ? null : Double.parseDouble(parts[1]);
+        Double height = parts[2].isEmpty() ? null : Double.parseDouble(parts[2]);
+        Integer heartRate = parts[3].isEmpty() ? null : Integer.parseInt(parts[3]);
+        Integer bpHigh = parts[4].isEmpty() ? null : Integer.parseInt(parts[4]);
+        Integer bpLow = parts[5].isEmpty() ? null : Integer.parseInt(parts[5]);
+        Integer sleepHours = parts[6].isEmpty() ? null : Integer.parseInt(parts[6]);
+        Integer steps = parts[7].isEmpty() ? null : Integer.parseInt(parts[7]);
+        String notes = parts.length  > 8 ? parts[8] : "";
+        return new HealthRecord(date, weight, height, heartRate,
+                bpHigh, bpLow, sleepHours, steps, notes);
+    }
+
     private void saveRecordToFile(HealthRecord record) {
         try {
-            Path filePath = Paths.get(FILE_PATH);
+            Path filePath = Paths.get(dataFile);
             String recordLine = record.toFileFormat()  + System.lineSeparator();
             Files.write(filePath,  recordLine.getBytes(StandardCharsets.UTF_8),
                     StandardOpenOption.CREATE, StandardOpenOption.APPEND);
@@ -85,21 +142,32 @@ public class HealthRecordManager {
         }
     }
 
-    public void addRecord(LocalDate date, Double weight, Double height, Integer heartRate,
+    /**
+     * 校验并添加一条记录，返回这条记录相对本人基线的异常提醒（体重、心率、血压偏离，或 BMI 异常）。
+     * 校验不通过时不添加，返回空列表。
+     */
+    public List<HealthAlert> addRecord(LocalDate date, Double weight, Double height, Integer heartRate,
                           Integer bloodPressureHigh, Integer bloodPressureLow,
                           Integer sleepHours, Integer steps, String notes) {
         if (!validateRecordData(date, weight, height, heartRate,
                 bloodPressureHigh, bloodPressureLow,
                 sleepHours, steps)) {
-            return;
+            return Collections.emptyList();
         }
 
         HealthRecord record = new HealthRecord(date, weight, height, heartRate,
                 bloodPressureHigh, bloodPressureLow,
                 sleepHours, steps, notes);
-        records.add(record);
+        if (anomaliesStale) {
+            anomalies.replay(getAllRecords());
+            anomaliesStale = false;
+        }
+        List<HealthAlert> alerts = anomalies.observe(record);
+        dateIndex.add(records.add(record));
+        trends.add(record);
         saveRecordToFile(record);
         System.out.println("Health  record added and saved successfully!");
+        return alerts;
     }
     private boolean validateRecordData(LocalDate date, Double weight, Double height,
                                        Integer heartRate, Integer bpHigh, Integer bpLow,
@@ -170,14 +238,7 @@ public class HealthRecordManager {
             }
         }
 
-        // 8. 验证身高体重比例(BMI粗略检查)
-        if (weight != null && height != null && height > 0) {
-            double bmi = weight / ((height / 100) * (height / 100));
-            if (bmi < 10 || bmi > 60) {
-                System.err.println(" 警告: 身高体重比例异常 (BMI: " + String.format("%.1f",  bmi) + ")");
-                // 这里只是警告，不阻止记录
-            }
-        }
+        // 身高体重比例(BMI)异常不阻止记录，由 addRecord 返回的提醒给出
 
         return true;
     }
@@ -195,14 +256,19 @@ public class HealthRecordManager {
         System.out.println("------------------------");
     }
 
+    //日期在 [start, end] 内的记录，按日期升序，同一天按添加顺序；start 晚于 end 时返回空列表
     public List<HealthRecord> searchByDateRange(LocalDate start, LocalDate end) {
-        List<HealthRecord> results = new ArrayList<>();
-        for (HealthRecord record : records) {
-            if (!record.getRecordDate().isBefore(start)  && !record.getRecordDate().isAfter(end))  {
-                results.add(record);
-            }
-        }
-        return results;
+        return dateIndex.range(start, end);
+    }
+
+    //最近 days 个有记录的日期上的记录（不一定是连续的日历日），按日期升序
+    public List<HealthRecord> findLatestDays(int days) {
+        return dateIndex.latestDays(days);
+    }
+
+    //去年同一天的记录，2 月 29 日对应去年 2 月 28 日
+    public List<HealthRecord> findSameDayLastYear(LocalDate date) {
+        return dateIndex.on(date.minusYears(1));
     }
 
     public boolean editRecord(int index, LocalDate date, Double weight, Double height, Integer heartRate,
@@ -210,6 +276,7 @@ public class HealthRecordManager {
                               Integer sleepHours, Integer steps, String notes) {
         if (index > 0 && index <= records.size())  {
             HealthRecord record = records.get(index  - 1);
+            dateIndex.remove(index - 1);
             record.setRecordDate(date  != null ? date : record.getRecordDate());
             record.setWeight(weight  != null ? weight : record.getWeight());
             record.setHeight(height  != null ? height : record.getHeight());
@@ -219,6 +286,10 @@ public class HealthRecordManager {
             record.setSleepHours(sleepHours  != null ? sleepHours : record.getSleepHours());
             record.setSteps(steps  != null ? steps : record.getSteps());
             record.setNotes(notes  != null ? notes : record.getNotes());
+            records.set(index - 1, record);
+            dateIndex.add(index - 1);
+            trends.invalidate();
+            anomaliesStale = true;
 
             rewriteFile();
             return true;
@@ -228,7 +299,10 @@ public class HealthRecordManager {
 
     public boolean deleteRecord(int index) {
         if (index > 0 && index <= records.size())  {
+            dateIndex.delete(index - 1);
             records.remove(index  - 1);
+            trends.invalidate();
+            anomaliesStale = true;
             rewriteFile();
             return true;
         }
@@ -237,10 +311,10 @@ public class HealthRecordManager {
 
     private void rewriteFile() {
         try {
-            Path filePath = Paths.get(FILE_PATH);
+            Path filePath = Paths.get(dataFile);
             StringBuilder content = new StringBuilder();
-            for (HealthRecord record : records) {
-                content.append(record.toFileFormat()).append(System.lineSeparator());
+            for (int i = 0; i < records.size(); i++) {
+                content.append(records.get(i).toFileFormat()).append(System.lineSeparator());
             }
             Files.write(filePath,  content.toString().getBytes(StandardCharsets.UTF_8),
                     StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
@@ -249,6 +323,71 @@ public class HealthRecordManager {
         }
     }
 
+    //按添加顺序重新检查所有记录，返回全部异常提醒
+    public List<HealthAlert> scanAnomalies() {
+        List<HealthAlert> alerts = anomalies.replay(getAllRecords());
+        anomaliesStale = false;
+        return alerts;
+    }
+
+    //穿戴设备样本存储，位于数据目录的 samples 子目录
+    public WearableSampleStore getSampleStore() {
+        if (sampleStore == null) {
+            sampleStore = new WearableSampleStore(Paths.get(dataDir, SAMPLE_DIR));
+        }
+        return sampleStore;
+    }
+
+    /**
+     * 导入穿戴设备样本：先追加到样本存储，再把涉及的每一天汇总到当天的健康记录——心率取当天所有样本的平均，
+     * 步数取当天合计。当天已有记录时只更新该字段，否则新建一条只有该字段的记录。
+     * 已经存储过的样本（同类型同一秒）不会再次写入，重复导入同一批数据不会重复计数。
+     * 设备数据不做 {@link #addRecord} 的范围校验（如每日步数上限）。
+     *
+     * @return 更新或新建了记录的天数
+     */
+    public int ingestSamples(WearableSample.Type type, List<WearableSample> samples) throws IOException {
+        if (samples.isEmpty()) return 0;
+        WearableSampleStore store = getSampleStore();
+        store.append(type, samples);
+
+        NavigableSet<LocalDate> days = new TreeSet<>();
+        for (WearableSample sample : samples) {
+            days.add(sample.getTime().toLocalDate());
+        }
+        boolean updated = false;
+        for (LocalDate day : days) {
+            WearableSampleStore.Rollup rollup = store.rollup(type, day);
+            int value = type == WearableSample.Type.HEART_RATE
+                    ? (int) Math.round(rollup.mean())
+                    : (int) Math.min(rollup.sum, Integer.MAX_VALUE);
+            int index = dateIndex.first(day);
+            if (index >= 0) {
+                HealthRecord record = records.get(index);
+                if (type == WearableSample.Type.HEART_RATE) {
+                    record.setHeartRate(value);
+                } else {
+                    record.setSteps(value);
+                }
+                records.set(index, record);
+                updated = true;
+            } else {
+                HealthRecord record = new HealthRecord(day, null, null,
+                        type == WearableSample.Type.HEART_RATE ? value : null, null, null, null,
+                        type == WearableSample.Type.STEPS ? value : null, SAMPLE_NOTE);
+                dateIndex.add(records.add(record));
+                trends.add(record);
+                saveRecordToFile(record);
+            }
+        }
+        anomaliesStale = true;
+        if (updated) {
+            trends.invalidate();
+            rewriteFile();
+        }
+        return days.size();
+    }
+
     public HealthRecord getRecord(int index) {
         if (index > 0 && index <= records.size())  {
             return records.get(index  - 1);
@@ -257,7 +396,21 @@ public class HealthRecordManager {
     }
 
     public List<HealthRecord> getAllRecords() {
-        return new ArrayList<>(records);
+        List<HealthRecord> list = new ArrayList<>(records.size());
+        for (int i = 0; i < records.size(); i++) {
+            list.add(records.get(i));
+        }
+        return list;
+    }
+
+    //一次遍历计算各项指标的统计结果，记录较多时并行计算
+    public HealthStatistics getStatistics() {
+        return HealthStatistics.compute(records);
+    }
+
+    //各项指标的滚动平均、EWMA 和日变化量
+    public HealthTrends getTrends() {
+        return trends;
     }
 
     public void showStatistics() {
@@ -266,51 +419,46 @@ public class HealthRecordManager {
             return;
         }
 
+        HealthStatistics stats = getStatistics();
         System.out.println("\n=====  健康数据统计 =====");
+        System.out.printf("  平均体重: %.2f kg\n", average(stats, HealthStatistics.Metric.WEIGHT));
+        System.out.printf("  平均心率: %.1f 次/分钟\n", average(stats, HealthStatistics.Metric.HEART_RATE));
+        System.out.printf("  平均血压: %.1f/%.1f mmHg\n",
+                average(stats, HealthStatistics.Metric.BLOOD_PRESSURE_HIGH),
+                average(stats, HealthStatistics.Metric.BLOOD_PRESSURE_LOW));
+        System.out.printf("  平均睡眠时间: %.1f 小时\n", average(stats, HealthStatistics.Metric.SLEEP_HOURS));
+        System.out.printf("  平均每日步数: %.1f 步\n", average(stats, HealthStatistics.Metric.STEPS));
+
+        // 有数据的指标再给出分布
+        System.out.println("  --- 分布 (最小 / 中位数 / 最大, 标准差) ---");
+        for (HealthStatistics.Metric metric : HealthStatistics.Metric.values()) {
+            HealthStatistics.Summary summary = stats.get(metric);
+            if (summary.getCount() == 0) continue;
+            System.out.printf("  %s: %.1f / %.1f / %.1f %s, σ=%.2f (%d 条)\n", metric.getLabel(),
+                    summary.getMin(), summary.getMedian(), summary.getMax(), metric.getUnit(),
+                    summary.getStandardDeviation(), summary.getCount());
+        }
+
+        System.out.println("  --- 趋势 (截至 " + trends.getLatestDate() + ": 7天 / 30天 / 90天平均, EWMA, 较上次) ---");
+        for (HealthStatistics.Metric metric : HealthStatistics.Metric.values()) {
+            if (stats.get(metric).getCount() == 0) continue;
+            System.out.printf("  %s: %s / %s / %s %s, EWMA %.1f, %s\n", metric.getLabel(),
+                    formatValue(trends.getRollingMean(metric, HealthTrends.WEEK)),
+                    formatValue(trends.getRollingMean(metric, HealthTrends.MONTH)),
+                    formatValue(trends.getRollingMean(metric, HealthTrends.QUARTER)),
+                    metric.getUnit(), trends.getEwma(metric),
+                    Double.isNaN(trends.getDelta(metric)) ? "无" : String.format("%+.1f", trends.getDelta(metric)));
+        }
+    }
+
+    // 窗口内没有数据时显示 "-"
+    private static String formatValue(double value) {
+        return Double.isNaN(value) ? "-" : String.format("%.1f", value);
+    }
 
-        // 计算平均体重
-        double avgWeight = records.stream()
-                .filter(r -> r.getWeight()  != null)
-                .mapToDouble(HealthRecord::getWeight)
-                .average()
-                .orElse(0);
-        System.out.printf("  平均体重: %.2f kg\n", avgWeight);
-
-        // 计算平均心率
-        double avgHeartRate = records.stream()
-                .filter(r -> r.getHeartRate()  != null)
-                .mapToInt(HealthRecord::getHeartRate)
-                .average()
-                .orElse(0);
-        System.out.printf("  平均心率: %.1f 次/分钟\n", avgHeartRate);
-
-        // 计算平均血压
-        double avgBpHigh = records.stream()
-                .filter(r -> r.getBloodPressureHigh()  != null)
-                .mapToInt(HealthRecord::getBloodPressureHigh)
-                .average()
-                .orElse(0);
-        double avgBpLow = records.stream()
-                .filter(r -> r.getBloodPressureLow()  != null)
-                .mapToInt(HealthRecord::getBloodPressureLow)
-                .average()
-                .orElse(0);
-        System.out.printf("  平均血压: %.1f/%.1f mmHg\n", avgBpHigh, avgBpLow);
-
-        // 计算平均睡眠时间
-        double avgSleep = records.stream()
-                .filter(r -> r.getSleepHours()  != null)
-                .mapToInt(HealthRecord::getSleepHours)
-                .average()
-                .orElse(0);
-        System.out.printf("  平均睡眠时间: %.1f 小时\n", avgSleep);
-
-        // 计算平均步数
-        double avgSteps = records.stream()
-                .filter(r -> r.getSteps()  != null)
-                .mapToInt(HealthRecord::getSteps)
-                .average()
-                .orElse(0);
-        System.out.printf("  平均每日步数: %.1f 步\n", avgSteps);
+    // 没有数据时平均值按 0 显示
+    private static double average(HealthStatistics stats, HealthStatistics.Metric metric) {
+        HealthStatistics.Summary summary = stats.get(metric);
+        return summary.getCount() == 0 ? 0 : summary.getMean();
     }
-}
\ No newline at end of file
+}
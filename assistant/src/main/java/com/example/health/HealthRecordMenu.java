@@ -119,8 +119,11 @@ public class HealthRecordMenu {
             }
         }
 
-        manager.addRecord(date,  weight, height, heartRate, bpHigh, bpLow, sleepHours, steps, notes);
+        List<HealthAlert> alerts = manager.addRecord(date,  weight, height, heartRate, bpHigh, bpLow, sleepHours, steps, notes);
         System.out.println("\n 记录添加成功!");
+        for (HealthAlert alert : alerts) {
+            System.out.println(" 提醒：" + alert);
+        }
         System.out.println(" 提示：您可以通过菜单选项1浏览所有记录");
     }
     private void browseRecordsWithDetails() {
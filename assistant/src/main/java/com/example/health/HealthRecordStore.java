@@ -0,0 +1,207 @@
+package com.example.health;
+
+import com.example.health.HealthStatistics.Metric;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * {@link HealthRecordManager} 背后的列式存储：每个字段一列原始类型数组，按添加顺序存放，不为每条记录保留对象。
+ * <p>
+ * 日期存为纪元日（int），各项指标存为 double/int，是否有值由每条记录一个字节的存在位图表示。
+ * {@link #get} 每次按需构造独立的 {@link HealthRecord} 视图，修改视图后需 {@link #set} 写回。
+ * 统计等批量计算可通过 {@link #value} 直接读取列数据，不拆箱也不构造对象。
+ */
+final class HealthRecordStore implements HealthStatistics.Rows {
+    // 存在位图中各字段的位
+    private static final int WEIGHT = 1;
+    private static final int HEIGHT = 1 << 1;
+    private static final int HEART_RATE = 1 << 2;
+    private static final int BP_HIGH = 1 << 3;
+    private static final int BP_LOW = 1 << 4;
+    private static final int SLEEP = 1 << 5;
+    private static final int STEPS = 1 << 6;
+
+    private int[] epochDays;
+    private double[] weights;
+    private double[] heights;
+    private int[] heartRates;
+    private int[] bpHighs;
+    private int[] bpLows;
+    private int[] sleepHours;
+    private int[] steps;
+    private String[] notes;
+    private byte[] present;
+    private int size;
+
+    HealthRecordStore() {
+        this(16);
+    }
+
+    HealthRecordStore(int expectedSize) {
+        int capacity = Math.max(4, expectedSize);
+        epochDays = new int[capacity];
+        weights = new double[capacity];
+        heights = new double[capacity];
+        heartRates = new int[capacity];
+        bpHighs = new int[capacity];
+        bpLows = new int[capacity];
+        sleepHours = new int[capacity];
+        steps = new int[capacity];
+        notes = new String[capacity];
+        present = new byte[capacity];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    //追加到末尾，返回其下标
+    int add(HealthRecord record) {
+        if (size == epochDays.length) grow(size + 1);
+        write(size, record);
+        return size++;
+    }
+
+    //把另一个存储的全部记录按顺序追加到末尾
+    void addAll(HealthRecordStore other) {
+        if (other.size == 0) return;
+        if (size + other.size > epochDays.length) grow(size + other.size);
+        System.arraycopy(other.epochDays, 0, epochDays, size, other.size);
+        System.arraycopy(other.weights, 0, weights, size, other.size);
+        System.arraycopy(other.heights, 0, heights, size, other.size);
+        System.arraycopy(other.heartRates, 0, heartRates, size, other.size);
+        System.arraycopy(other.bpHighs, 0, bpHighs, size, other.size);
+        System.arraycopy(other.bpLows, 0, bpLows, size, other.size);
+        System.arraycopy(other.sleepHours, 0, sleepHours, size, other.size);
+        System.arraycopy(other.steps, 0, steps, size, other.size);
+        System.arraycopy(other.notes, 0, notes, size, other.size);
+        System.arraycopy(other.present, 0, present, size, other.size);
+        size += other.size;
+    }
+
+    //原位替换下标处的记录
+    void set(int index, HealthRecord record) {
+        checkIndex(index);
+        write(index, record);
+    }
+
+    //删除下标处的记录，其后的记录前移一位
+    void remove(int index) {
+        checkIndex(index);
+        int tail = size - index - 1;
+        System.arraycopy(epochDays, index + 1, epochDays, index, tail);
+        System.arraycopy(weights, index + 1, weights, index, tail);
+        System.arraycopy(heights, index + 1, heights, index, tail);
+        System.arraycopy(heartRates, index + 1, heartRates, index, tail);
+        System.arraycopy(bpHighs, index + 1, bpHighs, index, tail);
+        System.arraycopy(bpLows, index + 1, bpLows, index, tail);
+        System.arraycopy(sleepHours, index + 1, sleepHours, index, tail);
+        System.arraycopy(steps, index + 1, steps, index, tail);
+        System.arraycopy(notes, index + 1, notes, index, tail);
+        System.arraycopy(present, index + 1, present, index, tail);
+        notes[--size] = null;
+    }
+
+    //由列数据构造下标处记录的视图
+    HealthRecord get(int index) {
+        checkIndex(index);
+        int bits = present[index];
+        return new HealthRecord(LocalDate.ofEpochDay(epochDays[index]),
+                (bits & WEIGHT) != 0 ? weights[index] : null,
+                (bits & HEIGHT) != 0 ? heights[index] : null,
+                (bits & HEART_RATE) != 0 ? heartRates[index] : null,
+                (bits & BP_HIGH) != 0 ? bpHighs[index] : null,
+                (bits & BP_LOW) != 0 ? bpLows[index] : null,
+                (bits & SLEEP) != 0 ? sleepHours[index] : null,
+                (bits & STEPS) != 0 ? steps[index] : null,
+                notes[index]);
+    }
+
+    int epochDay(int index) {
+        return epochDays[index];
+    }
+
+    //下标处某项指标的值，缺失时为 NaN
+    @Override
+    public double value(int index, Metric metric) {
+        int bits = present[index];
+        switch (metric) {
+            case WEIGHT:
+                return (bits & WEIGHT) != 0 ? weights[index] : Double.NaN;
+            case HEART_RATE:
+                return (bits & HEART_RATE) != 0 ? heartRates[index] : Double.NaN;
+            case BLOOD_PRESSURE_HIGH:
+                return (bits & BP_HIGH) != 0 ? bpHighs[index] : Double.NaN;
+            case BLOOD_PRESSURE_LOW:
+                return (bits & BP_LOW) != 0 ? bpLows[index] : Double.NaN;
+            case SLEEP_HOURS:
+                return (bits & SLEEP) != 0 ? sleepHours[index] : Double.NaN;
+            case STEPS:
+                return (bits & STEPS) != 0 ? steps[index] : Double.NaN;
+            default:
+                throw new AssertionError(metric);
+        }
+    }
+
+    private void write(int index, HealthRecord record) {
+        LocalDate date = record.getRecordDate() != null ? record.getRecordDate() : LocalDate.now();
+        int bits = 0;
+        epochDays[index] = Math.toIntExact(date.toEpochDay());
+        if (record.getWeight() != null) {
+            weights[index] = record.getWeight();
+            bits |= WEIGHT;
+        }
+        if (record.getHeight() != null) {
+            heights[index] = record.getHeight();
+            bits |= HEIGHT;
+        }
+        if (record.getHeartRate() != null) {
+            heartRates[index] = record.getHeartRate();
+            bits |= HEART_RATE;
+        }
+        if (record.getBloodPressureHigh() != null) {
+            bpHighs[index] = record.getBloodPressureHigh();
+            bits |= BP_HIGH;
+        }
+        if (record.getBloodPressureLow() != null) {
+            bpLows[index] = record.getBloodPressureLow();
+            bits |= BP_LOW;
+        }
+        if (record.getSleepHours() != null) {
+            sleepHours[index] = record.getSleepHours();
+            bits |= SLEEP;
+        }
+        if (record.getSteps() != null) {
+            steps[index] = record.getSteps();
+            bits |= STEPS;
+        }
+        notes[index] = record.getNotes();
+        present[index] = (byte) bits;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("下标 " + index + " 超出范围 [0, " + size + ")");
+        }
+    }
+
+    private void grow(int minCapacity) {
+        int capacity = Math.max(minCapacity, epochDays.length + (epochDays.length >> 1) + 1);
+        epochDays = Arrays.copyOf(epochDays, capacity);
+        weights = Arrays.copyOf(weights, capacity);
+        heights = Arrays.copyOf(heights, capacity);
+        heartRates = Arrays.copyOf(heartRates, capacity);
+        bpHighs = Arrays.copyOf(bpHighs, capacity);
+        bpLows = Arrays.copyOf(bpLows, capacity);
+        sleepHours = Arrays.copyOf(sleepHours, capacity);
+        steps = Arrays.copyOf(steps, capacity);
+        notes = Arrays.copyOf(notes, capacity);
+        present = Arrays.copyOf(present, capacity);
+    }
+}
@@ -0,0 +1,297 @@
+package com.example.health;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * 健康记录各项指标的统计结果：条数、平均值、最小值、最大值、方差和百分位数。
+ * <p>
+ * 计算时只遍历一次记录（或 {@link HealthRecordStore} 的列数据），把每项指标拆成一列 double 数组，同时用 Welford 算法累加平均值和方差，
+ * 之后每列排序一次供百分位数使用。记录较多时可按区间在 fork-join 线程池上并行计算，
+ * 各区间的结果用 Chan 的合并公式汇总，与顺序计算的结果一致（浮点误差范围内）。
+ * 结果是计算时刻的快照，之后记录的增删改不会反映在其中。
+ */
+public final class HealthStatistics {
+
+    //参与统计的指标，值为 null 的记录不计入该指标
+    public enum Metric {
+        WEIGHT("体重", "kg"),
+        HEART_RATE("心率", "次/分钟"),
+        BLOOD_PRESSURE_HIGH("高压", "mmHg"),
+        BLOOD_PRESSURE_LOW("低压", "mmHg"),
+        SLEEP_HOURS("睡眠时间", "小时"),
+        STEPS("步数", "步");
+
+        private final String label;
+        private final String unit;
+
+        Metric(String label, String unit) {
+            this.label = label;
+            this.unit = unit;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+
+        public String getUnit() {
+            return unit;
+        }
+
+        // 记录中该指标的值，缺失时为 NaN
+        double valueOf(HealthRecord record) {
+            switch (this) {
+                case WEIGHT:
+                    return record.getWeight() != null ? record.getWeight() : Double.NaN;
+                case HEART_RATE:
+                    return record.getHeartRate() != null ? record.getHeartRate() : Double.NaN;
+                case BLOOD_PRESSURE_HIGH:
+                    return record.getBloodPressureHigh() != null ? record.getBloodPressureHigh() : Double.NaN;
+                case BLOOD_PRESSURE_LOW:
+                    return record.getBloodPressureLow() != null ? record.getBloodPressureLow() : Double.NaN;
+                case SLEEP_HOURS:
+                    return record.getSleepHours() != null ? record.getSleepHours() : Double.NaN;
+                case STEPS:
+                    return record.getSteps() != null ? record.getSteps() : Double.NaN;
+                default:
+                    throw new AssertionError(this);
+            }
+        }
+    }
+
+    //单项指标的统计，没有任何值时 count 为 0，其余结果为 NaN
+    public static final class Summary {
+        private final int count;
+        private final double mean;
+        private final double m2;
+        private final double min;
+        private final double max;
+        // 升序排列，前 count 个是有效值
+        private final double[] sorted;
+
+        private Summary(Accumulator acc, double[] sorted) {
+            this.count = acc.count;
+            this.mean = acc.count == 0 ? Double.NaN : acc.mean;
+            this.m2 = acc.m2;
+            this.min = acc.count == 0 ? Double.NaN : acc.min;
+            this.max = acc.count == 0 ? Double.NaN : acc.max;
+            this.sorted = sorted;
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        public double getMean() {
+            return mean;
+        }
+
+        public double getMin() {
+            return min;
+        }
+
+        public double getMax() {
+            return max;
+        }
+
+        //总体方差（除以 n）
+        public double getVariance() {
+            return count == 0 ? Double.NaN : m2 / count;
+        }
+
+        public double getStandardDeviation() {
+            return Math.sqrt(getVariance());
+        }
+
+        /**
+         * 第 p 百分位数（0 ≤ p ≤ 100），在相邻两个值之间线性插值。
+         *
+         * @throws IllegalArgumentException p 不在 [0, 100] 内
+         */
+        public double getPercentile(double p) {
+            if (!(p >= 0 && p <= 100)) {
+                throw new IllegalArgumentException("百分位必须在 0 到 100 之间: " + p);
+            }
+            if (count == 0) return Double.NaN;
+            double rank = p / 100 * (count - 1);
+            int lower = (int) Math.floor(rank);
+            int upper = Math.min(lower + 1, count - 1);
+            return sorted[lower] + (rank - lower) * (sorted[upper] - sorted[lower]);
+        }
+
+        public double getMedian() {
+            return getPercentile(50);
+        }
+    }
+
+    //按行、按指标读取数值的数据源，缺失的值为 NaN
+    interface Rows {
+        int size();
+
+        double value(int row, Metric metric);
+    }
+
+    // 记录数达到该值时 compute(records) 自动并行
+    static final int PARALLEL_THRESHOLD = 1 << 16;
+    // 并行计算时单个区间的最少记录数
+    static final int MIN_SPLIT = 1 << 13;
+
+    private static final Metric[] METRICS = Metric.values();
+
+    private final int recordCount;
+    private final Map<Metric, Summary> summaries = new EnumMap<>(Metric.class);
+
+    private HealthStatistics(int recordCount) {
+        this.recordCount = recordCount;
+    }
+
+    //记录数达到 PARALLEL_THRESHOLD 时并行计算
+    public static HealthStatistics compute(List<HealthRecord> records) {
+        return compute(records, records.size() >= PARALLEL_THRESHOLD);
+    }
+
+    public static HealthStatistics compute(List<HealthRecord> records, boolean parallel) {
+        return compute(new RecordRows(records.toArray(new HealthRecord[0])), parallel);
+    }
+
+    static HealthStatistics compute(Rows rows) {
+        return compute(rows, rows.size() >= PARALLEL_THRESHOLD);
+    }
+
+    static HealthStatistics compute(Rows rows, boolean parallel) {
+        int n = rows.size();
+        double[][] columns = new double[METRICS.length][n];
+        Accumulator[] totals;
+        if (parallel && n >= 2 * MIN_SPLIT) {
+            totals = ForkJoinPool.commonPool().invoke(new RangeTask(rows, columns, 0, n));
+        } else {
+            totals = scan(rows, columns, 0, n);
+        }
+
+        HealthStatistics stats = new HealthStatistics(n);
+        for (Metric metric : METRICS) {
+            double[] column = columns[metric.ordinal()];
+            // NaN 排在最后，前 count 个就是有效值
+            if (parallel) {
+                Arrays.parallelSort(column);
+            } else {
+                Arrays.sort(column);
+            }
+            stats.summaries.put(metric, new Summary(totals[metric.ordinal()], column));
+        }
+        return stats;
+    }
+
+    public int getRecordCount() {
+        return recordCount;
+    }
+
+    public Summary get(Metric metric) {
+        return summaries.get(metric);
+    }
+
+    //顺序处理 [from, to) 内的记录：填充各列并累加各项指标
+    private static Accumulator[] scan(Rows rows, double[][] columns, int from, int to) {
+        Accumulator[] acc = new Accumulator[METRICS.length];
+        for (int m = 0; m < acc.length; m++) acc[m] = new Accumulator();
+        for (int i = from; i < to; i++) {
+            for (int m = 0; m < METRICS.length; m++) {
+                double value = rows.value(i, METRICS[m]);
+                columns[m][i] = value;
+                if (!Double.isNaN(value)) acc[m].add(value);
+            }
+        }
+        return acc;
+    }
+
+    //记录对象数组作为数据源
+    private static final class RecordRows implements Rows {
+        private final HealthRecord[] records;
+
+        RecordRows(HealthRecord[] records) {
+            this.records = records;
+        }
+
+        @Override
+        public int size() {
+            return records.length;
+        }
+
+        @Override
+        public double value(int row, Metric metric) {
+            return metric.valueOf(records[row]);
+        }
+    }
+
+    //Welford 累加器，可与另一区间的累加器合并
+    private static final class Accumulator {
+        int count;
+        double mean;
+        double m2;
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+
+        void add(double value) {
+            count++;
+            double delta = value - mean;
+            mean += delta / count;
+            m2 += delta * (value - mean);
+            if (value < min) min = value;
+            if (value > max) max = value;
+        }
+
+        void merge(Accumulator other) {
+            if (other.count == 0) return;
+            if (count == 0) {
+                count = other.count;
+                mean = other.mean;
+                m2 = other.m2;
+                min = other.min;
+                max = other.max;
+                return;
+            }
+            int total = count + other.count;
+            double delta = other.mean - mean;
+            mean += delta * other.count / total;
+            m2 += other.m2 + delta * delta * ((double) count * other.count / total);
+            count = total;
+            min = Math.min(min, other.min);
+            max = Math.max(max, other.max);
+        }
+    }
+
+    //把记录区间二分，直到不大于 2 * MIN_SPLIT 后顺序处理，再逐级合并累加器
+    private static final class RangeTask extends RecursiveTask<Accumulator[]> {
+        private static final long serialVersionUID = 1L;
+
+        private final Rows rows;
+        private final double[][] columns;
+        private final int from;
+        private final int to;
+
+        RangeTask(Rows rows, double[][] columns, int from, int to) {
+            this.rows = rows;
+            this.columns = columns;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Accumulator[] compute() {
+            if (to - from <= 2 * MIN_SPLIT) {
+                return scan(rows, columns, from, to);
+            }
+            int mid = (from + to) >>> 1;
+            RangeTask left = new RangeTask(rows, columns, from, mid);
+            left.fork();
+            Accumulator[] right = new RangeTask(rows, columns, mid, to).compute();
+            Accumulator[] result = left.join();
+            for (int m = 0; m < result.length; m++) result[m].merge(right[m]);
+            return result;
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package com.example.health;
+
+import com.example.health.HealthStatistics.Metric;
+
+import java.time.LocalDate;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * 健康指标的趋势：7、30、90 天滚动平均、指数加权平均（EWMA）和相邻两个记录日之间的变化量。
+ * <p>
+ * 每项指标先按天聚合（同一天多条记录取平均），再喂给各窗口的滑动累加器。窗口以所有记录中最新的日期为终点，
+ * 包含终点在内的 N 个日历日；累加器是按日期排列的环形缓冲区，新增一天或读取时淘汰过期的天，均摊 O(1)。
+ * <p>
+ * 按日期顺序追加的记录（日期不早于当前最新日期）增量更新。补录更早的记录、编辑或删除会使结果失效，
+ * 在下次读取时按日期顺序重新累加一遍。
+ */
+public final class HealthTrends {
+    public static final int WEEK = 7;
+    public static final int MONTH = 30;
+    public static final int QUARTER = 90;
+    // EWMA 的平滑系数，相当于 7 天跨度 2 / (7 + 1)
+    public static final double DEFAULT_ALPHA = 0.25;
+
+    private static final int[] WINDOWS = {WEEK, MONTH, QUARTER};
+
+    // 按日期升序返回全部记录，用于失效后重建
+    private final Supplier<List<HealthRecord>> history;
+    private final double alpha;
+    private final Map<Metric, Series> series = new EnumMap<>(Metric.class);
+    // 所有记录中最新的日期（epoch day），没有记录时为 Long.MIN_VALUE
+    private long latestDay = Long.MIN_VALUE;
+    private boolean stale;
+
+    HealthTrends(Supplier<List<HealthRecord>> history) {
+        this(history, DEFAULT_ALPHA);
+    }
+
+    HealthTrends(Supplier<List<HealthRecord>> history, double alpha) {
+        if (!(alpha > 0 && alpha <= 1)) {
+            throw new IllegalArgumentException("平滑系数必须在 (0, 1] 内: " + alpha);
+        }
+        this.history = history;
+        this.alpha = alpha;
+        reset();
+    }
+
+    //追加一条记录；日期早于当前最新日期时标记为失效，下次读取时重建
+    void add(HealthRecord record) {
+        if (stale) return;
+        long day = record.getRecordDate().toEpochDay();
+        if (day < latestDay) {
+            stale = true;
+            return;
+        }
+        append(record, day);
+    }
+
+    //记录被编辑或删除后调用
+    void invalidate() {
+        stale = true;
+    }
+
+    private void append(HealthRecord record, long day) {
+        latestDay = day;
+        for (Metric metric : Metric.values()) {
+            double value = metric.valueOf(record);
+            if (!Double.isNaN(value)) series.get(metric).add(day, value);
+        }
+    }
+
+    private void reset() {
+        latestDay = Long.MIN_VALUE;
+        for (Metric metric : Metric.values()) series.put(metric, new Series(alpha));
+    }
+
+    private Series fresh(Metric metric) {
+        if (stale) {
+            reset();
+            for (HealthRecord record : history.get()) {
+                append(record, record.getRecordDate().toEpochDay());
+            }
+            stale = false;
+        }
+        return series.get(metric);
+    }
+
+    //最新的记录日期，没有记录时为 null
+    public LocalDate getLatestDate() {
+        fresh(Metric.WEIGHT);
+        return latestDay == Long.MIN_VALUE ? null : LocalDate.ofEpochDay(latestDay);
+    }
+
+    /**
+     * 截至最新记录日期、最近 windowDays 个日历日内该指标日均值的平均，窗口内没有数据时为 NaN。
+     *
+     * @param windowDays {@link #WEEK}、{@link #MONTH} 或 {@link #QUARTER}
+     * @throws IllegalArgumentException 窗口不是上述之一
+     */
+    public double getRollingMean(Metric metric, int windowDays) {
+        for (int w = 0; w < WINDOWS.length; w++) {
+            if (WINDOWS[w] == windowDays) {
+                return fresh(metric).windows[w].mean(latestDay);
+            }
+        }
+        throw new IllegalArgumentException("不支持的窗口天数: " + windowDays);
+    }
+
+    //按记录日依次更新的指数加权平均，没有数据时为 NaN
+    public double getEwma(Metric metric) {
+        return fresh(metric).ewma;
+    }
+
+    //该指标最后一个记录日的日均值，没有数据时为 NaN
+    public double getLatestValue(Metric metric) {
+        Series s = fresh(metric);
+        return s.dayCount == 0 ? Double.NaN : s.daySum / s.dayCount;
+    }
+
+    //该指标最后一个记录日与前一个记录日日均值之差，不足两天时为 NaN
+    public double getDelta(Metric metric) {
+        return getLatestValue(metric) - series.get(metric).previousValue;
+    }
+
+    //单项指标的日聚合、EWMA 和各窗口累加器
+    private static final class Series {
+        private final double alpha;
+        private final Window[] windows = new Window[WINDOWS.length];
+        // 该指标最后一个记录日及当天的合计与条数
+        private long day = Long.MIN_VALUE;
+        private double daySum;
+        private int dayCount;
+        // 前一个记录日的日均值和截至前一个记录日的 EWMA
+        private double previousValue = Double.NaN;
+        private double ewmaBefore = Double.NaN;
+        private double ewma = Double.NaN;
+
+        Series(double alpha) {
+            this.alpha = alpha;
+            for (int w = 0; w < WINDOWS.length; w++) windows[w] = new Window(WINDOWS[w]);
+        }
+
+        void add(long recordDay, double value) {
+            if (recordDay != day) {
+                if (dayCount > 0) {
+                    previousValue = daySum / dayCount;
+                    ewmaBefore = ewma;
+                }
+                day = recordDay;
+                daySum = 0;
+                dayCount = 0;
+            }
+            daySum += value;
+            dayCount++;
+            double dailyMean = daySum / dayCount;
+            ewma = Double.isNaN(ewmaBefore) ? dailyMean : alpha * dailyMean + (1 - alpha) * ewmaBefore;
+            for (Window window : windows) window.put(day, dailyMean);
+        }
+    }
+
+    //最近 size 个日历日的日均值，按日期排列的环形缓冲区，一天最多占一格
+    private static final class Window {
+        private final int size;
+        private final long[] days;
+        private final double[] values;
+        private int head;
+        private int count;
+        private double sum;
+
+        Window(int size) {
+            this.size = size;
+            this.days = new long[size];
+            this.values = new double[size];
+        }
+
+        //放入某天的日均值；与最后一天相同时替换
+        void put(long day, double value) {
+            if (count > 0) {
+                int tail = (head + count - 1) % size;
+                if (days[tail] == day) {
+                    sum += value - values[tail];
+                    values[tail] = value;
+                    return;
+                }
+            }
+            evictBefore(day - size + 1);
+            int tail = (head + count) % size;
+            days[tail] = day;
+            values[tail] = value;
+            sum += value;
+            count++;
+        }
+
+        double mean(long endDay) {
+            evictBefore(endDay - size + 1);
+            return count == 0 ? Double.NaN : sum / count;
+        }
+
+        private void evictBefore(long firstDay) {
+            while (count > 0 && days[head] < firstDay) {
+                sum -= values[head];
+                head = (head + 1) % size;
+                count--;
+            }
+            // 清空后从 0 开始累加，避免浮点误差残留
+            if (count == 0) sum = 0;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.health;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * 穿戴设备导出的单个样本：某一时刻（精确到秒）的心率或该时段的步数。
+ */
+public final class WearableSample {
+
+    //样本类型，每种类型单独存放
+    public enum Type {
+        HEART_RATE,
+        STEPS
+    }
+
+    private final LocalDateTime time;
+    private final int value;
+
+    public WearableSample(LocalDateTime time, int value) {
+        this.time = Objects.requireNonNull(time, "time").withNano(0);
+        this.value = value;
+    }
+
+    public LocalDateTime getTime() {
+        return time;
+    }
+
+    public int getValue() {
+        return value;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof WearableSample)) return false;
+        WearableSample s = (WearableSample) o;
+        return value == s.value && time.equals(s.time);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(time, value);
+    }
+
+    @Override
+    public String toString() {
+        return time + "=" + value;
+    }
+}
@@ -0,0 +1,316 @@
+package com.example.health;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * 穿戴设备样本的追加式二进制存储，按类型和月份分区：{@code <目录>/<类型>/<yyyy-MM>.seg}。
+ * <p>
+ * 每次追加把样本按时间排序后切成不超过 {@link #BLOCK_SIZE} 个样本的块写到分区末尾。块头记录样本数、
+ * 首尾时间和位宽，时间戳存为相邻差值减去块内最小差值，数值存为减去块内最小值后的差，二者都按块内所需的
+ * 最少位数紧密打包。每分钟一个的心率样本时间差全相同，时间戳只占块头；数值通常每个不到 8 位。
+ * <p>
+ * 块之间不要求时间有序（补录的数据追加在后面），读取时按块头的时间范围跳过无关的块，结果再按时间排序。
+ * 同类型每秒最多存一个样本，重复的样本在追加时跳过。文件末尾写了一半的块在读取时忽略，下次追加前截掉。时间按本地时间换算成 UTC 纪元秒，因此一天的边界就是本地日期的边界。
+ */
+public class WearableSampleStore {
+    static final int BLOCK_SIZE = 4096;
+
+    private static final short BLOCK_MAGIC = 0x5753;
+    // magic + count + first + last + minDelta + deltaBits + minValue + valueBits + payloadBytes
+    private static final int HEADER_BYTES = 2 + 4 + 8 + 8 + 4 + 1 + 4 + 1 + 4;
+    private static final DateTimeFormatter PARTITION_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM");
+
+    private final Path dir;
+
+    public WearableSampleStore(Path dir) {
+        this.dir = dir;
+    }
+
+    //某一天某类样本的汇总
+    static final class Rollup {
+        int count;
+        long sum;
+        int min = Integer.MAX_VALUE;
+        int max = Integer.MIN_VALUE;
+
+        void add(int value) {
+            count++;
+            sum += value;
+            if (value < min) min = value;
+            if (value > max) max = value;
+        }
+
+        double mean() {
+            return count == 0 ? Double.NaN : (double) sum / count;
+        }
+    }
+
+    //样本到达时的处理，second 为 UTC 纪元秒
+    private interface SampleSink {
+        void accept(long second, int value);
+    }
+
+    /**
+     * 追加一批样本，每个涉及的月份分区只追加写一次。同类型同一秒已经存储过的样本（包括本批内的重复）会被跳过，
+     * 因此重复导入同一批数据不会重复计数。分区末尾若有上次中断留下的半个块，先截掉再追加。
+     *
+     * @return 实际写入的样本数
+     */
+    public int append(WearableSample.Type type, List<WearableSample> samples) throws IOException {
+        if (samples.isEmpty()) return 0;
+        List<WearableSample> sorted = new ArrayList<>(samples);
+        sorted.sort(Comparator.comparing(WearableSample::getTime));
+        Map<YearMonth, List<WearableSample>> byMonth = new TreeMap<>();
+        for (WearableSample sample : sorted) {
+            byMonth.computeIfAbsent(YearMonth.from(sample.getTime()), k -> new ArrayList<>()).add(sample);
+        }
+        Files.createDirectories(dir.resolve(typeDir(type)));
+        int written = 0;
+        for (Map.Entry<YearMonth, List<WearableSample>> entry : byMonth.entrySet()) {
+            Path file = partition(type, entry.getKey());
+            List<WearableSample> month = withoutStored(file, entry.getValue());
+            if (month.isEmpty()) continue;
+            List<ByteBuffer> blocks = new ArrayList<>();
+            for (int from = 0; from < month.size(); from += BLOCK_SIZE) {
+                blocks.add(encode(month.subList(from, Math.min(month.size(), from + BLOCK_SIZE))));
+            }
+            try (FileChannel channel = FileChannel.open(file,
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                long end = completeLength(file, channel);
+                // 截掉写了一半的块，否则新块会被当作它的内容读取
+                if (end < channel.size()) channel.truncate(end);
+                channel.position(end);
+                ByteBuffer[] buffers = blocks.toArray(new ByteBuffer[0]);
+                long remaining = 0;
+                for (ByteBuffer buffer : buffers) remaining += buffer.remaining();
+                while (remaining > 0) remaining -= channel.write(buffers);
+            }
+            written += month.size();
+        }
+        return written;
+    }
+
+    //去掉分区中已有的秒以及批内重复的秒，sorted 已按时间排序
+    private List<WearableSample> withoutStored(Path file, List<WearableSample> sorted) throws IOException {
+        long first = sorted.get(0).getTime().toEpochSecond(ZoneOffset.UTC);
+        long last = sorted.get(sorted.size() - 1).getTime().toEpochSecond(ZoneOffset.UTC);
+        Set<Long> stored = new HashSet<>();
+        if (Files.exists(file)) {
+            scanFile(file, first, last + 1, (second, value) -> stored.add(second));
+        }
+        List<WearableSample> fresh = new ArrayList<>(sorted.size());
+        for (WearableSample sample : sorted) {
+            if (stored.add(sample.getTime().toEpochSecond(ZoneOffset.UTC))) fresh.add(sample);
+        }
+        return fresh;
+    }
+
+    //从头依次读块头，返回最后一个完整块的结束位置
+    private static long completeLength(Path file, FileChannel channel) throws IOException {
+        long size = channel.size();
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        long position = 0;
+        while (size - position >= HEADER_BYTES) {
+            header.clear();
+            while (header.hasRemaining()) {
+                if (channel.read(header, position + header.position()) < 0) return position;
+            }
+            header.flip();
+            if (header.getShort(0) != BLOCK_MAGIC) {
+                throw new IOException(file + " 在偏移 " + position + " 处的块头损坏");
+            }
+            long next = position + HEADER_BYTES + header.getInt(HEADER_BYTES - 4);
+            if (next > size) break;
+            position = next;
+        }
+        return position;
+    }
+
+    /**
+     * 读取时间在 [from, to) 内的样本，按时间升序。
+     */
+    public List<WearableSample> read(WearableSample.Type type, LocalDateTime from, LocalDateTime to) throws IOException {
+        List<long[]> found = new ArrayList<>();
+        scan(type, from, to, (second, value) -> found.add(new long[]{second, value}));
+        found.sort(Comparator.comparingLong(s -> s[0]));
+        List<WearableSample> result = new ArrayList<>(found.size());
+        for (long[] s : found) {
+            result.add(new WearableSample(LocalDateTime.ofEpochSecond(s[0], 0, ZoneOffset.UTC), (int) s[1]));
+        }
+        return result;
+    }
+
+    //某一天某类样本的条数、合计、最小和最大值，不构造样本对象
+    Rollup rollup(WearableSample.Type type, LocalDate date) throws IOException {
+        Rollup rollup = new Rollup();
+        scan(type, date.atStartOfDay(), date.plusDays(1).atStartOfDay(), (second, value) -> rollup.add(value));
+        return rollup;
+    }
+
+    //依次解码 [from, to) 涉及的分区中与该范围重叠的块，把范围内的样本交给 sink
+    private void scan(WearableSample.Type type, LocalDateTime from, LocalDateTime to, SampleSink sink) throws IOException {
+        if (!from.isBefore(to)) return;
+        long start = from.toEpochSecond(ZoneOffset.UTC);
+        long end = to.toEpochSecond(ZoneOffset.UTC);
+        YearMonth last = YearMonth.from(to.minusSeconds(1));
+        for (YearMonth month = YearMonth.from(from); !month.isAfter(last); month = month.plusMonths(1)) {
+            Path file = partition(type, month);
+            if (Files.exists(file)) scanFile(file, start, end, sink);
+        }
+    }
+
+    //解码一个分区文件中与 [start, end) 重叠的块，文件末尾写了一半的块忽略
+    private static void scanFile(Path file, long start, long end, SampleSink sink) throws IOException {
+        ByteBuffer data = ByteBuffer.wrap(Files.readAllBytes(file));
+        while (data.remaining() >= HEADER_BYTES) {
+            int blockStart = data.position();
+            if (data.getShort() != BLOCK_MAGIC) {
+                throw new IOException(file + " 在偏移 " + blockStart + " 处的块头损坏");
+            }
+            int count = data.getInt();
+            long first = data.getLong();
+            long lastSecond = data.getLong();
+            int minDelta = data.getInt();
+            int deltaBits = data.get();
+            int minValue = data.getInt();
+            int valueBits = data.get();
+            int payloadBytes = data.getInt();
+            // 写了一半的块
+            if (payloadBytes > data.remaining()) break;
+            int payloadStart = data.position();
+            data.position(payloadStart + payloadBytes);
+            if (lastSecond < start || first >= end) continue;
+
+            BitReader bits = new BitReader(data, payloadStart);
+            long second = first;
+            long[] seconds = new long[count];
+            for (int i = 0; i < count; i++) {
+                if (i > 0) second += minDelta + bits.read(deltaBits);
+                seconds[i] = second;
+            }
+            for (int i = 0; i < count; i++) {
+                int value = (int) (minValue + bits.read(valueBits));
+                if (seconds[i] >= start && seconds[i] < end) sink.accept(seconds[i], value);
+            }
+        }
+    }
+
+    //把按时间排好的同一分区样本编码成一个块
+    private static ByteBuffer encode(List<WearableSample> samples) {
+        int count = samples.size();
+        long[] seconds = new long[count];
+        int minValue = Integer.MAX_VALUE;
+        int maxValue = Integer.MIN_VALUE;
+        for (int i = 0; i < count; i++) {
+            seconds[i] = samples.get(i).getTime().toEpochSecond(ZoneOffset.UTC);
+            minValue = Math.min(minValue, samples.get(i).getValue());
+            maxValue = Math.max(maxValue, samples.get(i).getValue());
+        }
+        // 同一月份内相邻时间差不会超过 int 范围
+        int minDelta = Integer.MAX_VALUE;
+        int maxDelta = 0;
+        for (int i = 1; i < count; i++) {
+            int delta = (int) (seconds[i] - seconds[i - 1]);
+            minDelta = Math.min(minDelta, delta);
+            maxDelta = Math.max(maxDelta, delta);
+        }
+        if (count < 2) minDelta = 0;
+        int deltaBits = bitsFor((long) maxDelta - minDelta);
+        int valueBits = bitsFor((long) maxValue - minValue);
+
+        BitWriter bits = new BitWriter((int) (((long) (count - 1) * deltaBits + (long) count * valueBits + 7) / 8));
+        for (int i = 1; i < count; i++) bits.write(seconds[i] - seconds[i - 1] - minDelta, deltaBits);
+        for (WearableSample sample : samples) bits.write((long) sample.getValue() - minValue, valueBits);
+        byte[] payload = bits.toByteArray();
+
+        ByteBuffer block = ByteBuffer.allocate(HEADER_BYTES + payload.length);
+        block.putShort(BLOCK_MAGIC)
+                .putInt(count)
+                .putLong(seconds[0])
+                .putLong(seconds[count - 1])
+                .putInt(minDelta)
+                .put((byte) deltaBits)
+                .putInt(minValue)
+                .put((byte) valueBits)
+                .putInt(payload.length)
+                .put(payload);
+        block.flip();
+        return block;
+    }
+
+    //表示 [0, range] 内的值所需的位数
+    private static int bitsFor(long range) {
+        return 64 - Long.numberOfLeadingZeros(range);
+    }
+
+    private Path partition(WearableSample.Type type, YearMonth month) {
+        return dir.resolve(typeDir(type)).resolve(month.format(PARTITION_FORMATTER) + ".seg");
+    }
+
+    private static String typeDir(WearableSample.Type type) {
+        return type.name().toLowerCase(Locale.ROOT);
+    }
+
+    //按位从高到低写入字节数组
+    private static final class BitWriter {
+        private final byte[] bytes;
+        private long bitPosition;
+
+        BitWriter(int capacity) {
+            this.bytes = new byte[capacity];
+        }
+
+        void write(long value, int width) {
+            for (int bit = width - 1; bit >= 0; bit--) {
+                if (((value >>> bit) & 1) != 0) {
+                    bytes[(int) (bitPosition >>> 3)] |= (byte) (0x80 >>> (bitPosition & 7));
+                }
+                bitPosition++;
+            }
+        }
+
+        byte[] toByteArray() {
+            return bytes;
+        }
+    }
+
+    //从缓冲区的 offset 处开始按位读取
+    private static final class BitReader {
+        private final ByteBuffer data;
+        private final int offset;
+        private long bitPosition;
+
+        BitReader(ByteBuffer data, int offset) {
+            this.data = data;
+            this.offset = offset;
+        }
+
+        long read(int width) {
+            long value = 0;
+            for (int i = 0; i < width; i++) {
+                int b = data.get(offset + (int) (bitPosition >>> 3));
+                value = (value << 1) | ((b >>> (7 - (bitPosition & 7))) & 1);
+                bitPosition++;
+            }
+            return value;
+        }
+    }
+}
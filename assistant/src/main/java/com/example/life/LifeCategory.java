@@ -0,0 +1,50 @@
+package com.example.life;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 预设的生活记录分类，声明顺序即菜单中的顺序。记录里保存的是分类名称，预设之外的名称也允许。
+ */
+public enum LifeCategory {
+    DAILY("日常"),
+    MEMORY("回忆"),
+    EVENT("事件"),
+    WORK("工作"),
+    STUDY("学习"),
+    HEALTH("健康"),
+    TRAVEL("旅行"),
+    FAMILY("家庭"),
+    FRIENDS("朋友"),
+    HOBBY("爱好");
+
+    private static final Map<String, LifeCategory> BY_LABEL = new HashMap<>();
+
+    static {
+        for (LifeCategory category : values()) BY_LABEL.put(category.label, category);
+    }
+
+    private final String label;
+
+    LifeCategory(String label) {
+        this.label = label;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    //按名称查找，不是预设分类（包括 null）时返回 null
+    public static LifeCategory of(String label) {
+        return label == null ? null : BY_LABEL.get(label);
+    }
+
+    //按声明顺序的所有名称
+    static List<String> labels() {
+        List<String> labels = new ArrayList<>();
+        for (LifeCategory category : values()) labels.add(category.label);
+        return labels;
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.life;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 延迟加载模式下生活记录正文的读取器。
+ * <p>
+ * 记录只保存正文在数据文件中的字节偏移和长度，需要时用 {@link FileChannel} 按位置读取，
+ * 最近读过的正文放在一个按访问顺序淘汰的有界缓存里。数据文件被压缩（替换）后需调用 {@link #reset}。
+ */
+final class LifeContentStore {
+    static final int DEFAULT_CACHE_SIZE = 256;
+
+    private final Path file;
+    private final Map<Long, String> cache;
+    private FileChannel channel;
+
+    LifeContentStore(Path file, int cacheSize) {
+        this.file = file;
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, String> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    //读取 [offset, offset + length) 处转义过的正文，读取失败时返回 null
+    String read(long offset, int length) {
+        String cached = cache.get(offset);
+        if (cached != null) return cached;
+        try {
+            if (channel == null) {
+                channel = FileChannel.open(file, StandardOpenOption.READ);
+            }
+            ByteBuffer buffer = ByteBuffer.allocate(length);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, offset + buffer.position()) < 0) {
+                    throw new EOFException(file + " 在偏移 " + offset + " 处提前结束");
+                }
+            }
+            String content = LifeRecordManager.unescape(new String(buffer.array(), StandardCharsets.UTF_8));
+            if (content != null) cache.put(offset, content);
+            return content;
+        } catch (IOException e) {
+            System.err.println("读取记录内容错误: " + e.getMessage());
+            return null;
+        }
+    }
+
+    int cachedCount() {
+        return cache.size();
+    }
+
+    //数据文件被替换后丢弃缓存并重新打开文件
+    void reset() {
+        cache.clear();
+        close();
+    }
+
+    void close() {
+        if (channel == null) return;
+        try {
+            channel.close();
+        } catch (IOException e) {
+            System.err.println("关闭数据文件错误: " + e.getMessage());
+        }
+        channel = null;
+    }
+}
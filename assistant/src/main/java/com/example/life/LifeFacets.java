@@ -0,0 +1,115 @@
+package com.example.life;
+
+import java.time.YearMonth;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * 生活记录按分类、心情和月份的计数。
+ * <p>
+ * 分类和心情按 {@link LifeCategory}、{@link LifeMood} 的序号索引到 int 数组里，最后一格统计不在预设中的值（包括 null）。
+ * 由 {@link LifeRecordManager} 在加载、增、改、删时增量更新，读取单个计数为 O(1)，返回的 map 都是副本。
+ * 也可以用 {@link #of} 对一组记录（如搜索结果）现算一份。
+ */
+public class LifeFacets {
+    //不在预设列表中的分类或心情在结果中的名称
+    public static final String OTHER = "其他";
+
+    private static final LifeCategory[] CATEGORIES = LifeCategory.values();
+    private static final LifeMood[] MOODS = LifeMood.values();
+
+    private final int[] categoryCounts = new int[CATEGORIES.length + 1];
+    private final int[] moodCounts = new int[MOODS.length + 1];
+    private final NavigableMap<YearMonth, int[]> monthCounts = new TreeMap<>();
+    private int total;
+
+    LifeFacets() {
+    }
+
+    //统计给定的记录
+    public static LifeFacets of(Iterable<LifeRecord> records) {
+        LifeFacets facets = new LifeFacets();
+        for (LifeRecord record : records) facets.add(record);
+        return facets;
+    }
+
+    void add(LifeRecord record) {
+        apply(record, 1);
+    }
+
+    void remove(LifeRecord record) {
+        apply(record, -1);
+    }
+
+    private void apply(LifeRecord record, int delta) {
+        categoryCounts[slot(LifeCategory.of(record.getCategory()))] += delta;
+        moodCounts[slot(LifeMood.of(record.getMood()))] += delta;
+        YearMonth month = YearMonth.from(record.getTimestamp());
+        int[] count = monthCounts.computeIfAbsent(month, k -> new int[1]);
+        count[0] += delta;
+        if (count[0] == 0) monthCounts.remove(month);
+        total += delta;
+    }
+
+    private static int slot(LifeCategory category) {
+        return category == null ? CATEGORIES.length : category.ordinal();
+    }
+
+    private static int slot(LifeMood mood) {
+        return mood == null ? MOODS.length : mood.ordinal();
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    //某个预设分类的记录数，null 表示不在预设列表中的记录数
+    public int getCategoryCount(LifeCategory category) {
+        return categoryCounts[slot(category)];
+    }
+
+    //按名称查询，传入 OTHER 或其他非预设名称时返回不在预设列表中的记录数
+    public int getCategoryCount(String category) {
+        return getCategoryCount(LifeCategory.of(category));
+    }
+
+    public int getMoodCount(LifeMood mood) {
+        return moodCounts[slot(mood)];
+    }
+
+    public int getMoodCount(String mood) {
+        return getMoodCount(LifeMood.of(mood));
+    }
+
+    public int getMonthCount(YearMonth month) {
+        int[] count = monthCounts.get(month);
+        return count == null ? 0 : count[0];
+    }
+
+    //按预设顺序的分类计数，含计数为 0 的分类；有不在列表中的分类时最后附上 OTHER
+    public Map<String, Integer> getCategoryCounts() {
+        Map<String, Integer> result = new LinkedHashMap<>();
+        for (LifeCategory category : CATEGORIES) result.put(category.getLabel(), categoryCounts[category.ordinal()]);
+        return withOther(result, categoryCounts[CATEGORIES.length]);
+    }
+
+    public Map<String, Integer> getMoodCounts() {
+        Map<String, Integer> result = new LinkedHashMap<>();
+        for (LifeMood mood : MOODS) result.put(mood.getLabel(), moodCounts[mood.ordinal()]);
+        return withOther(result, moodCounts[MOODS.length]);
+    }
+
+    //按月份升序，只含有记录的月份
+    public NavigableMap<YearMonth, Integer> getMonthCounts() {
+        NavigableMap<YearMonth, Integer> result = new TreeMap<>();
+        monthCounts.forEach((month, count) -> result.put(month, count[0]));
+        return result;
+    }
+
+    private static Map<String, Integer> withOther(Map<String, Integer> counts, int other) {
+        if (other > 0) counts.put(OTHER, other);
+        return counts;
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.life;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 预设的心情（含表情符号），声明顺序即菜单中的顺序。记录里保存的是心情名称，预设之外的名称也允许。
+ */
+public enum LifeMood {
+    HAPPY("😊 开心"),
+    SAD("😢 难过"),
+    ANGRY("😤 生气"),
+    TIRED("😴 疲惫"),
+    EXCITED("😎 激动"),
+    ANXIOUS("😰 焦虑"),
+    CALM("😌 冷静"),
+    THINKING("🤔 思考"),
+    IN_LOVE("😍 恋爱"),
+    CONFUSED("😕 困惑");
+
+    private static final Map<String, LifeMood> BY_LABEL = new HashMap<>();
+
+    static {
+        for (LifeMood mood : values()) BY_LABEL.put(mood.label, mood);
+    }
+
+    private final String label;
+
+    LifeMood(String label) {
+        this.label = label;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    //按名称查找，不是预设心情（包括 null）时返回 null
+    public static LifeMood of(String label) {
+        return label == null ? null : BY_LABEL.get(label);
+    }
+
+    //按声明顺序的所有名称
+    static List<String> labels() {
+        List<String> labels = new ArrayList<>();
+        for (LifeMood mood : values()) labels.add(mood.label);
+        return labels;
+    }
+}
@@ -4,11 +4,16 @@ import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 
 public class LifeRecord {
+    private int id;//编号，由管理器分配，0 表示尚未保存
     private String title;//标题
     private String content;//内容
     private LocalDateTime timestamp;//记录创建或最后修改的时间戳
     private String category;//分类
     private String mood;//心情
+    // 延迟加载时正文不在内存中，按偏移和字节数从 contentStore 读取
+    private LifeContentStore contentStore;
+    private long contentOffset;
+    private int contentLength;
 
     public LifeRecord(String title, String content, String category,String mood) {
         this.title = title;
@@ -18,6 +23,14 @@ public class LifeRecord {
         this.mood = mood;
     }
 
+    public int getId() {
+        return id;
+    }
+
+    void setId(int id) {
+        this.id = id;
+    }
+
     public String getTitle() {
         return title;
     }
@@ -27,11 +40,23 @@ public class LifeRecord {
     }
 
     public String getContent() {
+        if (contentStore != null) {
+            return contentStore.read(contentOffset, contentLength);
+        }
         return content;
     }
 
     public void setContent(String content) {
         this.content = content;
+        this.contentStore = null;
+    }
+
+    //改为从文件读取正文，释放内存中的正文
+    void setContentLocation(LifeContentStore store, long offset, int length) {
+        this.contentStore = store;
+        this.contentOffset = offset;
+        this.contentLength = length;
+        this.content = null;
     }
 
     public LocalDateTime getTimestamp() {
@@ -66,7 +91,7 @@ public class LifeRecord {
                 "分类: " + category + "\n" +
                 "心情: " + mood + "\n" +
                 "时间戳: " + timestamp.format(formatter) + "\n" +
-                "内容:\n" + content + "\n" +
+                "内容:\n" + getContent() + "\n" +
                 "----------------------------------------";
     }
 
@@ -77,13 +102,13 @@ public class LifeRecord {
                 escape(category) + " | " +
                 escape(mood) + " | " +
                 escape(title) + " | " +
-                escape(content);
+                escape(getContent());
     }
 
 
-    //转义方法
+    //转义方法，换行也要转义，否则一条记录会占多行
     private String escape(String input) {
-        return input == null ? "null" : input.replace(" | ", "[PIPE]");
+        return input == null ? "null" : input.replace(" | ", "[PIPE]").replace("\r", "[CR]").replace("\n", "[NL]");
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,215 @@
+package com.example.life;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+/**
+ * 生活记录与单行 JSON 对象之间的转换，用于 NDJSON 导入导出。
+ * <p>
+ * 对象只有 timestamp、category、mood、title、content 五个字符串字段（可为 null），
+ * 换行等控制字符一律转义，因此一条记录总是恰好一行。解析时忽略未知字段，字段值只接受字符串或 null。
+ */
+final class LifeRecordJson {
+    private static final DateTimeFormatter TIMESTAMP_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private LifeRecordJson() {
+    }
+
+    static String toJson(LifeRecord record) {
+        StringBuilder sb = new StringBuilder(128);
+        sb.append('{');
+        field(sb, "timestamp", record.getTimestamp() == null ? null : record.getTimestamp().format(TIMESTAMP_FORMATTER));
+        sb.append(',');
+        field(sb, "category", record.getCategory());
+        sb.append(',');
+        field(sb, "mood", record.getMood());
+        sb.append(',');
+        field(sb, "title", record.getTitle());
+        sb.append(',');
+        field(sb, "content", record.getContent());
+        return sb.append('}').toString();
+    }
+
+    private static void field(StringBuilder sb, String name, String value) {
+        sb.append('"').append(name).append("\":");
+        if (value == null) {
+            sb.append("null");
+            return;
+        }
+        sb.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    sb.append("\\\"");
+                    break;
+                case '\\':
+                    sb.append("\\\\");
+                    break;
+                case '\n':
+                    sb.append("\\n");
+                    break;
+                case '\r':
+                    sb.append("\\r");
+                    break;
+                case '\t':
+                    sb.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20 || c == 0x2028 || c == 0x2029) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+            }
+        }
+        sb.append('"');
+    }
+
+    /**
+     * 解析一行 JSON 为记录，缺少时间戳时使用当前时间。
+     *
+     * @throws IllegalArgumentException JSON 格式错误或时间戳格式错误
+     */
+    static LifeRecord parse(String line) {
+        Parser p = new Parser(line);
+        String timestamp = null, category = null, mood = null, title = null, content = null;
+        p.skipSpace();
+        p.expect('{');
+        p.skipSpace();
+        if (!p.consume('}')) {
+            do {
+                p.skipSpace();
+                String name = p.string();
+                p.skipSpace();
+                p.expect(':');
+                p.skipSpace();
+                String value = p.stringOrNull();
+                switch (name) {
+                    case "timestamp":
+                        timestamp = value;
+                        break;
+                    case "category":
+                        category = value;
+                        break;
+                    case "mood":
+                        mood = value;
+                        break;
+                    case "title":
+                        title = value;
+                        break;
+                    case "content":
+                        content = value;
+                        break;
+                    default:
+                        break;
+                }
+                p.skipSpace();
+            } while (p.consume(','));
+            p.expect('}');
+        }
+        p.skipSpace();
+        if (!p.atEnd()) throw p.error("对象之后还有多余内容");
+
+        LifeRecord record = new LifeRecord(title, content, category, mood);
+        if (timestamp != null) {
+            try {
+                record.setTimestamp(LocalDateTime.parse(timestamp, TIMESTAMP_FORMATTER));
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException("时间戳格式错误: " + timestamp);
+            }
+        }
+        return record;
+    }
+
+    private static final class Parser {
+        private final String text;
+        private int pos;
+
+        Parser(String text) {
+            this.text = text;
+        }
+
+        boolean atEnd() {
+            return pos >= text.length();
+        }
+
+        void skipSpace() {
+            while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) pos++;
+        }
+
+        boolean consume(char c) {
+            if (pos < text.length() && text.charAt(pos) == c) {
+                pos++;
+                return true;
+            }
+            return false;
+        }
+
+        void expect(char c) {
+            if (!consume(c)) throw error("应为 '" + c + "'");
+        }
+
+        String stringOrNull() {
+            if (text.startsWith("null", pos)) {
+                pos += 4;
+                return null;
+            }
+            return string();
+        }
+
+        String string() {
+            expect('"');
+            StringBuilder sb = new StringBuilder();
+            while (true) {
+                if (atEnd()) throw error("字符串没有结束");
+                char c = text.charAt(pos++);
+                if (c == '"') return sb.toString();
+                if (c != '\\') {
+                    sb.append(c);
+                    continue;
+                }
+                if (atEnd()) throw error("转义没有结束");
+                char e = text.charAt(pos++);
+                switch (e) {
+                    case '"':
+                    case '\\':
+                    case '/':
+                        sb.append(e);
+                        break;
+                    case 'n':
+                        sb.append('\n');
+                        break;
+                    case 'r':
+                        sb.append('\r');
+                        break;
+                    case 't':
+                        sb.append('\t');
+                        break;
+                    case 'b':
+                        sb.append('\b');
+                        break;
+                    case 'f':
+                        sb.append('\f');
+                        break;
+                    case 'u':
+                        if (pos + 4 > text.length()) throw error("\\u 转义不完整");
+                        try {
+                            sb.append((char) Integer.parseInt(text.substring(pos, pos + 4), 16));
+                        } catch (NumberFormatException ex) {
+                            throw error("\\u 转义不合法");
+                        }
+                        pos += 4;
+                        break;
+                    default:
+                        throw error("未知转义 \\" + e);
+                }
+            }
+        }
+
+        IllegalArgumentException error(String message) {
+            return new IllegalArgumentException("第 " + (pos + 1) + " 个字符处" + message);
+        }
+    }
+}
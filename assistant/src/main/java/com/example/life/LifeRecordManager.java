@@ -1,45 +1,118 @@
 package com.example.life;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.nio.file.StandardOpenOption;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections; // <-- 新增导入
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 
+/**
+ * 生活记录管理器。
+ * <p>
+ * 数据文件是追加式的：新增记录追加一行 {@code 编号 | 记录}，编辑追加一行 {@code @U | 编号 | 记录}，
+ * 删除追加一行 {@code @D | 编号}，加载时按顺序回放即可还原。编号写在记录行中，压缩后也不变；
+ * 旧格式的记录行没有编号，按它是第几条记录行编号。文件中的失效行多于有效记录（且超过
+ * {@link #DEFAULT_COMPACT_THRESHOLD} 行）时自动压缩：先写临时文件再原子重命名。任何时刻崩溃，
+ * 文件要么是压缩前的完整日志，要么是压缩后的快照；崩溃留下的不完整末行在下次追加前先补上换行。
+ * <p>
+ * 延迟加载模式下记录只在内存中保留标题、分类、心情、时间和正文在文件中的位置，
+ * 正文在 {@link LifeRecord#getContent()} 时才读取（见 {@link LifeContentStore}），
+ * 内存占用只随记录条数增长，不随正文总量增长。
+ */
 public class LifeRecordManager {
+    public static final String DATA_DIR = "data";
+    public static final String FILE_NAME = "life_records.txt";
+    static final int DEFAULT_COMPACT_THRESHOLD = 1000;
+    // 导入时每批写入数据文件的记录数
+    static final int IMPORT_CHUNK = 1000;
+    static final int IO_BUFFER_SIZE = 64 * 1024;
+
+    private static final String UPDATE = "@U";
+    private static final String DELETE = "@D";
+    private static final DateTimeFormatter TIMESTAMP_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
     private final List<LifeRecord> records;
+    // 搜索用的倒排索引，随增删改同步维护
+    private final LifeSearchIndex searchIndex = new LifeSearchIndex();
+    // 按时间戳排序的索引，供时间段查询使用
+    private final LifeTimeIndex timeIndex = new LifeTimeIndex();
+    // 按分类、心情、月份的计数
+    private final LifeFacets facets = new LifeFacets();
 
     private final String dataDir;
     @SuppressWarnings("FieldCanBeLocal")
     private final String fileName;
     private final String filePath;
+    private final int compactThreshold;
+    // 文件中的记录行、更新行和删除行总数
+    private int fileLines;
+    // 下一条新增记录的编号，比文件中出现过的最大编号大
+    private int nextId = 1;
+    // 延迟加载模式下的正文读取器，普通模式为 null
+    private final LifeContentStore contentStore;
 
     //预设的生活记录分类列表
-    private static final List<String> CATEGORIES = Arrays.asList(
-            "日常", "回忆", "事件", "工作", "学习", "健康", "旅行", "家庭", "朋友", "爱好"
-    );
+    private static final List<String> CATEGORIES = LifeCategory.labels();
 
     // 预设的心情列表，包含表情符号
-    private static final List<String> MOODS = Arrays.asList(
-            "😊 开心", "😢 难过", "😤 生气", "😴 疲惫", "😎 激动", "😰 焦虑", "😌 冷静", "🤔 思考", "😍 恋爱", "😕 困惑"
-    );
+    private static final List<String> MOODS = LifeMood.labels();
 
     public LifeRecordManager() {
-        this("data", "life_records.txt");
+        this(DATA_DIR, FILE_NAME);
     }
 
     public LifeRecordManager(String dataDir, String fileName) {
+        this(dataDir, fileName, false);
+    }
+
+    /**
+     * lazyContent 为 true 时正文不常驻内存，按需从文件读取。
+     * <p>
+     * 延迟加载只去掉了正文字符串本身：搜索索引仍为正文中每个不同的词保存倒排项（见 {@link LifeSearchIndex}），
+     * 所以堆占用仍随正文总量增长，只是比保留原文小；启动时也仍要把正文读一遍来建索引。
+     */
+    public LifeRecordManager(String dataDir, String fileName, boolean lazyContent) {
+        this(dataDir, fileName, lazyContent, DEFAULT_COMPACT_THRESHOLD, LifeContentStore.DEFAULT_CACHE_SIZE);
+    }
+
+    LifeRecordManager(String dataDir, String fileName, int compactThreshold) {
+        this(dataDir, fileName, false, compactThreshold, LifeContentStore.DEFAULT_CACHE_SIZE);
+    }
+
+    //compactThreshold：失效行超过该数目（且多于有效记录数）时压缩文件；cacheSize：延迟加载时缓存的正文条数
+    LifeRecordManager(String dataDir, String fileName, boolean lazyContent, int compactThreshold, int cacheSize) {
         this.records = new ArrayList<>();
+        this.compactThreshold = compactThreshold;
         this.dataDir = dataDir;
         this.fileName = fileName;
         this.filePath = this.dataDir + "/" + this.fileName;
+        this.contentStore = lazyContent ? new LifeContentStore(Paths.get(this.filePath), cacheSize) : null;
         createDataDirectory();
         loadRecordsFromFile();
     }
@@ -58,30 +131,69 @@ public class LifeRecordManager {
     }
 
     //转义方法
-    private String unescape(String input) {
-        return input == null || input.equals("null") ? null : input.replace("[PIPE]", " | ");
+    static String unescape(String input) {
+        return input == null || input.equals("null") ? null
+                : input.replace("[NL]", "\n").replace("[CR]", "\r").replace("[PIPE]", " | ");
     }
 
-    //从文件中加载记录
+    //从文件中加载记录，按顺序回放新增、更新和删除行
     private void loadRecordsFromFile() {
         try {
             Path file = Paths.get(this.filePath);
             if (Files.exists(file)) {
-                List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
-                for (String line : lines) {
-                    if (!line.trim().isEmpty()) {
-                        String[] parts = line.split(" \\| ", 5);
-                        if (parts.length == 5) {
+                Map<Integer, LifeRecord> byId = new LinkedHashMap<>();
+                forEachLine(file, (offset, line) -> {
+                    if (line.trim().isEmpty()) return;
+                    if (line.startsWith(UPDATE + " | ")) {
+                        String[] parts = line.split(" \\| ", 7);
+                        LifeRecord target = parts.length == 7 ? byId.get(parseId(parts[1])) : null;
+                        if (target != null) {
+                            timeIndex.remove(target);
+                            facets.remove(target);
+                            searchIndex.update(target, () -> {
+                                target.setTimestamp(parseTimestamp(parts[2]));
+                                target.setCategory(unescape(parts[3]));
+                                target.setMood(unescape(parts[4]));
+                                target.setTitle(unescape(parts[5]));
+                                target.setContent(unescape(parts[6]));
+                            });
+                            timeIndex.add(target);
+                            facets.add(target);
+                            keepContentOnDisk(target, offset, line, parts[6]);
+                        }
+                        fileLines++;
+                    } else if (line.startsWith(DELETE + " | ")) {
+                        LifeRecord removed = byId.remove(parseId(line.substring(DELETE.length() + 3)));
+                        if (removed != null) {
+                            searchIndex.remove(removed);
+                            timeIndex.remove(removed);
+                            facets.remove(removed);
+                        }
+                        fileLines++;
+                    } else {
+                        String[] parts = recordFields(line);
+                        if (parts != null) {
                             LifeRecord record = new LifeRecord(
-                                    unescape(parts[3]),
                                     unescape(parts[4]),
-                                    unescape(parts[1]),
-                                    unescape(parts[2])
+                                    unescape(parts[5]),
+                                    unescape(parts[2]),
+                                    unescape(parts[3])
                             );
-                            records.add(record);
+                            record.setTimestamp(parseTimestamp(parts[1]));
+                            // 旧格式的记录行没有编号，按位置编号
+                            int id = parts[0] == null ? nextId : parseId(parts[0]);
+                            record.setId(id);
+                            nextId = Math.max(nextId, id + 1);
+                            byId.put(id, record);
+                            searchIndex.add(record);
+                            timeIndex.add(record);
+                            facets.add(record);
+                            keepContentOnDisk(record, offset, line, parts[5]);
+                            fileLines++;
                         }
                     }
-                }
+                });
+                records.addAll(byId.values());
                 System.out.println("已从文件中加载 " + records.size() + " 条记录.");
             }
         } catch (IOException e) {
@@ -89,15 +201,186 @@ public class LifeRecordManager {
         }
     }
 
-    //保存记录到文件
+    /**
+     * 拆分记录行为 编号、时间戳、分类、心情、标题、正文 六个字段，旧格式的行编号为 null；
+     * 不是完整的记录行时返回 null。
+     */
+    private static String[] recordFields(String line) {
+        String[] parts = line.split(" \\| ", 6);
+        if (parts.length == 6 && parseId(parts[0]) > 0) return parts;
+        parts = line.split(" \\| ", 5);
+        if (parts.length != 5) return null;
+        String[] fields = new String[6];
+        System.arraycopy(parts, 0, fields, 1, 5);
+        return fields;
+    }
+
+    private interface LineConsumer {
+        void accept(long offset, String line);
+    }
+
+    //逐行读取 UTF-8 文件，同时给出每行起始的字节偏移；按块读入后在块内找换行，不把整个文件读进内存
+    private static void forEachLine(Path file, LineConsumer consumer) throws IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            byte[] block = new byte[IO_BUFFER_SIZE];
+            // 跨块的行先拼到 partial 中
+            byte[] partial = new byte[256];
+            int partialLength = 0;
+            long blockStart = 0;
+            long lineStart = 0;
+            int n;
+            while ((n = in.read(block)) >= 0) {
+                int from = 0;
+                for (int i = 0; i < n; i++) {
+                    if (block[i] != '\n') continue;
+                    if (partialLength == 0) {
+                        acceptLine(consumer, lineStart, block, from, i);
+                    } else {
+                        partial = append(partial, partialLength, block, from, i);
+                        acceptLine(consumer, lineStart, partial, 0, partialLength + i - from);
+                        partialLength = 0;
+                    }
+                    from = i + 1;
+                    lineStart = blockStart + from;
+                }
+                partial = append(partial, partialLength, block, from, n);
+                partialLength += n - from;
+                blockStart += n;
+            }
+            if (partialLength > 0) {
+                acceptLine(consumer, lineStart, partial, 0, partialLength);
+            }
+        }
+    }
+
+    //把 bytes[from, to) 解码为一行交给 consumer，去掉行尾的 \r
+    private static void acceptLine(LineConsumer consumer, long offset, byte[] bytes, int from, int to) {
+        if (to > from && bytes[to - 1] == '\r') to--;
+        consumer.accept(offset, new String(bytes, from, to - from, StandardCharsets.UTF_8));
+    }
+
+    //把 src[from, to) 接到 dest 的前 length 个字节之后，空间不够时扩容
+    private static byte[] append(byte[] dest, int length, byte[] src, int from, int to) {
+        int needed = length + to - from;
+        if (needed > dest.length) dest = Arrays.copyOf(dest, Math.max(needed, dest.length * 2));
+        System.arraycopy(src, from, dest, length, to - from);
+        return dest;
+    }
+
+    /**
+     * 延迟加载模式下，让记录改为从文件读取正文。正文是行的最后一个字段，
+     * 起始偏移 = 行起始偏移 + 整行字节数 - 正文字节数。
+     */
+    private void keepContentOnDisk(LifeRecord record, long lineOffset, String line, String escapedContent) {
+        if (contentStore == null) return;
+        int contentBytes = utf8Length(escapedContent);
+        record.setContentLocation(contentStore, lineOffset + utf8Length(line) - contentBytes, contentBytes);
+    }
+
+    //字符串按 UTF-8 编码后的字节数
+    private static int utf8Length(String text) {
+        int bytes = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                bytes++;
+            } else if (c < 0x800) {
+                bytes += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < text.length() && Character.isLowSurrogate(text.charAt(i + 1))) {
+                bytes += 4;
+                i++;
+            } else {
+                bytes += 3;
+            }
+        }
+        return bytes;
+    }
+
+    //解析时间戳，格式不对时用当前时间
+    private static LocalDateTime parseTimestamp(String text) {
+        try {
+            return LocalDateTime.parse(text.trim(), TIMESTAMP_FORMATTER);
+        } catch (DateTimeParseException e) {
+            return LocalDateTime.now();
+        }
+    }
+
+    //解析编号，崩溃时写了一半的行返回 -1
+    private static int parseId(String text) {
+        try {
+            return Integer.parseInt(text.trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    //保存记录到文件，编号写在行首
     private void saveRecordToFile(LifeRecord record) {
+        record.setId(nextId++);
+        appendLine(record, record.getId() + " | ", 6, "保存记录到文件错误: ");
+    }
+
+    //记录在数据文件中的记录行
+    private static String recordLine(LifeRecord record) {
+        return record.getId() + " | " + record.toFileFormat();
+    }
+
+    //向数据文件追加一行 prefix + 记录，fields 为整行的字段数（正文总是最后一个字段）
+    private void appendLine(LifeRecord record, String prefix, int fields, String errorMessage) {
+        String line = prefix + record.toFileFormat();
+        long offset = appendLine(line, errorMessage);
+        if (offset >= 0) {
+            keepContentOnDisk(record, offset, line, line.split(" \\| ", fields)[fields - 1]);
+        }
+    }
+
+    //向数据文件追加一行，返回该行的起始偏移，失败时返回 -1
+    private long appendLine(String line, String errorMessage) {
+        return appendLines(Collections.singletonList(line), errorMessage);
+    }
+
+    /**
+     * 一次写入向数据文件追加多行，返回第一行的起始偏移，失败时返回 -1。
+     * 文件末行没有换行（上次写到一半崩溃）时先补一个换行，避免新行与它拼成一行。
+     */
+    private long appendLines(List<String> lines, String errorMessage) {
+        StringBuilder text = new StringBuilder();
+        for (String line : lines) {
+            text.append(line).append(System.lineSeparator());
+        }
         try {
             Path file = Paths.get(this.filePath);
-            String recordLine = record.toFileFormat() + System.lineSeparator();
-            Files.writeString(file, recordLine, StandardCharsets.UTF_8,
-                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            long offset = 0;
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                long size = channel.size();
+                if (size > 0 && !endsWithNewline(channel, size)) {
+                    text.insert(0, System.lineSeparator());
+                    offset = utf8Length(System.lineSeparator());
+                }
+                offset += size;
+                ByteBuffer bytes = StandardCharsets.UTF_8.encode(CharBuffer.wrap(text));
+                long position = size;
+                while (bytes.hasRemaining()) position += channel.write(bytes, position);
+            }
+            fileLines += lines.size();
+            return offset;
         } catch (IOException e) {
-            System.err.println("保存记录到文件错误: " + e.getMessage());
+            System.err.println(errorMessage + e.getMessage());
+            return -1;
+        }
+    }
+
+    private static boolean endsWithNewline(FileChannel channel, long size) throws IOException {
+        ByteBuffer last = ByteBuffer.allocate(1);
+        return channel.read(last, size - 1) == 1 && last.get(0) == '\n';
+    }
+
+    //失效行过多时压缩文件
+    private void compactIfNeeded() {
+        int garbage = fileLines - records.size();
+        if (garbage > compactThreshold && garbage > records.size()) {
+            rewriteFile();
         }
     }
 
@@ -117,47 +400,165 @@ public class LifeRecordManager {
     public void addRecord(String title, String content, String category, String mood) {
         LifeRecord record = new LifeRecord(title, content, category, mood);
         records.add(record);
+        searchIndex.add(record);
+        timeIndex.add(record);
+        facets.add(record);
         saveRecordToFile(record);
         System.out.println("生活记录添加并保存成功！");
     }
 
-    //搜索生活记录
+    /**
+     * 批量添加记录，保留记录自带的时间戳。索引逐条更新，整批只向数据文件追加写一次。
+     */
+    public void addRecords(List<LifeRecord> batch) {
+        if (batch.isEmpty()) return;
+        List<String> lines = new ArrayList<>(batch.size());
+        for (LifeRecord record : batch) {
+            record.setId(nextId++);
+            records.add(record);
+            searchIndex.add(record);
+            timeIndex.add(record);
+            facets.add(record);
+            lines.add(recordLine(record));
+        }
+        long offset = appendLines(lines, "保存记录到文件错误: ");
+        if (offset < 0 || contentStore == null) return;
+        long separatorBytes = utf8Length(System.lineSeparator());
+        for (int i = 0; i < batch.size(); i++) {
+            String line = lines.get(i);
+            keepContentOnDisk(batch.get(i), offset, line, line.split(" \\| ", 6)[5]);
+            offset += utf8Length(line) + separatorBytes;
+        }
+    }
+
+    /**
+     * 把所有记录以 NDJSON（每行一个 JSON 对象）导出到 target，gzip 为 true 时用 GZIP 压缩。
+     * 记录逐条编码写入带缓冲的文件通道，延迟加载模式下正文逐条读取，不会一次性进入内存。
+     *
+     * @return 导出的记录数
+     */
+    public int exportRecords(Path target, boolean gzip) throws IOException {
+        try (FileChannel channel = FileChannel.open(target, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            OutputStream out = new BufferedOutputStream(Channels.newOutputStream(channel), IO_BUFFER_SIZE);
+            if (gzip) {
+                out = new GZIPOutputStream(out, IO_BUFFER_SIZE);
+            }
+            try (Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8)) {
+                for (LifeRecord record : records) {
+                    writer.write(LifeRecordJson.toJson(record));
+                    writer.write('\n');
+                }
+            }
+        }
+        return records.size();
+    }
+
+    /**
+     * 从 NDJSON 文件导入记录，GZIP 压缩的文件按文件头自动识别。
+     * 逐行解析，每 {@link #IMPORT_CHUNK} 条调用一次 {@link #addRecords}，格式错误的行跳过并报告。
+     *
+     * @return 导入的记录数
+     */
+    public int importRecords(Path source) throws IOException {
+        int imported = 0;
+        int lineNumber = 0;
+        try (FileChannel channel = FileChannel.open(source, StandardOpenOption.READ)) {
+            InputStream in = new BufferedInputStream(Channels.newInputStream(channel), IO_BUFFER_SIZE);
+            in.mark(2);
+            boolean gzip = in.read() == (GZIPInputStream.GZIP_MAGIC & 0xff)
+                    && in.read() == (GZIPInputStream.GZIP_MAGIC >> 8);
+            in.reset();
+            if (gzip) {
+                in = new GZIPInputStream(in, IO_BUFFER_SIZE);
+            }
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+                List<LifeRecord> chunk = new ArrayList<>(IMPORT_CHUNK);
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    lineNumber++;
+                    if (line.trim().isEmpty()) continue;
+                    try {
+                        chunk.add(LifeRecordJson.parse(line));
+                    } catch (IllegalArgumentException e) {
+                        System.err.println("跳过第 " + lineNumber + " 行: " + e.getMessage());
+                        continue;
+                    }
+                    if (chunk.size() == IMPORT_CHUNK) {
+                        addRecords(chunk);
+                        imported += chunk.size();
+                        chunk = new ArrayList<>(IMPORT_CHUNK);
+                    }
+                }
+                addRecords(chunk);
+                imported += chunk.size();
+            }
+        }
+        return imported;
+    }
+
+    //搜索生活记录：所有非空关键词都（不区分大小写）包含在对应字段中的记录，通过倒排索引查找
     public List<LifeRecord> searchRecords(String titleKeyword, String contentKeyword, String categoryKeyword, String moodKeyword) {
-        // 将关键词转换为小写，并处理null或空字符串的情况
-        String lowerCaseTitleKeyword = (titleKeyword != null && !titleKeyword.trim().isEmpty()) ? titleKeyword.trim().toLowerCase() : null;
-        String lowerCaseContentKeyword = (contentKeyword != null && !contentKeyword.trim().isEmpty()) ? contentKeyword.trim().toLowerCase() : null;
-        String lowerCaseCategoryKeyword = (categoryKeyword != null && !categoryKeyword.trim().isEmpty()) ? categoryKeyword.trim().toLowerCase() : null;
-        String lowerCaseMoodKeyword = (moodKeyword != null && !moodKeyword.trim().isEmpty()) ? moodKeyword.trim().toLowerCase() : null;
-
-        // 如果所有关键词都为空，则直接返回空列表，避免不必要的遍历
-        if (lowerCaseTitleKeyword == null && lowerCaseContentKeyword == null &&
-                lowerCaseCategoryKeyword == null && lowerCaseMoodKeyword == null) {
+        String title = normalizeKeyword(titleKeyword);
+        String content = normalizeKeyword(contentKeyword);
+        String category = normalizeKeyword(categoryKeyword);
+        String mood = normalizeKeyword(moodKeyword);
+
+        // 如果所有关键词都为空，则直接返回空列表
+        if (title == null && content == null && category == null && mood == null) {
             return new ArrayList<>();
         }
+        return searchIndex.search(title, content, category, mood);
+    }
+
+    //按相关度排序并分页的搜索，匹配条件与 searchRecords 相同，只在取页时才取出对应的记录
+    public LifeSearchCursor searchRecordsRanked(String titleKeyword, String contentKeyword, String categoryKeyword, String moodKeyword, int pageSize) {
+        String title = normalizeKeyword(titleKeyword);
+        String content = normalizeKeyword(contentKeyword);
+        String category = normalizeKeyword(categoryKeyword);
+        String mood = normalizeKeyword(moodKeyword);
+
+        if (title == null && content == null && category == null && mood == null) {
+            return LifeSearchCursor.empty(pageSize);
+        }
+        return searchIndex.searchRanked(title, content, category, mood, pageSize);
+    }
+
+    // 去掉首尾空白，null 或空字符串表示不限制该字段
+    private static String normalizeKeyword(String keyword) {
+        return (keyword != null && !keyword.trim().isEmpty()) ? keyword.trim() : null;
+    }
 
-        return records.stream()
-                .filter(record -> {
-                    // 每个条件都检查：如果关键词为空则认为匹配，否则进行不区分大小写的包含匹配
-                    boolean matchesTitle = (lowerCaseTitleKeyword == null) || record.getTitle().toLowerCase().contains(lowerCaseTitleKeyword);
-                    boolean matchesContent = (lowerCaseContentKeyword == null) || record.getContent().toLowerCase().contains(lowerCaseContentKeyword);
-                    boolean matchesCategory = (lowerCaseCategoryKeyword == null) || record.getCategory().toLowerCase().contains(lowerCaseCategoryKeyword);
-                    boolean matchesMood = (lowerCaseMoodKeyword == null) || record.getMood().toLowerCase().contains(lowerCaseMoodKeyword);
-                    // 所有非空关键词都必须匹配
-                    return matchesTitle && matchesContent && matchesCategory && matchesMood;
-                })
-                .collect(Collectors.toList());// 将匹配的记录收集为新列表
+    /**
+     * 查找时间戳在 [start, end] 内的记录，按时间升序，同一时刻按添加顺序。
+     * start 或 end 为 null 表示该端不设限，start 晚于 end 时返回空列表。
+     */
+    public List<LifeRecord> findByTimeRange(LocalDateTime start, LocalDateTime end) {
+        return timeIndex.range(start, end);
+    }
+
+    //按分类、心情、月份的记录数，随增删改实时更新
+    public LifeFacets getFacets() {
+        return facets;
     }
 
     //编辑生活记录
     public boolean editRecord(int index, String newTitle, String newContent, String newCategory, String newMood) {
         if (index > 0 && index <= records.size()) {
             LifeRecord recordToEdit = records.get(index - 1);
-            recordToEdit.setTitle(newTitle);
-            recordToEdit.setContent(newContent);
-            recordToEdit.setCategory(newCategory);
-            recordToEdit.setMood(newMood);
+            timeIndex.remove(recordToEdit);
+            facets.remove(recordToEdit);
+            searchIndex.update(recordToEdit, () -> {
+                recordToEdit.setTitle(newTitle);
+                recordToEdit.setContent(newContent);
+                recordToEdit.setCategory(newCategory);
+                recordToEdit.setMood(newMood);
+            });
             recordToEdit.setTimestamp(LocalDateTime.now());
-            rewriteFile();
+            timeIndex.add(recordToEdit);
+            facets.add(recordToEdit);
+            appendLine(recordToEdit, UPDATE + " | " + recordToEdit.getId() + " | ", 7, "保存编辑到文件错误: ");
+            compactIfNeeded();
             return true;
         } else {
             System.out.println("非法数字，无法编辑.");
@@ -168,24 +569,48 @@ public class LifeRecordManager {
     //删除生活记录
     public void deleteRecord(int index) {
         if (index > 0 && index <= records.size()) {
-            records.remove(index - 1);
+            LifeRecord removed = records.remove(index - 1);
+            searchIndex.remove(removed);
+            timeIndex.remove(removed);
+            facets.remove(removed);
+            appendLine(DELETE + " | " + removed.getId(), "保存删除到文件错误: ");
             System.out.println("记录 #" + index + " 删除成功.");
-            rewriteFile();
+            compactIfNeeded();
         } else {
             System.out.println("非法记录数字，请输入正确的数字.");
         }
     }
 
-    //重写文件
+    //重写文件：只写入有效记录，先写临时文件再原子替换，记录编号不变
     public void rewriteFile() {
+        Path file = Paths.get(this.filePath);
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        // 延迟加载模式下记下每条记录正文在新文件中的位置，替换成功后再切换过去
+        long[] offsets = new long[records.size()];
+        int[] lengths = new int[records.size()];
         try {
-            Path file = Paths.get(this.filePath);
-            StringBuilder content = new StringBuilder();
-            for (LifeRecord record : records) {
-                content.append(record.toFileFormat()).append(System.lineSeparator());
+            try (BufferedWriter writer = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+                long position = 0;
+                for (int i = 0; i < records.size(); i++) {
+                    String line = recordLine(records.get(i));
+                    int lineBytes = utf8Length(line);
+                    lengths[i] = utf8Length(line.split(" \\| ", 6)[5]);
+                    offsets[i] = position + lineBytes - lengths[i];
+                    writer.write(line);
+                    writer.write(System.lineSeparator());
+                    position += lineBytes + utf8Length(System.lineSeparator());
+                }
             }
-            Files.writeString(file, content.toString(), StandardCharsets.UTF_8,
-                    StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            if (contentStore != null) {
+                contentStore.reset();
+            }
+            if (contentStore != null) {
+                for (int i = 0; i < records.size(); i++) {
+                    records.get(i).setContentLocation(contentStore, offsets[i], lengths[i]);
+                }
+            }
+            fileLines = records.size();
             System.out.println("所有记录已重新写入文件。");
         } catch (IOException e) {
             System.err.println("重写文件错误: " + e.getMessage());
@@ -205,4 +630,11 @@ public class LifeRecordManager {
         // 返回一个不可修改的视图
         return Collections.unmodifiableList(records);
     }
+
+    //关闭延迟加载模式下打开的数据文件，之后读取正文时会重新打开
+    public void close() {
+        if (contentStore != null) {
+            contentStore.close();
+        }
+    }
 }
\ No newline at end of file
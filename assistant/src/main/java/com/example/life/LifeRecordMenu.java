@@ -1,18 +1,38 @@
 package com.example.life;
 
+import java.io.IOException;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.List;
+import java.util.Map;
 import java.util.Scanner;
 
 public class LifeRecordMenu {
     private final LifeRecordManager manager;
     private final Scanner scanner;
+    // 搜索结果每页条数
+    private static final int PAGE_SIZE = 10;
 
     public LifeRecordMenu(Scanner scanner) {
-        this.manager = new LifeRecordManager();
+        this.manager = new LifeRecordManager(LifeRecordManager.DATA_DIR, LifeRecordManager.FILE_NAME, true);
         this.scanner = scanner;
     }
 
     public void displayMenu() {
+        try {
+            menuLoop();
+        } finally {
+            // 离开菜单时关闭延迟加载打开的数据文件，再次进入时按需重新打开
+            manager.close();
+        }
+    }
+
+    private void menuLoop() {
         int choice;
         do {
             System.out.println("\n--- 记录生活菜单 ---");
@@ -21,6 +41,10 @@ public class LifeRecordMenu {
             System.out.println("3. 搜索记录");
             System.out.println("4. 编辑记录");
             System.out.println("5. 删除记录");
+            System.out.println("6. 按时间查找记录");
+            System.out.println("7. 分类、心情、月份统计");
+            System.out.println("8. 导出记录 (NDJSON)");
+            System.out.println("9. 导入记录 (NDJSON)");
             System.out.println("0. 返回主菜单");
             System.out.print("输入你的选择： ");
 
@@ -42,6 +66,18 @@ public class LifeRecordMenu {
                     case 5:
                         deleteRecord();
                         break;
+                    case 6:
+                        findByTimeRange();
+                        break;
+                    case 7:
+                        showFacets();
+                        break;
+                    case 8:
+                        exportRecords();
+                        break;
+                    case 9:
+                        importRecords();
+                        break;
                     case 0:
                         System.out.println("返回主菜单...");
                         break;
@@ -162,14 +198,14 @@ public class LifeRecordMenu {
         System.out.print("请输入心情关键词 (留空跳过): ");
         String moodKeyword = scanner.nextLine();
 
-        List<LifeRecord> matchingRecords = manager.searchRecords(titleKeyword, contentKeyword, categoryKeyword, moodKeyword);
+        LifeSearchCursor results = manager.searchRecordsRanked(titleKeyword, contentKeyword, categoryKeyword, moodKeyword, PAGE_SIZE);
 
-        displaySearchResults(matchingRecords, titleKeyword, contentKeyword, categoryKeyword, moodKeyword);
+        displaySearchResults(results, titleKeyword, contentKeyword, categoryKeyword, moodKeyword);
     }
 
-    // 显示搜索结果
-    private void displaySearchResults(List<LifeRecord> matchingRecords, String titleKeyword, String contentKeyword, String categoryKeyword, String moodKeyword) {
-        if (matchingRecords.isEmpty()) {
+    // 分页显示搜索结果，按相关度排序
+    private void displaySearchResults(LifeSearchCursor results, String titleKeyword, String contentKeyword, String categoryKeyword, String moodKeyword) {
+        if (!results.hasPage(1)) {
             if ((titleKeyword == null || titleKeyword.trim().isEmpty()) &&
                     (contentKeyword == null || contentKeyword.trim().isEmpty()) &&
                     (categoryKeyword == null || categoryKeyword.trim().isEmpty()) &&
@@ -178,14 +214,135 @@ public class LifeRecordMenu {
             } else {
                 System.out.println("没有找到匹配的记录。");
             }
-        } else {
-            System.out.println("\n--- 搜索结果 ---");
-            for (int i = 0; i < matchingRecords.size(); i++) {
-                System.out.println("结果 #" + (i + 1));
-                System.out.println(matchingRecords.get(i)); // Print full details of matched records
+            return;
+        }
+
+        LifeFacets facets = results.getFacets();
+        System.out.println("结果分类: " + formatCounts(facets.getCategoryCounts()));
+        System.out.println("结果心情: " + formatCounts(facets.getMoodCounts()));
+
+        int page = 1;
+        while (true) {
+            List<LifeRecord> records = results.getPage(page);
+            System.out.println("\n--- 搜索结果 第 " + page + " 页 ---");
+            for (int i = 0; i < records.size(); i++) {
+                System.out.println("结果 #" + ((page - 1) * results.getPageSize() + i + 1));
+                System.out.println(records.get(i));
             }
             System.out.println("--------------------");
-            System.out.println("搜索完成，共找到 " + matchingRecords.size() + " 条匹配记录。");
+            boolean hasNext = results.hasPage(page + 1);
+            System.out.println((results.isTotalExact() ? "共找到 " : "约 ") + results.getEstimatedTotal() + " 条匹配记录。");
+            if (!hasNext && page == 1) {
+                return;
+            }
+            System.out.print((hasNext ? "n 下一页，" : "") + (page > 1 ? "p 上一页，" : "") + "其他键结束: ");
+            String input = scanner.nextLine().trim();
+            if (hasNext && input.equalsIgnoreCase("n")) {
+                page++;
+            } else if (page > 1 && input.equalsIgnoreCase("p")) {
+                page--;
+            } else {
+                return;
+            }
+        }
+    }
+
+    // 按时间查找记录：最近 N 天或一个日期范围
+    private void findByTimeRange() {
+        System.out.println("\n--- 按时间查找记录 ---");
+        System.out.print("查看最近几天的记录？输入天数，留空则按日期范围查找: ");
+        String daysInput = scanner.nextLine().trim();
+        LocalDateTime start;
+        LocalDateTime end;
+        if (!daysInput.isEmpty()) {
+            try {
+                int days = Integer.parseInt(daysInput);
+                if (days <= 0) {
+                    System.out.println("天数必须大于 0。");
+                    return;
+                }
+                start = LocalDate.now().minusDays(days - 1).atStartOfDay();
+                end = null;
+            } catch (NumberFormatException e) {
+                System.out.println("非法输入，请输入数字。");
+                return;
+            }
+        } else {
+            try {
+                System.out.print("请输入开始日期 (yyyy-MM-dd，留空不限): ");
+                String startInput = scanner.nextLine().trim();
+                System.out.print("请输入结束日期 (yyyy-MM-dd，留空不限): ");
+                String endInput = scanner.nextLine().trim();
+                start = startInput.isEmpty() ? null : LocalDate.parse(startInput).atStartOfDay();
+                end = endInput.isEmpty() ? null : LocalDate.parse(endInput).atTime(LocalTime.MAX);
+            } catch (DateTimeParseException e) {
+                System.out.println("日期格式错误，请使用 yyyy-MM-dd。");
+                return;
+            }
+        }
+
+        List<LifeRecord> records = manager.findByTimeRange(start, end);
+        if (records.isEmpty()) {
+            System.out.println("该时间范围内没有记录。");
+            return;
+        }
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+        System.out.println("\n--- 查找结果 (按时间排序) ---");
+        for (LifeRecord record : records) {
+            System.out.println(record.getTimestamp().format(formatter) + "  [" + record.getCategory() + "] " + record.getTitle());
+        }
+        System.out.println("--------------------");
+        System.out.println("共找到 " + records.size() + " 条记录。");
+    }
+
+    // 显示按分类、心情、月份的记录数
+    private void showFacets() {
+        LifeFacets facets = manager.getFacets();
+        System.out.println("\n--- 记录统计 (共 " + facets.getTotal() + " 条) ---");
+        System.out.println("按分类: " + formatCounts(facets.getCategoryCounts()));
+        System.out.println("按心情: " + formatCounts(facets.getMoodCounts()));
+        System.out.println("按月份:");
+        facets.getMonthCounts().forEach((month, count) -> System.out.println("  " + month + ": " + count + " 条"));
+    }
+
+    // 把计数格式化为一行，省略为 0 的项
+    private static String formatCounts(Map<String, Integer> counts) {
+        StringBuilder sb = new StringBuilder();
+        counts.forEach((name, count) -> {
+            if (count > 0) sb.append(sb.length() == 0 ? "" : " | ").append(name).append(' ').append(count);
+        });
+        return sb.length() == 0 ? "无" : sb.toString();
+    }
+
+    // 导出所有记录到 NDJSON 文件，文件名以 .gz 结尾时压缩
+    private void exportRecords() {
+        System.out.print("请输入导出文件路径 (以 .gz 结尾则压缩): ");
+        String path = scanner.nextLine().trim();
+        if (path.isEmpty()) {
+            System.out.println("文件路径不能为空。");
+            return;
+        }
+        try {
+            int count = manager.exportRecords(Paths.get(path), path.endsWith(".gz"));
+            System.out.println("已导出 " + count + " 条记录到 " + path);
+        } catch (IOException | InvalidPathException e) {
+            System.out.println("导出失败: " + e.getMessage());
+        }
+    }
+
+    // 从 NDJSON 文件导入记录，自动识别 GZIP 压缩
+    private void importRecords() {
+        System.out.print("请输入导入文件路径: ");
+        String path = scanner.nextLine().trim();
+        if (path.isEmpty()) {
+            System.out.println("文件路径不能为空。");
+            return;
+        }
+        try {
+            int count = manager.importRecords(Paths.get(path));
+            System.out.println("已导入 " + count + " 条记录。");
+        } catch (IOException | InvalidPathException e) {
+            System.out.println("导入失败: " + e.getMessage());
         }
     }
 
@@ -0,0 +1,124 @@
+package com.example.life;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 按相关度排序的分页搜索结果。
+ * <p>
+ * 创建时只有索引给出的候选编号和得分，按得分建一个堆；取某一页时才从堆里依次弹出候选、
+ * 做 contains 校验，直到凑够这一页，之后的候选不会被访问。总数先用候选数估计，
+ * 每排除一个候选就减一，全部取完后才是准确值。
+ * <p>
+ * 游标不是快照：取页时记录已被删除的会跳过，已被编辑的按当前内容校验。
+ */
+public class LifeSearchCursor {
+    private final LifeSearchIndex index;
+    private final String[] keywords;
+    private final int pageSize;
+    private final int[] ids;
+    private final double[] scores;
+    // 尚未取出的候选（ids 下标），按得分降序、编号升序的二叉堆
+    private final int[] heap;
+    private int heapSize;
+    private final List<LifeRecord> fetched = new ArrayList<>();
+    private int rejected;
+
+    LifeSearchCursor(LifeSearchIndex index, int[] ids, double[] scores, String[] keywords, int pageSize) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("每页条数必须大于 0: " + pageSize);
+        }
+        this.index = index;
+        this.ids = ids;
+        this.scores = scores;
+        this.keywords = keywords;
+        this.pageSize = pageSize;
+        this.heap = new int[ids.length];
+        for (int i = 0; i < ids.length; i++) heap[i] = i;
+        heapSize = ids.length;
+        for (int i = heapSize / 2 - 1; i >= 0; i--) siftDown(i);
+    }
+
+    //没有关键词时的空结果
+    static LifeSearchCursor empty(int pageSize) {
+        return new LifeSearchCursor(null, new int[0], new double[0], new String[0], pageSize);
+    }
+
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    /**
+     * 取第 page 页（从 1 开始），超出范围时返回空列表。
+     */
+    public List<LifeRecord> getPage(int page) {
+        if (page < 1) return Collections.emptyList();
+        int from = (page - 1) * pageSize;
+        fill(from + pageSize);
+        if (from >= fetched.size()) return Collections.emptyList();
+        return Collections.unmodifiableList(new ArrayList<>(fetched.subList(from, Math.min(fetched.size(), from + pageSize))));
+    }
+
+    public boolean hasPage(int page) {
+        if (page < 1) return false;
+        fill((page - 1) * pageSize + 1);
+        return fetched.size() > (page - 1) * pageSize;
+    }
+
+    //估计的匹配总数，不小于实际值
+    public int getEstimatedTotal() {
+        return ids.length - rejected;
+    }
+
+    //所有候选都已校验过，估计值即为准确值
+    public boolean isTotalExact() {
+        return heapSize == 0;
+    }
+
+    public int getEstimatedPageCount() {
+        return (getEstimatedTotal() + pageSize - 1) / pageSize;
+    }
+
+    /**
+     * 全部匹配结果按分类、心情、月份的计数。需要校验剩下的所有候选，之后总数即为准确值。
+     */
+    public LifeFacets getFacets() {
+        fill(Integer.MAX_VALUE);
+        return LifeFacets.of(fetched);
+    }
+
+    //取出候选直到通过校验的结果有 count 条或候选用完
+    private void fill(int count) {
+        while (fetched.size() < count && heapSize > 0) {
+            int top = heap[0];
+            heap[0] = heap[--heapSize];
+            siftDown(0);
+            LifeRecord record = index.get(ids[top]);
+            if (record != null && LifeSearchIndex.matches(record, keywords)) {
+                fetched.add(record);
+            } else {
+                rejected++;
+            }
+        }
+    }
+
+    //a 是否应排在 b 前面
+    private boolean before(int a, int b) {
+        if (scores[a] != scores[b]) return scores[a] > scores[b];
+        return ids[a] < ids[b];
+    }
+
+    private void siftDown(int i) {
+        int item = heap[i];
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= heapSize) break;
+            if (child + 1 < heapSize && before(heap[child + 1], heap[child])) child++;
+            if (!before(heap[child], item)) break;
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = item;
+    }
+}
@@ -0,0 +1,415 @@
+package com.example.life;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * 生活记录的倒排索引，标题、内容、分类、心情各一份。
+ * <p>
+ * 文本先转小写再切词：连续的中日韩文字切成相邻两字的二元组（整段只有一个字时保留单字），
+ * 其他字母数字按连续的词切分，空白、标点和表情不建索引。查询关键词用同样的方式切词，
+ * 对各词的倒排表求交集得到候选，再对候选做一次 contains 判断，结果与逐条扫描完全一致。
+ * 关键词两端的片段可能只是某个词的一部分（如 "jav" 之于 "java"），这类片段到词典里按前后缀查找。
+ * <p>
+ * 记录按加入顺序编号，编号不复用，因此按编号排列的结果就是记录列表中的顺序。
+ * 记录的字段只能通过 {@link #update} 修改，否则索引会过期。
+ * <p>
+ * 倒排表同时记录词频，加上各字段的词数，可以只凭索引按 BM25 给候选打分（见 {@link #searchRanked}）。
+ * <p>
+ * 索引整个放在堆上：每条记录的每个不同的词占一个倒排项（编号 + 词频 8 字节），另加词典本身。
+ * 正文的倒排项数随正文总量增长，正文延迟加载时也一样。
+ */
+final class LifeSearchIndex {
+    static final int TITLE = 0;
+    static final int CONTENT = 1;
+    static final int CATEGORY = 2;
+    static final int MOOD = 3;
+    private static final int FIELDS = 4;
+
+    // BM25 参数
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    static final double TITLE_WEIGHT = 2.0;
+
+    // 每个字段两本按字典序排列的词典（便于前缀查找）：中日韩二元组/单字，以及西文词
+    private final List<TreeMap<String, Postings>> cjkTerms = new ArrayList<>();
+    private final List<TreeMap<String, Postings>> wordTerms = new ArrayList<>();
+    // 每个字段以倒序词为键的词典，与上面两本共用倒排表，后缀查找变成其中的前缀查找
+    private final List<TreeMap<String, Postings>> reversedTerms = new ArrayList<>();
+    // 编号 → 记录，删除后置为 null
+    private final List<LifeRecord> docs = new ArrayList<>();
+    private final Map<LifeRecord, Integer> ids = new IdentityHashMap<>();
+    // 各字段每条记录的词数及总词数，用于 BM25 的长度归一化
+    private final int[][] lengths = new int[FIELDS][16];
+    private final long[] totalLengths = new long[FIELDS];
+
+    LifeSearchIndex() {
+        for (int f = 0; f < FIELDS; f++) {
+            cjkTerms.add(new TreeMap<>());
+            wordTerms.add(new TreeMap<>());
+            reversedTerms.add(new TreeMap<>());
+        }
+    }
+
+    void add(LifeRecord record) {
+        int id = docs.size();
+        docs.add(record);
+        ids.put(record, id);
+        if (id == lengths[0].length) {
+            for (int f = 0; f < FIELDS; f++) lengths[f] = Arrays.copyOf(lengths[f], id * 2);
+        }
+        indexFields(id, record, true);
+    }
+
+    void remove(LifeRecord record) {
+        Integer id = ids.remove(record);
+        if (id == null) return;
+        indexFields(id, record, false);
+        docs.set(id, null);
+    }
+
+    //修改记录字段，编号保持不变
+    void update(LifeRecord record, Runnable change) {
+        Integer id = ids.get(record);
+        if (id == null) {
+            change.run();
+            return;
+        }
+        indexFields(id, record, false);
+        change.run();
+        indexFields(id, record, true);
+    }
+
+    int size() {
+        return ids.size();
+    }
+
+    /**
+     * 查找所有非空关键词都（不区分大小写）包含在对应字段中的记录，按加入顺序返回。
+     * 关键词应已去掉首尾空白，null 表示不限制该字段；全部为 null 时返回所有记录。
+     */
+    List<LifeRecord> search(String title, String content, String category, String mood) {
+        String[] keywords = {lower(title), lower(content), lower(category), lower(mood)};
+        Postings candidates = candidates(keywords);
+        List<LifeRecord> results = new ArrayList<>();
+        for (int i = 0; i < candidates.size; i++) {
+            LifeRecord record = docs.get(candidates.ids[i]);
+            if (matches(record, keywords)) results.add(record);
+        }
+        return results;
+    }
+
+    /**
+     * 与 {@link #search} 的匹配条件相同，但结果按相关度从高到低排列，分页惰性取出。
+     * <p>
+     * 打分只用索引：标题和内容关键词切出的词分别在标题（权重 {@link #TITLE_WEIGHT}）和内容字段上
+     * 按 BM25 计分后相加；没有这两个关键词时得分都为 0，按加入顺序排列。候选在取页时才做 contains 校验。
+     */
+    LifeSearchCursor searchRanked(String title, String content, String category, String mood, int pageSize) {
+        String[] keywords = {lower(title), lower(content), lower(category), lower(mood)};
+        Postings candidates = candidates(keywords);
+        double[] scores = new double[candidates.size];
+        if (candidates.size > 0) {
+            for (int f = TITLE; f <= CONTENT; f++) {
+                if (keywords[f] == null) continue;
+                tokenize(keywords[f], (term, cjk, leftOpen, rightOpen) -> {
+                    score(candidates, scores, TITLE, TITLE_WEIGHT, lookup(TITLE, term, cjk, leftOpen, rightOpen));
+                    score(candidates, scores, CONTENT, 1.0, lookup(CONTENT, term, cjk, leftOpen, rightOpen));
+                });
+            }
+        }
+        return new LifeSearchCursor(this, Arrays.copyOf(candidates.ids, candidates.size), scores, keywords, pageSize);
+    }
+
+    //按编号取记录，已删除时返回 null
+    LifeRecord get(int id) {
+        return docs.get(id);
+    }
+
+    /**
+     * 各字段关键词切出的词的倒排表之交，即可能匹配的记录编号（未经 contains 校验）。
+     * 所有关键词都切不出词时返回全部记录。
+     */
+    private Postings candidates(String[] keywords) {
+        List<Postings> lists = new ArrayList<>();
+        for (int f = 0; f < FIELDS; f++) {
+            if (keywords[f] == null) continue;
+            int field = f;
+            boolean[] empty = {false};
+            tokenize(keywords[f], (term, cjk, leftOpen, rightOpen) -> {
+                Postings p = lookup(field, term, cjk, leftOpen, rightOpen);
+                if (p == null || p.size == 0) empty[0] = true;
+                else lists.add(p);
+            });
+            if (empty[0]) return new Postings(0);
+        }
+
+        if (lists.isEmpty()) {
+            Postings all = new Postings(ids.size());
+            for (int id = 0; id < docs.size(); id++) {
+                if (docs.get(id) != null) all.ids[all.size++] = id;
+            }
+            return all;
+        }
+        // 从最短的倒排表开始求交集
+        lists.sort((a, b) -> Integer.compare(a.size, b.size));
+        Postings candidates = lists.get(0);
+        for (int i = 1; i < lists.size() && candidates.size > 0; i++) {
+            candidates = intersect(candidates, lists.get(i));
+        }
+        return candidates;
+    }
+
+    /**
+     * 把一个词在某字段上的 BM25 得分累加到候选上。两个列表都按编号升序，一次归并即可取到词频。
+     */
+    private void score(Postings candidates, double[] scores, int field, double weight, Postings postings) {
+        if (postings == null || postings.size == 0) return;
+        int n = ids.size();
+        double idf = Math.log(1 + (n - postings.size + 0.5) / (postings.size + 0.5));
+        double avgLength = Math.max(1.0, (double) totalLengths[field] / Math.max(1, n));
+        int j = 0;
+        for (int i = 0; i < candidates.size && j < postings.size; i++) {
+            int id = candidates.ids[i];
+            while (j < postings.size && postings.ids[j] < id) j++;
+            if (j < postings.size && postings.ids[j] == id) {
+                int tf = postings.freqs[j];
+                double norm = K1 * (1 - B + B * lengths[field][id] / avgLength);
+                scores[i] += weight * idf * tf * (K1 + 1) / (tf + norm);
+            }
+        }
+    }
+
+    static boolean matches(LifeRecord record, String[] keywords) {
+        for (int f = 0; f < FIELDS; f++) {
+            if (keywords[f] == null) continue;
+            String value = field(record, f);
+            if (value == null || !value.toLowerCase().contains(keywords[f])) return false;
+        }
+        return true;
+    }
+
+    private static String field(LifeRecord record, int f) {
+        switch (f) {
+            case TITLE:
+                return record.getTitle();
+            case CONTENT:
+                return record.getContent();
+            case CATEGORY:
+                return record.getCategory();
+            default:
+                return record.getMood();
+        }
+    }
+
+    private static String lower(String keyword) {
+        return keyword == null ? null : keyword.toLowerCase();
+    }
+
+    private void indexFields(int id, LifeRecord record, boolean add) {
+        for (int f = 0; f < FIELDS; f++) {
+            String value = field(record, f);
+            if (value == null) continue;
+            Map<String, Integer> freqs = new HashMap<>();
+            Map<String, Boolean> cjk = new HashMap<>();
+            tokenize(value.toLowerCase(), (term, isCjk, leftOpen, rightOpen) -> {
+                freqs.merge(term, 1, Integer::sum);
+                cjk.put(term, isCjk);
+            });
+            int length = 0;
+            for (Map.Entry<String, Integer> e : freqs.entrySet()) {
+                Map<String, Postings> dict = cjk.get(e.getKey()) ? cjkTerms.get(f) : wordTerms.get(f);
+                if (add) {
+                    Postings p = dict.get(e.getKey());
+                    if (p == null) {
+                        p = new Postings();
+                        dict.put(e.getKey(), p);
+                        reversedTerms.get(f).put(reverse(e.getKey()), p);
+                    }
+                    p.add(id, e.getValue());
+                } else {
+                    Postings p = dict.get(e.getKey());
+                    if (p != null && p.remove(id) && p.size == 0) {
+                        dict.remove(e.getKey());
+                        reversedTerms.get(f).remove(reverse(e.getKey()));
+                    }
+                }
+                length += e.getValue();
+            }
+            totalLengths[f] += add ? length : -length;
+            lengths[f][id] = add ? length : 0;
+        }
+    }
+
+    /**
+     * 查找一个查询片段的倒排表。两端都封闭的片段就是完整的词，直接查词典；
+     * 否则文档里对应的词可能更长，取词典中以它开头、结尾或包含它的所有词的并集，词频相加。
+     * 前后缀都是有序词典里的一段区间；只有西文词中间的片段需要扫描该字段的西文词典。
+     */
+    private Postings lookup(int field, String term, boolean cjk, boolean leftOpen, boolean rightOpen) {
+        TreeMap<String, Postings> dict = cjk ? cjkTerms.get(field) : wordTerms.get(field);
+        if (!leftOpen && !rightOpen) return dict.get(term);
+
+        Collection<Postings> matched;
+        if (!leftOpen) {
+            matched = withPrefix(dict, term).values();
+        } else if (!rightOpen) {
+            matched = withPrefix(reversedTerms.get(field), reverse(term)).values();
+        } else if (cjk) {
+            // 中日韩词最多两个字，包含某个字就是以它开头或结尾；同一个词可能两头都命中，按对象去重
+            matched = Collections.newSetFromMap(new IdentityHashMap<>());
+            matched.addAll(withPrefix(dict, term).values());
+            matched.addAll(withPrefix(reversedTerms.get(field), term).values());
+        } else {
+            matched = new ArrayList<>();
+            for (Map.Entry<String, Postings> e : dict.entrySet()) {
+                if (e.getKey().contains(term)) matched.add(e.getValue());
+            }
+        }
+        if (matched.size() == 1) return matched.iterator().next();
+        return union(matched);
+    }
+
+    private static SortedMap<String, Postings> withPrefix(TreeMap<String, Postings> dict, String prefix) {
+        return dict.subMap(prefix, prefix + Character.MAX_VALUE);
+    }
+
+    private static String reverse(String term) {
+        return new StringBuilder(term).reverse().toString();
+    }
+
+    /**
+     * 多个倒排表的并集，同一记录的词频相加。临时空间只按各表的总长分配，与记录总数无关。
+     */
+    private static Postings union(Collection<Postings> lists) {
+        int total = 0;
+        for (Postings p : lists) total += p.size;
+        // 编号放在高 32 位、词频放在低 32 位，排序后同一记录的项相邻
+        long[] entries = new long[total];
+        int n = 0;
+        for (Postings p : lists) {
+            for (int i = 0; i < p.size; i++) entries[n++] = (long) p.ids[i] << 32 | p.freqs[i];
+        }
+        Arrays.sort(entries);
+        Postings result = new Postings(total);
+        for (long entry : entries) {
+            int id = (int) (entry >>> 32);
+            int freq = (int) entry;
+            if (result.size > 0 && result.ids[result.size - 1] == id) {
+                result.freqs[result.size - 1] += freq;
+            } else {
+                result.ids[result.size] = id;
+                result.freqs[result.size++] = freq;
+            }
+        }
+        return result;
+    }
+
+    private static Postings intersect(Postings a, Postings b) {
+        Postings result = new Postings(Math.min(a.size, b.size));
+        int i = 0;
+        int j = 0;
+        while (i < a.size && j < b.size) {
+            int x = a.ids[i];
+            int y = b.ids[j];
+            if (x < y) i++;
+            else if (x > y) j++;
+            else {
+                result.ids[result.size++] = x;
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    interface TermSink {
+        //leftOpen/rightOpen：片段是否贴着文本的开头/结尾，即在更长的文本里它可能只是某个词的一部分
+        void accept(String term, boolean cjk, boolean leftOpen, boolean rightOpen);
+    }
+
+    //切词，text 应已转为小写
+    static void tokenize(String text, TermSink sink) {
+        int n = text.length();
+        int i = 0;
+        while (i < n) {
+            char c = text.charAt(i);
+            if (isCjk(c)) {
+                int start = i;
+                while (i < n && isCjk(text.charAt(i))) i++;
+                if (i - start == 1) {
+                    sink.accept(String.valueOf(c), true, start == 0, i == n);
+                } else {
+                    for (int k = start; k + 1 < i; k++) sink.accept(text.substring(k, k + 2), true, false, false);
+                }
+            } else if (Character.isLetterOrDigit(c)) {
+                int start = i;
+                while (i < n && isWord(text.charAt(i))) i++;
+                sink.accept(text.substring(start, i), false, start == 0, i == n);
+            } else {
+                i++;
+            }
+        }
+    }
+
+    private static boolean isCjk(char c) {
+        Character.UnicodeScript script = Character.UnicodeScript.of(c);
+        return script == Character.UnicodeScript.HAN || script == Character.UnicodeScript.HIRAGANA
+                || script == Character.UnicodeScript.KATAKANA || script == Character.UnicodeScript.HANGUL;
+    }
+
+    private static boolean isWord(char c) {
+        return Character.isLetterOrDigit(c) && !isCjk(c);
+    }
+
+    //按编号升序排列的倒排表，freqs 为对应记录中的词频（求交集得到的表不带词频）
+    private static final class Postings {
+        int[] ids;
+        int[] freqs;
+        int size;
+
+        Postings() {
+            this(2);
+        }
+
+        Postings(int capacity) {
+            ids = new int[Math.max(capacity, 1)];
+            freqs = new int[ids.length];
+        }
+
+        void add(int id, int freq) {
+            int pos = size == 0 || ids[size - 1] < id ? size : Arrays.binarySearch(ids, 0, size, id);
+            if (pos >= 0 && pos < size) {
+                freqs[pos] = freq;
+                return;
+            }
+            if (pos < 0) pos = -pos - 1;
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                freqs = Arrays.copyOf(freqs, size * 2);
+            }
+            System.arraycopy(ids, pos, ids, pos + 1, size - pos);
+            System.arraycopy(freqs, pos, freqs, pos + 1, size - pos);
+            ids[pos] = id;
+            freqs[pos] = freq;
+            size++;
+        }
+
+        boolean remove(int id) {
+            int pos = Arrays.binarySearch(ids, 0, size, id);
+            if (pos < 0) return false;
+            System.arraycopy(ids, pos + 1, ids, pos, size - pos - 1);
+            System.arraycopy(freqs, pos + 1, freqs, pos, size - pos - 1);
+            size--;
+            return true;
+        }
+    }
+}
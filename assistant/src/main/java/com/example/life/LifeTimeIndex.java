@@ -0,0 +1,70 @@
+package com.example.life;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * 按记录时间戳排序的二级索引，时间段查询只需 O(log n + k)。
+ * <p>
+ * 以记录当前的时间戳为键，因此修改时间戳前要先 {@link #remove}，改完再 {@link #add}。
+ */
+class LifeTimeIndex {
+    // 同一时刻的记录，按加入顺序
+    private final NavigableMap<LocalDateTime, LifeRecord[]> byTime = new TreeMap<>();
+
+    void add(LifeRecord record) {
+        LifeRecord[] same = byTime.get(record.getTimestamp());
+        if (same == null) {
+            byTime.put(record.getTimestamp(), new LifeRecord[]{record});
+        } else {
+            LifeRecord[] grown = Arrays.copyOf(same, same.length + 1);
+            grown[same.length] = record;
+            byTime.put(record.getTimestamp(), grown);
+        }
+    }
+
+    void remove(LifeRecord record) {
+        LifeRecord[] same = byTime.get(record.getTimestamp());
+        if (same == null) return;
+        for (int i = 0; i < same.length; i++) {
+            if (same[i] == record) {
+                if (same.length == 1) {
+                    byTime.remove(record.getTimestamp());
+                } else {
+                    LifeRecord[] shrunk = new LifeRecord[same.length - 1];
+                    System.arraycopy(same, 0, shrunk, 0, i);
+                    System.arraycopy(same, i + 1, shrunk, i, same.length - i - 1);
+                    byTime.put(record.getTimestamp(), shrunk);
+                }
+                return;
+            }
+        }
+    }
+
+    /**
+     * 返回时间戳在 [start, end] 内的记录，按时间升序，同一时刻按加入顺序。
+     * start 或 end 为 null 表示该端不设限。
+     */
+    List<LifeRecord> range(LocalDateTime start, LocalDateTime end) {
+        NavigableMap<LocalDateTime, LifeRecord[]> slice;
+        if (start != null && end != null) {
+            if (start.isAfter(end)) return new ArrayList<>();
+            slice = byTime.subMap(start, true, end, true);
+        } else if (start != null) {
+            slice = byTime.tailMap(start, true);
+        } else if (end != null) {
+            slice = byTime.headMap(end, true);
+        } else {
+            slice = byTime;
+        }
+        List<LifeRecord> result = new ArrayList<>();
+        for (LifeRecord[] same : slice.values()) {
+            result.addAll(Arrays.asList(same));
+        }
+        return result;
+    }
+}
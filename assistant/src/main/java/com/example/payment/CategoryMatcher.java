@@ -0,0 +1,188 @@
+package com.example.payment;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 按备注关键词自动分类的多模式匹配器（Aho-Corasick 自动机），构建一次后可被多个线程共享。
+ * <p>
+ * 规则按顺序排列，每条规则是一个分类及其关键词。备注中出现任一关键词即命中该规则，
+ * 同时命中多条规则时取排在最前的一条，与逐条 {@code contains} 判断的结果相同。
+ * 匹配只扫描备注一遍，耗时与关键词数量无关。
+ * <p>
+ * 配置文件为 UTF-8 文本，每行一条规则：{@code 分类=关键词1,关键词2,...}，空行和 # 开头的行忽略。
+ */
+final class CategoryMatcher {
+    private static final int NO_MATCH = Integer.MAX_VALUE;
+    private static final int EMPTY = -1;
+
+    //内置的规则，没有配置文件时使用
+    private static final String[][] DEFAULT_RULES = {
+            {"工资", "工资", "薪水", "奖金", "收入", "发薪"},
+            {"餐饮", "餐饮", "吃饭", "外卖", "饭店", "早餐", "午餐", "晚餐", "饮料"},
+            {"交通", "交通", "公交", "地铁", "打车", "出租", "高铁", "火车", "加油"},
+            {"购物", "购物", "买", "超市", "网购", "淘宝", "京东"},
+            {"房租", "房租", "租金", "房贷"},
+            {"娱乐", "娱乐", "电影", "游戏", "KTV"},
+            {"医疗", "医疗", "医院", "药", "体检"},
+            {"学习", "学习", "学费", "培训", "书"},
+            {"转账", "转账", "还款", "借款"},
+            {"投资", "投资", "理财", "基金", "股票"}
+    };
+
+    private final String[] categories;
+    // 每个状态的失败转移
+    private final int[] fail;
+    // 到达该状态时命中的最靠前的规则序号（含失败链上的后缀），没有时为 NO_MATCH
+    private final int[] best;
+    // 转移表：键为 (状态 << 16) | 字符，开放寻址
+    private final long[] edgeKeys;
+    private final int[] edgeTargets;
+
+    private CategoryMatcher(List<String> categories, List<List<String>> keywords) {
+        this.categories = categories.toArray(new String[0]);
+        int maxStates = 1;
+        for (List<String> list : keywords) {
+            for (String k : list) maxStates += k.length();
+        }
+        int tableSize = Integer.highestOneBit(Math.max(4, maxStates * 2 - 1)) << 1;
+        edgeKeys = new long[tableSize];
+        edgeTargets = new int[tableSize];
+        Arrays.fill(edgeTargets, EMPTY);
+
+        // 建字典树，记录每个状态的父状态、入边字符和深度
+        int[] parent = new int[maxStates];
+        char[] via = new char[maxStates];
+        int[] depth = new int[maxStates];
+        int[] own = new int[maxStates];
+        Arrays.fill(own, NO_MATCH);
+        int states = 1;
+        for (int rule = 0; rule < keywords.size(); rule++) {
+            for (String k : keywords.get(rule)) {
+                int s = 0;
+                for (int i = 0; i < k.length(); i++) {
+                    char c = k.charAt(i);
+                    int next = next(s, c);
+                    if (next == EMPTY) {
+                        next = states++;
+                        parent[next] = s;
+                        via[next] = c;
+                        depth[next] = depth[s] + 1;
+                        putEdge(s, c, next);
+                    }
+                    s = next;
+                }
+                own[s] = Math.min(own[s], rule);
+            }
+        }
+
+        // 按深度从小到大计算失败转移，失败状态总是更浅，已先算好
+        Integer[] order = new Integer[states];
+        for (int i = 0; i < states; i++) order[i] = i;
+        Arrays.sort(order, (a, b) -> Integer.compare(depth[a], depth[b]));
+        fail = new int[states];
+        best = new int[states];
+        best[0] = own[0];
+        for (int k = 1; k < states; k++) {
+            int v = order[k];
+            int u = parent[v];
+            int f = 0;
+            if (u != 0) {
+                f = fail[u];
+                int target;
+                while ((target = next(f, via[v])) == EMPTY && f != 0) f = fail[f];
+                f = target == EMPTY ? 0 : target;
+            }
+            fail[v] = f;
+            best[v] = Math.min(own[v], best[f]);
+        }
+    }
+
+    static CategoryMatcher defaults() {
+        List<String> categories = new ArrayList<>();
+        List<List<String>> keywords = new ArrayList<>();
+        for (String[] rule : DEFAULT_RULES) {
+            categories.add(rule[0]);
+            keywords.add(Arrays.asList(rule).subList(1, rule.length));
+        }
+        return new CategoryMatcher(categories, keywords);
+    }
+
+    /**
+     * 从配置文件加载规则。
+     *
+     * @throws IOException              读取失败
+     * @throws IllegalArgumentException 某行格式错误，信息中包含行号
+     */
+    static CategoryMatcher load(Path file) throws IOException {
+        List<String> categories = new ArrayList<>();
+        List<List<String>> keywords = new ArrayList<>();
+        List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        for (int i = 0; i < lines.size(); i++) {
+            String line = lines.get(i).trim();
+            if (line.isEmpty() || line.startsWith("#")) continue;
+            int eq = line.indexOf('=');
+            if (eq <= 0) {
+                throw new IllegalArgumentException(file + " 第 " + (i + 1) + " 行格式应为 分类=关键词1,关键词2");
+            }
+            List<String> words = new ArrayList<>();
+            for (String k : line.substring(eq + 1).split(",")) {
+                if (!k.trim().isEmpty()) words.add(k.trim());
+            }
+            categories.add(line.substring(0, eq).trim());
+            keywords.add(words);
+        }
+        return new CategoryMatcher(categories, keywords);
+    }
+
+    /**
+     * 返回备注命中的最靠前规则的分类，没有命中时返回 null。
+     */
+    String match(String text) {
+        int state = 0;
+        int found = NO_MATCH;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            int next;
+            while ((next = next(state, c)) == EMPTY && state != 0) state = fail[state];
+            state = next == EMPTY ? 0 : next;
+            if (best[state] < found) {
+                found = best[state];
+                if (found == 0) break;
+            }
+        }
+        return found == NO_MATCH ? null : categories[found];
+    }
+
+    int ruleCount() {
+        return categories.length;
+    }
+
+    private int slot(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & (edgeKeys.length - 1);
+    }
+
+    private int next(int state, char c) {
+        long key = ((long) state << 16) | c;
+        int mask = edgeKeys.length - 1;
+        for (int i = slot(key); ; i = (i + 1) & mask) {
+            if (edgeTargets[i] == EMPTY) return EMPTY;
+            if (edgeKeys[i] == key) return edgeTargets[i];
+        }
+    }
+
+    private void putEdge(int state, char c, int target) {
+        long key = ((long) state << 16) | c;
+        int mask = edgeKeys.length - 1;
+        int i = slot(key);
+        while (edgeTargets[i] != EMPTY) i = (i + 1) & mask;
+        edgeKeys[i] = key;
+        edgeTargets[i] = target;
+    }
+}
@@ -0,0 +1,255 @@
+package com.example.payment;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * 列式存储：每个字段一列原始类型数组，不为每条记录保留 {@link PaymentRecord} 对象。
+ * <p>
+ * 金额存为"分"（long），时间存为 UTC 纪元秒 + 纳秒，类型、分类、标签做字典编码后存 int 编号，
+ * 所有记录的标签编号连续存放在一个共享数组里。{@link #get} 和迭代时才按需构造 {@link PaymentRecord} 视图，
+ * 视图与存储互不影响。金额只保留两位小数，与数据文件格式一致。
+ */
+public class ColumnarPaymentStore implements PaymentStore {
+    private static final int NULL_CODE = -1;
+
+    private final IntIntMap idToSlot = new IntIntMap();
+    private final Dictionary types = new Dictionary();
+    private final Dictionary categories = new Dictionary();
+    private final Dictionary tagNames = new Dictionary();
+
+    private int[] ids;
+    private long[] cents;
+    private long[] epochSeconds;
+    private int[] nanos;
+    private int[] typeCodes;
+    private int[] categoryCodes;
+    private String[] notes;
+    private int[] tagStart;
+    private int[] tagCount;
+    private final BitSet deleted = new BitSet();
+
+    // 所有记录的标签编号，按 tagStart/tagCount 切片
+    private int[] tagPool = new int[64];
+    private int tagPoolSize;
+    private int tagGarbage;
+
+    private int used;   // 已占用的槽位数（含已删除）
+    private int size;
+
+    public ColumnarPaymentStore() {
+        this(16);
+    }
+
+    public ColumnarPaymentStore(int expectedSize) {
+        allocate(Math.max(4, expectedSize));
+    }
+
+    private void allocate(int capacity) {
+        ids = new int[capacity];
+        cents = new long[capacity];
+        epochSeconds = new long[capacity];
+        nanos = new int[capacity];
+        typeCodes = new int[capacity];
+        categoryCodes = new int[capacity];
+        notes = new String[capacity];
+        tagStart = new int[capacity];
+        tagCount = new int[capacity];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public PaymentRecord get(int id) {
+        int slot = idToSlot.get(id);
+        return slot < 0 ? null : viewAt(slot);
+    }
+
+    @Override
+    public void put(PaymentRecord record) {
+        int slot = idToSlot.get(record.getId());
+        if (slot < 0) {
+            if (used == ids.length) grow();
+            slot = used++;
+            idToSlot.put(record.getId(), slot);
+            size++;
+        } else {
+            tagGarbage += tagCount[slot];
+        }
+        LocalDateTime dt = record.getDateTime();
+        ids[slot] = record.getId();
+        cents[slot] = Math.round(record.getAmount() * 100);
+        epochSeconds[slot] = dt.toEpochSecond(ZoneOffset.UTC);
+        nanos[slot] = dt.getNano();
+        typeCodes[slot] = types.encode(record.getType());
+        categoryCodes[slot] = categories.encode(record.getCategory());
+        notes[slot] = record.getNote();
+        writeTags(slot, record.getTags());
+        if (tagGarbage > 1024 && tagGarbage > tagPoolSize / 2) compactTags();
+    }
+
+    @Override
+    public PaymentRecord remove(int id) {
+        int slot = idToSlot.remove(id);
+        if (slot < 0) return null;
+        PaymentRecord removed = viewAt(slot);
+        deleted.set(slot);
+        notes[slot] = null;
+        tagGarbage += tagCount[slot];
+        tagCount[slot] = 0;
+        size--;
+        if (used - size > size && used > 1024) compactSlots();
+        return removed;
+    }
+
+    @Override
+    public void clear() {
+        idToSlot.clear();
+        deleted.clear();
+        Arrays.fill(notes, 0, used, null);
+        used = 0;
+        size = 0;
+        tagPoolSize = 0;
+        tagGarbage = 0;
+    }
+
+    @Override
+    public List<PaymentRecord> values() {
+        List<PaymentRecord> list = new ArrayList<>(size);
+        for (PaymentRecord r : this) list.add(r);
+        return list;
+    }
+
+    @Override
+    public List<PaymentRecord> snapshot() {
+        // 视图本身就是独立对象
+        return values();
+    }
+
+    @Override
+    public Iterator<PaymentRecord> iterator() {
+        return new Iterator<PaymentRecord>() {
+            private int next = deleted.nextClearBit(0);
+
+            @Override
+            public boolean hasNext() {
+                return next < used;
+            }
+
+            @Override
+            public PaymentRecord next() {
+                if (next >= used) throw new NoSuchElementException();
+                PaymentRecord r = viewAt(next);
+                next = deleted.nextClearBit(next + 1);
+                return r;
+            }
+        };
+    }
+
+    //由列数据构造一条记录视图
+    private PaymentRecord viewAt(int slot) {
+        List<String> tags = new ArrayList<>(tagCount[slot]);
+        for (int i = tagStart[slot], end = i + tagCount[slot]; i < end; i++) {
+            tags.add(tagNames.decode(tagPool[i]));
+        }
+        return new PaymentRecord(ids[slot], cents[slot] / 100.0, types.decode(typeCodes[slot]),
+                LocalDateTime.ofEpochSecond(epochSeconds[slot], nanos[slot], ZoneOffset.UTC),
+                categories.decode(categoryCodes[slot]), notes[slot], tags);
+    }
+
+    private void writeTags(int slot, List<String> tags) {
+        int n = tags == null ? 0 : tags.size();
+        if (tagPoolSize + n > tagPool.length) {
+            tagPool = Arrays.copyOf(tagPool, Math.max(tagPool.length * 2, tagPoolSize + n));
+        }
+        tagStart[slot] = tagPoolSize;
+        tagCount[slot] = n;
+        for (int i = 0; i < n; i++) {
+            tagPool[tagPoolSize++] = tagNames.encode(tags.get(i));
+        }
+    }
+
+    private void grow() {
+        int capacity = ids.length + (ids.length >> 1) + 1;
+        ids = Arrays.copyOf(ids, capacity);
+        cents = Arrays.copyOf(cents, capacity);
+        epochSeconds = Arrays.copyOf(epochSeconds, capacity);
+        nanos = Arrays.copyOf(nanos, capacity);
+        typeCodes = Arrays.copyOf(typeCodes, capacity);
+        categoryCodes = Arrays.copyOf(categoryCodes, capacity);
+        notes = Arrays.copyOf(notes, capacity);
+        tagStart = Arrays.copyOf(tagStart, capacity);
+        tagCount = Arrays.copyOf(tagCount, capacity);
+    }
+
+    //删除过半时把存活槽位前移，保持顺序
+    private void compactSlots() {
+        int j = 0;
+        for (int i = deleted.nextClearBit(0); i < used; i = deleted.nextClearBit(i + 1)) {
+            if (i != j) {
+                ids[j] = ids[i];
+                cents[j] = cents[i];
+                epochSeconds[j] = epochSeconds[i];
+                nanos[j] = nanos[i];
+                typeCodes[j] = typeCodes[i];
+                categoryCodes[j] = categoryCodes[i];
+                notes[j] = notes[i];
+                tagStart[j] = tagStart[i];
+                tagCount[j] = tagCount[i];
+                idToSlot.put(ids[j], j);
+            }
+            j++;
+        }
+        Arrays.fill(notes, j, used, null);
+        deleted.clear();
+        used = j;
+        compactTags();
+    }
+
+    //重写标签数组，去掉已删除或被覆盖记录的标签
+    private void compactTags() {
+        int[] pool = new int[Math.max(64, tagPoolSize - tagGarbage)];
+        int p = 0;
+        for (int i = 0; i < used; i++) {
+            int n = tagCount[i];
+            System.arraycopy(tagPool, tagStart[i], pool, p, n);
+            tagStart[i] = p;
+            p += n;
+        }
+        tagPool = pool;
+        tagPoolSize = p;
+        tagGarbage = 0;
+    }
+
+    //字符串字典：相同字符串只存一份，记录中只保存编号
+    private static final class Dictionary {
+        private final Map<String, Integer> codes = new HashMap<>();
+        private final List<String> values = new ArrayList<>();
+
+        int encode(String s) {
+            if (s == null) return NULL_CODE;
+            Integer code = codes.get(s);
+            if (code == null) {
+                code = values.size();
+                values.add(s);
+                codes.put(s, code);
+            }
+            return code;
+        }
+
+        String decode(int code) {
+            return code == NULL_CODE ? null : values.get(code);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.payment;
+
+import java.util.Arrays;
+
+/**
+ * int → 非负 int 的开放寻址哈希表，键和值都不装箱。
+ * <p>
+ * 线性探测，删除时向后移位而不留删除标记，查找不会随删除次数变慢。
+ */
+class IntIntMap {
+    // 值存为 value + 1，0 表示空槽
+    private int[] keys;
+    private int[] vals;
+    private int size;
+
+    IntIntMap() {
+        this(16);
+    }
+
+    IntIntMap(int expectedSize) {
+        int n = Integer.highestOneBit(Math.max(8, expectedSize * 2 - 1)) << 1;
+        keys = new int[n];
+        vals = new int[n];
+    }
+
+    private static int hash(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    int size() {
+        return size;
+    }
+
+    //不存在时返回 -1
+    int get(int key) {
+        int mask = keys.length - 1;
+        for (int i = hash(key) & mask; vals[i] != 0; i = (i + 1) & mask) {
+            if (keys[i] == key) return vals[i] - 1;
+        }
+        return -1;
+    }
+
+    void put(int key, int value) {
+        if ((size + 1) * 2 > keys.length) resize(keys.length * 2);
+        int mask = keys.length - 1;
+        int i = hash(key) & mask;
+        while (vals[i] != 0) {
+            if (keys[i] == key) {
+                vals[i] = value + 1;
+                return;
+            }
+            i = (i + 1) & mask;
+        }
+        keys[i] = key;
+        vals[i] = value + 1;
+        size++;
+    }
+
+    //返回被删除的值，不存在时返回 -1
+    int remove(int key) {
+        int mask = keys.length - 1;
+        int i = hash(key) & mask;
+        while (vals[i] != 0 && keys[i] != key) i = (i + 1) & mask;
+        if (vals[i] == 0) return -1;
+        int old = vals[i] - 1;
+        // 把后面同一探测链上的元素前移填补空位
+        int gap = i;
+        for (int j = (gap + 1) & mask; vals[j] != 0; j = (j + 1) & mask) {
+            int home = hash(keys[j]) & mask;
+            if (((j - home) & mask) >= ((j - gap) & mask)) {
+                keys[gap] = keys[j];
+                vals[gap] = vals[j];
+                gap = j;
+            }
+        }
+        vals[gap] = 0;
+        size--;
+        return old;
+    }
+
+    void clear() {
+        Arrays.fill(vals, 0);
+        size = 0;
+    }
+
+    private void resize(int newLength) {
+        int[] oldKeys = keys;
+        int[] oldVals = vals;
+        keys = new int[newLength];
+        vals = new int[newLength];
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldVals[i] != 0) put(oldKeys[i], oldVals[i] - 1);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.payment;
+
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * 默认存储：每条记录一个 {@link PaymentRecord} 对象，按 id 索引。
+ */
+public class ListPaymentStore implements PaymentStore {
+    private final OrderedIntMap<PaymentRecord> records = new OrderedIntMap<>();
+
+    @Override
+    public int size() {
+        return records.size();
+    }
+
+    @Override
+    public PaymentRecord get(int id) {
+        return records.get(id);
+    }
+
+    @Override
+    public void put(PaymentRecord record) {
+        records.put(record.getId(), record);
+    }
+
+    @Override
+    public PaymentRecord remove(int id) {
+        return records.remove(id);
+    }
+
+    @Override
+    public void clear() {
+        records.clear();
+    }
+
+    @Override
+    public List<PaymentRecord> values() {
+        return records.values();
+    }
+
+    @Override
+    public List<PaymentRecord> snapshot() {
+        // 记录不可修改，复制列表即可
+        return records.values();
+    }
+
+    @Override
+    public Iterator<PaymentRecord> iterator() {
+        return records.iterator();
+    }
+}
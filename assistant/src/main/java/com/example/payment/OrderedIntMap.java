@@ -0,0 +1,221 @@
+package com.example.payment;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.Consumer;
+
+/**
+ * 以 int 为键、保持插入顺序的哈希表，键不装箱。
+ * <p>
+ * 值按插入顺序存放在连续数组中，哈希表只保存"键 → 数组下标"，开放寻址 + 线性探测。
+ * 删除只把对应位置置空，空位超过一半时整体压缩，因此查找、插入、删除均摊 O(1)，遍历仍按插入顺序。
+ * 值不能为 null。
+ */
+class OrderedIntMap<V> implements Iterable<V> {
+    private static final int EMPTY = 0;
+    private static final int DELETED = -1;
+
+    // 哈希槽，存放 下标 + 1；0 表示空，-1 表示已删除
+    private int[] table;
+    private int[] keys;
+    private Object[] values;
+    private int used;   // 已占用的顺序下标数（含已删除）
+    private int size;   // 有效元素数
+    private int tombstones;
+
+    OrderedIntMap() {
+        this(16);
+    }
+
+    OrderedIntMap(int expectedSize) {
+        int capacity = Math.max(4, expectedSize);
+        keys = new int[capacity];
+        values = new Object[capacity];
+        table = new int[tableSizeFor(capacity)];
+    }
+
+    private static int tableSizeFor(int capacity) {
+        int n = Integer.highestOneBit(Math.max(8, capacity * 2 - 1)) << 1;
+        return n < 0 ? 1 << 30 : n;
+    }
+
+    private static int hash(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    V get(int key) {
+        int pos = indexOf(key);
+        return pos < 0 ? null : (V) values[pos];
+    }
+
+    boolean containsKey(int key) {
+        return indexOf(key) >= 0;
+    }
+
+    /**
+     * 键已存在时原位替换值（不改变顺序），否则追加到末尾。
+     *
+     * @return 原来的值，没有则为 null
+     */
+    @SuppressWarnings("unchecked")
+    V put(int key, V value) {
+        int pos = indexOf(key);
+        if (pos >= 0) {
+            V old = (V) values[pos];
+            values[pos] = value;
+            return old;
+        }
+        if (used == keys.length) {
+            grow();
+        }
+        if ((size + tombstones + 1) * 2 > table.length) {
+            // 装载因子保持在 1/2 以下，重建时顺带清掉删除标记
+            rehash(Math.max(table.length, tableSizeFor(size + 1)));
+        }
+        keys[used] = key;
+        values[used] = value;
+        insertSlot(key, used);
+        used++;
+        size++;
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    V remove(int key) {
+        int mask = table.length - 1;
+        for (int i = hash(key) & mask; ; i = (i + 1) & mask) {
+            int entry = table[i];
+            if (entry == EMPTY) return null;
+            if (entry != DELETED && keys[entry - 1] == key) {
+                int pos = entry - 1;
+                V old = (V) values[pos];
+                values[pos] = null;
+                table[i] = DELETED;
+                tombstones++;
+                size--;
+                if (used - size > size && used > 16) {
+                    compact();
+                }
+                return old;
+            }
+        }
+    }
+
+    void clear() {
+        Arrays.fill(table, EMPTY);
+        Arrays.fill(values, 0, used, null);
+        used = 0;
+        size = 0;
+        tombstones = 0;
+    }
+
+    //按插入顺序遍历所有值
+    @Override
+    @SuppressWarnings("unchecked")
+    public void forEach(Consumer<? super V> action) {
+        for (int i = 0; i < used; i++) {
+            Object v = values[i];
+            if (v != null) action.accept((V) v);
+        }
+    }
+
+    //按插入顺序迭代所有值，迭代期间不能修改
+    @Override
+    public Iterator<V> iterator() {
+        return new Iterator<V>() {
+            private int next = advance(0);
+
+            private int advance(int from) {
+                while (from < used && values[from] == null) from++;
+                return from;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return next < used;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public V next() {
+                if (next >= used) throw new NoSuchElementException();
+                V v = (V) values[next];
+                next = advance(next + 1);
+                return v;
+            }
+        };
+    }
+
+    //按插入顺序返回所有值的新列表
+    List<V> values() {
+        List<V> list = new ArrayList<>(size);
+        forEach(list::add);
+        return list;
+    }
+
+    private int indexOf(int key) {
+        int mask = table.length - 1;
+        for (int i = hash(key) & mask; ; i = (i + 1) & mask) {
+            int entry = table[i];
+            if (entry == EMPTY) return -1;
+            if (entry != DELETED && keys[entry - 1] == key) return entry - 1;
+        }
+    }
+
+    private void insertSlot(int key, int pos) {
+        int mask = table.length - 1;
+        int i = hash(key) & mask;
+        while (table[i] > 0) {
+            i = (i + 1) & mask;
+        }
+        if (table[i] == DELETED) tombstones--;
+        table[i] = pos + 1;
+    }
+
+    private void grow() {
+        // 空位较多时压缩即可腾出空间
+        if (used - size >= used / 4) {
+            compact();
+            if (used < keys.length) return;
+        }
+        int newCapacity = keys.length + (keys.length >> 1) + 1;
+        keys = Arrays.copyOf(keys, newCapacity);
+        values = Arrays.copyOf(values, newCapacity);
+    }
+
+    //去掉已删除的位置，保持顺序
+    private void compact() {
+        int j = 0;
+        for (int i = 0; i < used; i++) {
+            if (values[i] != null) {
+                keys[j] = keys[i];
+                values[j] = values[i];
+                j++;
+            }
+        }
+        Arrays.fill(values, j, used, null);
+        used = j;
+        rehash(tableSizeFor(Math.max(keys.length, 4)));
+    }
+
+    private void rehash(int newTableSize) {
+        table = new int[newTableSize];
+        tombstones = 0;
+        for (int i = 0; i < used; i++) {
+            if (values[i] != null) insertSlot(keys[i], i);
+        }
+    }
+}
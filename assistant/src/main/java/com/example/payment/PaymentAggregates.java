@@ -0,0 +1,172 @@
+package com.example.payment;
+
+import java.time.YearMonth;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * 收支汇总的物化视图：按 (月份, 类型) 和 (分类, 类型) 维护金额合计与笔数。
+ * <p>
+ * 由 {@link PaymentRecordManager} 在增、改、删时增量更新，读取单个汇总桶为 O(1)。
+ * 金额以"分"为单位累加，反复增减不会产生浮点误差。
+ * <p>
+ * 修改由管理器在写锁内进行；读取方法可与修改并发调用，返回的 map 和汇总桶都是调用时刻的副本。
+ * 汇总 map 是原地修改的，遍历它们的读取都在读锁内进行，不走乐观读。
+ */
+public class PaymentAggregates {
+
+    //一个汇总桶：金额合计（分）与笔数
+    public static final class Bucket {
+        private long cents;
+        private int count;
+
+        Bucket() {
+        }
+
+        private Bucket(Bucket other) {
+            this.cents = other.cents;
+            this.count = other.count;
+        }
+
+        public double getTotal() {
+            return cents / 100.0;
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Bucket)) return false;
+            Bucket b = (Bucket) o;
+            return cents == b.cents && count == b.count;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(cents, count);
+        }
+    }
+
+    private final NavigableMap<YearMonth, Map<String, Bucket>> byMonth = new TreeMap<>();
+    private final Map<String, Map<String, Bucket>> byCategory = new LinkedHashMap<>();
+    private int recordCount;
+    // 与管理器共用的锁，独立创建时使用自己的锁
+    private final StampedLock lock;
+
+    public PaymentAggregates() {
+        this(new StampedLock());
+    }
+
+    PaymentAggregates(StampedLock lock) {
+        this.lock = lock;
+    }
+
+    void add(PaymentRecord r) {
+        long cents = toCents(r.getAmount());
+        apply(byMonth.computeIfAbsent(YearMonth.from(r.getDateTime()), k -> new HashMap<>()), r.getType(), cents, 1);
+        apply(byCategory.computeIfAbsent(r.getCategory(), k -> new HashMap<>()), r.getType(), cents, 1);
+        recordCount++;
+    }
+
+    void remove(PaymentRecord r) {
+        long cents = toCents(r.getAmount());
+        YearMonth ym = YearMonth.from(r.getDateTime());
+        Map<String, Bucket> month = byMonth.get(ym);
+        if (month != null && apply(month, r.getType(), -cents, -1)) byMonth.remove(ym);
+        Map<String, Bucket> category = byCategory.get(r.getCategory());
+        if (category != null && apply(category, r.getType(), -cents, -1)) byCategory.remove(r.getCategory());
+        recordCount--;
+    }
+
+    void clear() {
+        byMonth.clear();
+        byCategory.clear();
+        recordCount = 0;
+    }
+
+    //更新一个桶，桶清空后移除；返回外层 map 是否也已为空
+    private static boolean apply(Map<String, Bucket> buckets, String type, long cents, int count) {
+        Bucket b = buckets.computeIfAbsent(type, k -> new Bucket());
+        b.cents += cents;
+        b.count += count;
+        if (b.count == 0) buckets.remove(type);
+        return buckets.isEmpty();
+    }
+
+    private static long toCents(double amount) {
+        return Math.round(amount * 100);
+    }
+
+    public int getRecordCount() {
+        return StampedReads.optimistic(lock, () -> recordCount);
+    }
+
+    //指定月份、类型的合计，无记录时为 0
+    public double getMonthTotal(YearMonth month, String type) {
+        return StampedReads.locked(lock, () -> total(byMonth.get(month), type));
+    }
+
+    //指定月份按类型划分的汇总桶
+    public Map<String, Bucket> getMonth(YearMonth month) {
+        return StampedReads.locked(lock, () -> copy(byMonth.get(month)));
+    }
+
+    //指定分类、类型的合计，无记录时为 0
+    public double getCategoryTotal(String category, String type) {
+        return StampedReads.locked(lock, () -> total(byCategory.get(category), type));
+    }
+
+    //指定分类按类型划分的汇总桶
+    public Map<String, Bucket> getCategory(String category) {
+        return StampedReads.locked(lock, () -> copy(byCategory.get(category)));
+    }
+
+    //有记录的所有月份，按时间升序
+    public NavigableMap<YearMonth, Map<String, Bucket>> getMonths() {
+        return StampedReads.locked(lock, () -> {
+            NavigableMap<YearMonth, Map<String, Bucket>> months = new TreeMap<>();
+            byMonth.forEach((month, buckets) -> months.put(month, copy(buckets)));
+            return Collections.unmodifiableNavigableMap(months);
+        });
+    }
+
+    //有记录的所有分类，按首次出现顺序
+    public Map<String, Map<String, Bucket>> getCategories() {
+        return StampedReads.locked(lock, () -> {
+            Map<String, Map<String, Bucket>> categories = new LinkedHashMap<>();
+            byCategory.forEach((category, buckets) -> categories.put(category, copy(buckets)));
+            return Collections.unmodifiableMap(categories);
+        });
+    }
+
+    private static double total(Map<String, Bucket> buckets, String type) {
+        Bucket b = buckets == null ? null : buckets.get(type);
+        return b == null ? 0 : b.getTotal();
+    }
+
+    private static Map<String, Bucket> copy(Map<String, Bucket> buckets) {
+        if (buckets == null) return Collections.emptyMap();
+        Map<String, Bucket> copy = new HashMap<>();
+        buckets.forEach((type, b) -> copy.put(type, new Bucket(b)));
+        return Collections.unmodifiableMap(copy);
+    }
+
+    /**
+     * 与对给定记录的全量重算结果比较，用于校验增量维护是否一致。调用期间不能有修改。
+     */
+    public boolean isConsistentWith(Iterable<PaymentRecord> records) {
+        PaymentAggregates fresh = new PaymentAggregates();
+        for (PaymentRecord r : records) fresh.add(r);
+        return recordCount == fresh.recordCount
+                && byMonth.equals(fresh.byMonth)
+                && byCategory.equals(fresh.byCategory);
+    }
+}
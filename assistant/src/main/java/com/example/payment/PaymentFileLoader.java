@@ -0,0 +1,231 @@
+package com.example.payment;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * 数据文件的内存映射加载器，直接在字节上按制表符切分字段，不为每行创建 String 和 split 数组。
+ * <p>
+ * 解析结果与 {@link PaymentRecordManager#parseLine} 一致：字段按 UTF-8 解码，结尾的空字段不计数，
+ * 不足 6 个字段的行跳过。时间按固定格式 {@code yyyy-MM-dd HH:mm:ss} 手工解析，金额的常见写法走快速路径，
+ * 其余写法交给 JDK 解析。文件按窗口分段映射，大于 2GB 的文件也能加载。
+ */
+final class PaymentFileLoader {
+    static final int DEFAULT_WINDOW = 1 << 28;
+
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final int MAX_FIELDS = 7;
+    private static final int CACHE_SIZE = 1024;
+    private static final double[] POW10 = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15
+    };
+
+    private final Consumer<PaymentRecord> sink;
+    private byte[] line = new byte[256];
+    private final int[] starts = new int[MAX_FIELDS];
+    private final int[] ends = new int[MAX_FIELDS];
+
+    // 类型、分类、标签取值很少，按字节内容缓存解码结果，相同取值共享一个 String
+    private final byte[][] cacheKeys = new byte[CACHE_SIZE][];
+    private final String[] cacheValues = new String[CACHE_SIZE];
+
+    private PaymentFileLoader(Consumer<PaymentRecord> sink) {
+        this.sink = sink;
+    }
+
+    /**
+     * 解析 [start, end) 字节区间内的记录，start 必须位于行首。供并行加载按区间调用，各区间互不影响。
+     */
+    static List<PaymentRecord> loadRange(FileChannel channel, long start, long end) throws IOException {
+        return loadRange(channel, start, end, DEFAULT_WINDOW);
+    }
+
+    //window 为每次映射的字节数
+    static List<PaymentRecord> loadRange(FileChannel channel, long start, long end, int window) throws IOException {
+        List<PaymentRecord> records = new ArrayList<>();
+        new PaymentFileLoader(records::add).parseRange(channel, start, end, window);
+        return records;
+    }
+
+    private void parseRange(FileChannel channel, long start, long end, int window) throws IOException {
+        long position = start;
+        while (position < end) {
+            int length = (int) Math.min(window, end - position);
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+            int lineStart = 0;
+            for (int i = 0; i < length; i++) {
+                if (buffer.get(i) == '\n') {
+                    accept(buffer, lineStart, i);
+                    lineStart = i + 1;
+                }
+            }
+            if (position + length == end) {
+                if (lineStart < length) accept(buffer, lineStart, length);
+                position = end;
+            } else {
+                // 窗口末尾不完整的一行留到下一个窗口
+                if (lineStart == 0) throw new IOException("数据行超过 " + window + " 字节");
+                position += lineStart;
+            }
+        }
+    }
+
+    private void accept(MappedByteBuffer buffer, int from, int to) {
+        if (to > from && buffer.get(to - 1) == '\r') to--;
+        int length = to - from;
+        if (length > line.length) line = new byte[Math.max(length, line.length * 2)];
+        buffer.get(from, line, 0, length);
+        PaymentRecord record = parse(length);
+        if (record != null) sink.accept(record);
+    }
+
+    //解析 line[0, length)，字段不足时返回 null
+    private PaymentRecord parse(int length) {
+        byte[] b = line;
+        int fields = 0;
+        int lastNonEmpty = -1;
+        int start = 0;
+        for (int i = 0; i <= length; i++) {
+            if (i == length || b[i] == '\t') {
+                if (i > start) lastNonEmpty = fields;
+                if (fields < MAX_FIELDS) {
+                    starts[fields] = start;
+                    ends[fields] = i;
+                }
+                fields++;
+                start = i + 1;
+            }
+        }
+        // 与 String.split 一致，结尾的空字段不计数
+        fields = lastNonEmpty + 1;
+        if (fields < 6) return null;
+
+        int id = parseInt(b, starts[0], ends[0]);
+        double amount = parseAmount(b, starts[1], ends[1]);
+        String type = cached(b, starts[2], ends[2]);
+        LocalDateTime dateTime = parseDateTime(b, starts[3], ends[3]);
+        String category = cached(b, starts[4], ends[4]);
+        String note = new String(b, starts[5], ends[5] - starts[5], StandardCharsets.UTF_8);
+        List<String> tags = fields > 6 ? parseTags(b, starts[6], ends[6]) : new ArrayList<>();
+        return new PaymentRecord(id, amount, type, dateTime, category, note, tags);
+    }
+
+    //按逗号切分标签，与 String.split(",") 一致
+    private List<String> parseTags(byte[] b, int from, int to) {
+        List<String> tags = new ArrayList<>(4);
+        int start = from;
+        int keep = 0;
+        for (int i = from; i <= to; i++) {
+            if (i == to || b[i] == ',') {
+                tags.add(cached(b, start, i));
+                if (i > start) keep = tags.size();
+                start = i + 1;
+            }
+        }
+        if (tags.size() > 1) {
+            // 去掉结尾的空标签
+            tags.subList(keep, tags.size()).clear();
+        }
+        return tags;
+    }
+
+    private String cached(byte[] b, int from, int to) {
+        if (from == to) return "";
+        int h = 1;
+        for (int i = from; i < to; i++) h = 31 * h + b[i];
+        int slot = (h ^ (h >>> 16)) & (CACHE_SIZE - 1);
+        byte[] key = cacheKeys[slot];
+        if (key != null && Arrays.equals(key, 0, key.length, b, from, to)) return cacheValues[slot];
+        String s = new String(b, from, to - from, StandardCharsets.UTF_8);
+        cacheKeys[slot] = Arrays.copyOfRange(b, from, to);
+        cacheValues[slot] = s;
+        return s;
+    }
+
+    private static String ascii(byte[] b, int from, int to) {
+        return new String(b, from, to - from, StandardCharsets.UTF_8);
+    }
+
+    private static int parseInt(byte[] b, int from, int to) {
+        int i = from;
+        boolean negative = false;
+        if (i < to && (b[i] == '-' || b[i] == '+')) negative = b[i++] == '-';
+        if (i == to || to - i > 9) return Integer.parseInt(ascii(b, from, to));
+        int value = 0;
+        for (; i < to; i++) {
+            int d = b[i] - '0';
+            if (d < 0 || d > 9) return Integer.parseInt(ascii(b, from, to));
+            value = value * 10 + d;
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * 不超过 15 位有效数字的普通小数按"整数 / 10 的幂"计算，两个操作数都能精确表示，
+     * 除法结果与 {@link Double#parseDouble} 相同；指数、空白等其它写法回退到 JDK。
+     */
+    private static double parseAmount(byte[] b, int from, int to) {
+        int i = from;
+        boolean negative = false;
+        if (i < to && (b[i] == '-' || b[i] == '+')) negative = b[i++] == '-';
+        long mantissa = 0;
+        int digits = 0;
+        int scale = -1;
+        for (; i < to; i++) {
+            int c = b[i];
+            if (c >= '0' && c <= '9') {
+                if (++digits > 15) return Double.parseDouble(ascii(b, from, to));
+                mantissa = mantissa * 10 + (c - '0');
+                if (scale >= 0) scale++;
+            } else if (c == '.' && scale < 0) {
+                scale = 0;
+            } else {
+                return Double.parseDouble(ascii(b, from, to));
+            }
+        }
+        if (digits == 0) return Double.parseDouble(ascii(b, from, to));
+        double value = scale > 0 ? mantissa / POW10[scale] : mantissa;
+        return negative ? -value : value;
+    }
+
+    //固定格式 yyyy-MM-dd HH:mm:ss；格式或取值不合法时交给 FORMATTER，保持原来的解析规则和异常
+    private static LocalDateTime parseDateTime(byte[] b, int from, int to) {
+        if (to - from == 19 && b[from + 4] == '-' && b[from + 7] == '-' && b[from + 10] == ' '
+                && b[from + 13] == ':' && b[from + 16] == ':') {
+            int year = digits(b, from, 4);
+            int month = digits(b, from + 5, 2);
+            int day = digits(b, from + 8, 2);
+            int hour = digits(b, from + 11, 2);
+            int minute = digits(b, from + 14, 2);
+            int second = digits(b, from + 17, 2);
+            if ((year | month | day | hour | minute | second) >= 0) {
+                try {
+                    return LocalDateTime.of(year, month, day, hour, minute, second);
+                } catch (DateTimeException e) {
+                    // 例如 2 月 30 日，按 FORMATTER 的规则处理
+                }
+            }
+        }
+        return LocalDateTime.parse(ascii(b, from, to), FORMATTER);
+    }
+
+    //读取 n 位十进制数字，含非数字时返回 -1
+    private static int digits(byte[] b, int from, int n) {
+        int value = 0;
+        for (int i = from; i < from + n; i++) {
+            int d = b[i] - '0';
+            if (d < 0 || d > 9) return -1;
+            value = value * 10 + d;
+        }
+        return value;
+    }
+}
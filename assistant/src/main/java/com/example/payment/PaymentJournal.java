@@ -0,0 +1,238 @@
+package com.example.payment;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * 收支记录的追加式预写日志。
+ * <p>
+ * 增、改、删只向 {@code <数据文件>.journal} 追加一行小条目，日志超过阈值后由后台线程把内存中的全量快照
+ * 压缩写回数据文件（临时文件 + 原子重命名）。启动恢复顺序为：快照 → 压缩中的旧日志 → 当前日志，
+ * 条目按 id 覆盖/删除，重复回放是幂等的，因此压缩过程中任何时刻崩溃都能恢复到最后一次追加后的状态。
+ * 崩溃留下的半行在下次追加前先补上换行，不会与新条目拼成一行。
+ */
+class PaymentJournal {
+    static final long DEFAULT_COMPACT_THRESHOLD = 1024 * 1024;
+
+    private static final String UPSERT = "U";
+    private static final String DELETE = "D";
+
+    private final Path snapshotFile;
+    private final Path journalFile;
+    private final Path compactingFile;
+    private final long compactThreshold;
+
+    private BufferedWriter writer;
+    private long journalBytes;
+    private ExecutorService compactor;
+    private Future<?> pendingCompaction;
+
+    //日志回放回调
+    interface Listener {
+        void onUpsert(PaymentRecord record);
+
+        void onDelete(int id);
+    }
+
+    PaymentJournal(String dataFile, long compactThreshold) {
+        this.snapshotFile = Paths.get(dataFile);
+        this.journalFile = Paths.get(dataFile + ".journal");
+        this.compactingFile = Paths.get(dataFile + ".journal.compacting");
+        this.compactThreshold = compactThreshold;
+    }
+
+    //按顺序回放压缩中的旧日志和当前日志（快照由调用方先行加载）
+    void replay(Listener listener) {
+        replayFile(compactingFile, listener);
+        replayFile(journalFile, listener);
+        try {
+            journalBytes = Files.exists(journalFile) ? Files.size(journalFile) : 0;
+        } catch (IOException e) {
+            journalBytes = 0;
+        }
+    }
+
+    private void replayFile(Path file, Listener listener) {
+        if (!Files.exists(file)) return;
+        try (BufferedReader br = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                int tab = line.indexOf('\t');
+                if (tab < 0) continue;
+                String op = line.substring(0, tab);
+                String body = line.substring(tab + 1);
+                try {
+                    if (UPSERT.equals(op)) {
+                        PaymentRecord record = PaymentRecordManager.parseLine(body);
+                        if (record != null) listener.onUpsert(record);
+                    } else if (DELETE.equals(op)) {
+                        listener.onDelete(Integer.parseInt(body.trim()));
+                    }
+                } catch (RuntimeException e) {
+                    // 崩溃时写了一半的尾行，跳过
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("回放收支日志错误: " + e.getMessage());
+        }
+    }
+
+    void appendUpsert(PaymentRecord record) {
+        append(UPSERT + "\t" + record.toFileFormat());
+    }
+
+    void appendDelete(int id) {
+        append(DELETE + "\t" + id);
+    }
+
+    //将缓冲区中的条目刷到文件
+    void flush() {
+        if (writer == null) return;
+        try {
+            writer.flush();
+        } catch (IOException e) {
+            System.err.println("写入收支日志错误: " + e.getMessage());
+        }
+    }
+
+    private void append(String entry) {
+        try {
+            if (writer == null) {
+                journalBytes += terminateLastLine(journalFile);
+                writer = Files.newBufferedWriter(journalFile, StandardCharsets.UTF_8,
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            }
+            writer.write(entry);
+            writer.write('\n');
+            journalBytes += entry.getBytes(StandardCharsets.UTF_8).length + 1;
+        } catch (IOException e) {
+            System.err.println("写入收支日志错误: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 文件末行没有换行（崩溃时写了一半）时补一个换行，使之后追加的条目从新行开始、半行在回放时被跳过。
+     *
+     * @return 补写的字节数
+     */
+    private static int terminateLastLine(Path file) throws IOException {
+        if (!Files.exists(file)) return 0;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long size = channel.size();
+            if (size == 0) return 0;
+            ByteBuffer last = ByteBuffer.allocate(1);
+            if (channel.read(last, size - 1) == 1 && last.get(0) == '\n') return 0;
+            channel.write(ByteBuffer.wrap(new byte[]{'\n'}), size);
+            return 1;
+        }
+    }
+
+    //日志超过阈值且没有正在进行的压缩时返回 true
+    boolean needsCompaction() {
+        return journalBytes > compactThreshold && !isCompacting();
+    }
+
+    /**
+     * 以给定快照开始一次后台压缩。快照必须是调用时刻内存状态的独立副本，
+     * 之后的修改会写入新的日志文件，不受压缩影响。
+     */
+    void compactAsync(List<PaymentRecord> snapshot) {
+        if (!rotate()) return;
+        if (compactor == null) {
+            compactor = Executors.newSingleThreadExecutor(r -> {
+                Thread t = new Thread(r, "payment-journal-compactor");
+                t.setDaemon(true);
+                return t;
+            });
+        }
+        pendingCompaction = compactor.submit(() -> writeSnapshot(snapshot));
+    }
+
+    //是否有尚未完成的后台压缩
+    boolean isCompacting() {
+        return pendingCompaction != null && !pendingCompaction.isDone();
+    }
+
+    void awaitCompaction() {
+        if (pendingCompaction == null) return;
+        try {
+            pendingCompaction.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            System.err.println("压缩收支日志错误: " + e.getCause().getMessage());
+        }
+    }
+
+    //把当前日志并入"压缩中"文件，之后的追加写入新日志
+    private boolean rotate() {
+        try {
+            if (writer != null) {
+                writer.close();
+                writer = null;
+            }
+            if (Files.exists(journalFile)) {
+                if (Files.exists(compactingFile)) {
+                    // 上一次压缩失败留下的旧日志，合并后一起覆盖
+                    terminateLastLine(compactingFile);
+                    Files.write(compactingFile, Files.readAllBytes(journalFile), StandardOpenOption.APPEND);
+                    Files.delete(journalFile);
+                } else {
+                    Files.move(journalFile, compactingFile, StandardCopyOption.ATOMIC_MOVE);
+                }
+            }
+            journalBytes = 0;
+            return true;
+        } catch (IOException e) {
+            System.err.println("轮转收支日志错误: " + e.getMessage());
+            return false;
+        }
+    }
+
+    private void writeSnapshot(List<PaymentRecord> snapshot) {
+        Path tmp = snapshotFile.resolveSibling(snapshotFile.getFileName() + ".tmp");
+        try {
+            try (BufferedWriter bw = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+                for (PaymentRecord r : snapshot) {
+                    bw.write(r.toFileFormat());
+                    bw.write('\n');
+                }
+            }
+            Files.move(tmp, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            Files.deleteIfExists(compactingFile);
+        } catch (IOException e) {
+            System.err.println("压缩收支日志错误: " + e.getMessage());
+        }
+    }
+
+    //等待后台压缩结束并关闭日志文件
+    void close() {
+        awaitCompaction();
+        if (compactor != null) {
+            compactor.shutdown();
+            compactor = null;
+        }
+        try {
+            if (writer != null) {
+                writer.close();
+                writer = null;
+            }
+        } catch (IOException e) {
+            System.err.println("关闭收支日志错误: " + e.getMessage());
+        }
+    }
+}
@@ -7,7 +7,7 @@ import java.util.Scanner;
 import java.util.Arrays;
 
 public class PaymentMenu {
-    private final PaymentRecordManager manager = new PaymentRecordManager();
+    private final PaymentRecordManager manager = new PaymentRecordManager(PaymentRecordManager.DATA_FILE, true);
     private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
     private final Scanner scanner = new Scanner(System.in);
 
@@ -23,6 +23,7 @@ public class PaymentMenu {
             System.out.println("7. 数据可视化");
             System.out.println("8. 搜索记录");
             System.out.println("9. 智能分析与建议");
+            System.out.println("10. 按分类规则重新分类");
             System.out.println("0. 返回主菜单");
             System.out.print("请选择: ");
             String choice = scanner.nextLine();
@@ -36,6 +37,7 @@ public class PaymentMenu {
                 case "7": showVisualization(); break;
                 case "8": searchRecords(); break;
                 case "9": smartAnalysis(); break;
+                case "10": recategorize(); break;
                 case "0": return;
                 default: System.out.println("无效选择，请重试。");
             }
@@ -178,21 +180,12 @@ public class PaymentMenu {
 
     // 本月与上月收支对比
     private void compareMonth() {
-        List<PaymentRecord> all = manager.getAllRecords();
         java.time.LocalDate now = java.time.LocalDate.now();
         java.time.YearMonth thisMonth = java.time.YearMonth.from(now);
         java.time.YearMonth lastMonth = thisMonth.minusMonths(1);
-        double thisIncome = 0, thisExpense = 0, lastIncome = 0, lastExpense = 0;
-        for (PaymentRecord r : all) {
-            java.time.YearMonth ym = java.time.YearMonth.from(r.getDateTime().toLocalDate());
-            if (ym.equals(thisMonth)) {
-                if ("收入".equals(r.getType())) thisIncome += r.getAmount();
-                else thisExpense += r.getAmount();
-            } else if (ym.equals(lastMonth)) {
-                if ("收入".equals(r.getType())) lastIncome += r.getAmount();
-                else lastExpense += r.getAmount();
-            }
-        }
+        PaymentAggregates agg = manager.getAggregates();
+        double thisIncome = incomeOf(agg.getMonth(thisMonth)), thisExpense = expenseOf(agg.getMonth(thisMonth));
+        double lastIncome = incomeOf(agg.getMonth(lastMonth)), lastExpense = expenseOf(agg.getMonth(lastMonth));
         System.out.println("\n【本月 vs 上月】");
         System.out.printf("%-8s | %-10s | %-10s | %-10s\n", "类型", "本月", "上月", "变化");
         System.out.println("----------------------------------------");
@@ -203,17 +196,12 @@ public class PaymentMenu {
 
     // 分类收支对比
     private void compareCategory() {
-        List<PaymentRecord> all = manager.getAllRecords();
-        java.util.Map<String, Double> incomeMap = new java.util.HashMap<>();
-        java.util.Map<String, Double> expenseMap = new java.util.HashMap<>();
-        for (PaymentRecord r : all) {
-            String cat = r.getCategory();
-            if ("收入".equals(r.getType())) {
-                incomeMap.put(cat, incomeMap.getOrDefault(cat, 0.0) + r.getAmount());
-            } else {
-                expenseMap.put(cat, expenseMap.getOrDefault(cat, 0.0) + r.getAmount());
-            }
-        }
+        java.util.Map<String, Double> incomeMap = new java.util.LinkedHashMap<>();
+        java.util.Map<String, Double> expenseMap = new java.util.LinkedHashMap<>();
+        manager.getAggregates().getCategories().forEach((cat, buckets) -> {
+            if (buckets.containsKey("收入")) incomeMap.put(cat, incomeOf(buckets));
+            if (buckets.size() > (buckets.containsKey("收入") ? 1 : 0)) expenseMap.put(cat, expenseOf(buckets));
+        });
         System.out.println("\n【各分类收入】");
         System.out.printf("%-10s | %-10s\n", "分类", "收入");
         System.out.println("----------------------");
@@ -240,14 +228,15 @@ public class PaymentMenu {
             java.time.LocalDateTime start2 = java.time.LocalDate.parse(start2Str).atStartOfDay();
             java.time.LocalDateTime end2 = java.time.LocalDate.parse(end2Str).atTime(23,59,59);
             double income1 = 0, expense1 = 0, income2 = 0, expense2 = 0;
-            for (PaymentRecord r : manager.getAllRecords()) {
-                if (!r.getDateTime().isBefore(start1) && !r.getDateTime().isAfter(end1)) {
-                    if ("收入".equals(r.getType())) income1 += r.getAmount();
-                    else expense1 += r.getAmount();
-                } else if (!r.getDateTime().isBefore(start2) && !r.getDateTime().isAfter(end2)) {
-                    if ("收入".equals(r.getType())) income2 += r.getAmount();
-                    else expense2 += r.getAmount();
-                }
+            for (PaymentRecord r : manager.queryRecords(start1, end1, null, null, null, null)) {
+                if ("收入".equals(r.getType())) income1 += r.getAmount();
+                else expense1 += r.getAmount();
+            }
+            for (PaymentRecord r : manager.queryRecords(start2, end2, null, null, null, null)) {
+                // 两个时间段重叠时，重叠部分只计入第一个时间段
+                if (!r.getDateTime().isBefore(start1) && !r.getDateTime().isAfter(end1)) continue;
+                if ("收入".equals(r.getType())) income2 += r.getAmount();
+                else expense2 += r.getAmount();
             }
             System.out.println("\n【自定义时间段对比】");
             System.out.printf("%-8s | %-12s | %-12s | %-10s\n", "类型", "时间段1", "时间段2", "变化");
@@ -283,17 +272,17 @@ public class PaymentMenu {
 
     // 月度收支趋势柱状图
     private void showMonthlyBarChart() {
-        List<PaymentRecord> all = manager.getAllRecords();
         java.util.Map<String, Double> incomeMap = new java.util.TreeMap<>();
         java.util.Map<String, Double> expenseMap = new java.util.TreeMap<>();
-        for (PaymentRecord r : all) {
-            String ym = r.getDateTime().getYear() + "-" + String.format("%02d", r.getDateTime().getMonthValue());
-            if ("收入".equals(r.getType())) {
-                incomeMap.put(ym, incomeMap.getOrDefault(ym, 0.0) + r.getAmount());
-            } else {
-                expenseMap.put(ym, expenseMap.getOrDefault(ym, 0.0) + r.getAmount());
-            }
-        }
+        manager.getAggregates().getMonths().forEach((month, buckets) -> {
+            String ym = month.toString();
+            if (buckets.containsKey("收入")) incomeMap.put(ym, incomeOf(buckets));
+            if (buckets.size() > (buckets.containsKey("收入") ? 1 : 0)) expenseMap.put(ym, expenseOf(buckets));
+        });
+        // 以单月收入或支出合计的最大值为满格，柱子不超过 50 格
+        double maxBarValue = 1;
+        for (double v : incomeMap.values()) maxBarValue = Math.max(maxBarValue, v);
+        for (double v : expenseMap.values()) maxBarValue = Math.max(maxBarValue, v);
         System.out.println("\n【月度收支趋势】");
         System.out.printf("%-8s | %-8s | %-8s\n", "月份", "收入", "支出");
         System.out.println("-----------------------------");
@@ -303,23 +292,23 @@ public class PaymentMenu {
             System.out.printf("%-8s | %-8.2f | %-8.2f\n", ym, income, expense);
             // 柱状图
             System.out.print(" 收入: ");
-            printBar(income);
+            printBar(income, maxBarValue);
             System.out.print(" 支出: ");
-            printBar(expense);
+            printBar(expense, maxBarValue);
             System.out.println();
         }
     }
 
     // 分类支出占比字符饼图
     private void showCategoryPieChart() {
-        List<PaymentRecord> all = manager.getAllRecords();
-        java.util.Map<String, Double> expenseMap = new java.util.HashMap<>();
+        java.util.Map<String, Double> expenseMap = new java.util.LinkedHashMap<>();
         double total = 0;
-        for (PaymentRecord r : all) {
-            if (!"收入".equals(r.getType())) {
-                String cat = r.getCategory();
-                expenseMap.put(cat, expenseMap.getOrDefault(cat, 0.0) + r.getAmount());
-                total += r.getAmount();
+        for (java.util.Map.Entry<String, java.util.Map<String, PaymentAggregates.Bucket>> e : manager.getAggregates().getCategories().entrySet()) {
+            java.util.Map<String, PaymentAggregates.Bucket> buckets = e.getValue();
+            if (buckets.size() > (buckets.containsKey("收入") ? 1 : 0)) {
+                double v = expenseOf(buckets);
+                expenseMap.put(e.getKey(), v);
+                total += v;
             }
         }
         System.out.println("\n【分类支出占比】");
@@ -333,22 +322,12 @@ public class PaymentMenu {
     }
 
     // 打印柱状图
-    private void printBar(double value) {
-        int len = (int) Math.round(value / getMaxBarValue() * 50);
+    private void printBar(double value, double maxBarValue) {
+        int len = (int) Math.round(value / maxBarValue * 50);
         for (int i = 0; i < len; i++) System.out.print("█");
         System.out.println();
     }
 
-    // 获取柱状图最大值（收入和支出中的最大值）
-    private double getMaxBarValue() {
-        List<PaymentRecord> all = manager.getAllRecords();
-        double max = 1;
-        for (PaymentRecord r : all) {
-            if (r.getAmount() > max) max = r.getAmount();
-        }
-        return max;
-    }
-
     /**
      * 搜索记录：支持按备注、分类、标签、金额、时间等条件模糊搜索
      */
@@ -379,13 +358,10 @@ public class PaymentMenu {
             System.out.print("最大金额(回车跳过): ");
             String maxStr = scanner.nextLine();
             Double maxAmount = maxStr.isEmpty() ? null : Double.parseDouble(maxStr);
-            List<PaymentRecord> list = manager.getAllRecords();
+            // 时间、类型、分类、金额条件交给时间索引查询，这里只过滤备注和标签
+            List<PaymentRecord> list = manager.queryRecords(start, end, type, category, minAmount, maxAmount);
             List<PaymentRecord> result = new java.util.ArrayList<>();
             for (PaymentRecord r : list) {
-                if (start != null && r.getDateTime().isBefore(start)) continue;
-                if (end != null && r.getDateTime().isAfter(end)) continue;
-                if (type != null && !type.equals(r.getType())) continue;
-                if (category != null && !category.equals(r.getCategory())) continue;
                 if (noteKey != null && (r.getNote() == null || !r.getNote().contains(noteKey))) continue;
                 if (tags != null && !tags.isEmpty()) {
                     boolean found = false;
@@ -394,8 +370,6 @@ public class PaymentMenu {
                     }
                     if (!found) continue;
                 }
-                if (minAmount != null && r.getAmount() < minAmount) continue;
-                if (maxAmount != null && r.getAmount() > maxAmount) continue;
                 result.add(r);
             }
             if (result.isEmpty()) {
@@ -414,26 +388,23 @@ public class PaymentMenu {
      */
     private void smartAnalysis() {
         System.out.println("\n==== 智能分析与建议 ====");
-        List<PaymentRecord> all = manager.getAllRecords();
-        if (all.isEmpty()) {
+        PaymentAggregates agg = manager.getAggregates();
+        if (agg.getRecordCount() == 0) {
             System.out.println("暂无数据，无法分析。");
             return;
         }
         java.time.LocalDate now = java.time.LocalDate.now();
         java.time.YearMonth thisMonth = java.time.YearMonth.from(now);
         java.time.YearMonth lastMonth = thisMonth.minusMonths(1);
-        double thisTotal = 0, lastTotal = 0;
+        double thisTotal = expenseOf(agg.getMonth(thisMonth));
+        double lastTotal = expenseOf(agg.getMonth(lastMonth));
+        // 本月分类支出只需扫描本月的记录
         java.util.Map<String, Double> catMap = new java.util.HashMap<>();
-        for (PaymentRecord r : all) {
+        for (PaymentRecord r : manager.queryRecords(thisMonth.atDay(1).atStartOfDay(),
+                thisMonth.atEndOfMonth().atTime(java.time.LocalTime.MAX), null, null, null, null)) {
             if (!"收入".equals(r.getType())) {
-                java.time.YearMonth ym = java.time.YearMonth.from(r.getDateTime().toLocalDate());
-                if (ym.equals(thisMonth)) {
-                    thisTotal += r.getAmount();
-                    String cat = r.getCategory();
-                    catMap.put(cat, catMap.getOrDefault(cat, 0.0) + r.getAmount());
-                } else if (ym.equals(lastMonth)) {
-                    lastTotal += r.getAmount();
-                }
+                String cat = r.getCategory();
+                catMap.put(cat, catMap.getOrDefault(cat, 0.0) + r.getAmount());
             }
         }
         // 高频支出分类
@@ -465,4 +436,35 @@ public class PaymentMenu {
         }
         System.out.println("分析完毕。");
     }
-} 
\ No newline at end of file
+
+    /**
+     * 按最新的分类配置重新分类已有记录：先预览改动，确认后再应用
+     */
+    private void recategorize() {
+        manager.reloadCategoryRules();
+        RecategorizeReport preview = manager.recategorize(true);
+        System.out.println(preview);
+        if (preview.getChanged() == 0) return;
+        System.out.print("确认应用以上调整？(y/n): ");
+        if (scanner.nextLine().trim().equalsIgnoreCase("y")) {
+            System.out.println(manager.recategorize(false));
+        } else {
+            System.out.println("已取消。");
+        }
+    }
+
+    // 汇总桶中的收入合计
+    private static double incomeOf(java.util.Map<String, PaymentAggregates.Bucket> buckets) {
+        PaymentAggregates.Bucket b = buckets.get("收入");
+        return b == null ? 0 : b.getTotal();
+    }
+
+    // 汇总桶中的支出合计（与其它统计一致，非"收入"类型都算支出）
+    private static double expenseOf(java.util.Map<String, PaymentAggregates.Bucket> buckets) {
+        double total = 0;
+        for (java.util.Map.Entry<String, PaymentAggregates.Bucket> e : buckets.entrySet()) {
+            if (!"收入".equals(e.getKey())) total += e.getValue().getTotal();
+        }
+        return total;
+    }
+}
@@ -1,16 +1,25 @@
 package com.example.payment;
 
 import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
+/**
+ * 一条收支记录。记录创建后不可修改，管理器的时间索引和汇总都以记录当前的字段为准，
+ * 修改记录请通过 {@link PaymentRecordManager#updateRecord}，它会换上一个新对象。
+ */
 public class PaymentRecord {
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
     private final int id;
-    private double amount;
-    private String type; // "收入" 或 "支出"
-    private LocalDateTime dateTime;
-    private String category; // 分类，如工资、购物等
-    private String note;
-    private List<String> tags;
+    private final double amount;
+    private final String type; // "收入" 或 "支出"
+    private final LocalDateTime dateTime;
+    private final String category; // 分类，如工资、购物等
+    private final String note;
+    private final List<String> tags;
 
     public PaymentRecord(int id, double amount, String type, LocalDateTime dateTime, String category, String note, List<String> tags) {
         this.id = id;
@@ -19,7 +28,7 @@ public class PaymentRecord {
         this.dateTime = dateTime;
         this.category = category;
         this.note = note;
-        this.tags = tags == null ? new java.util.ArrayList<>() : tags;
+        this.tags = tags == null ? Collections.emptyList() : Collections.unmodifiableList(new ArrayList<>(tags));
     }
 
     public int getId() { return id; }
@@ -30,15 +39,15 @@ public class PaymentRecord {
     public String getNote() { return note; }
     public List<String> getTags() { return tags; }
 
-    public void setAmount(double amount) { this.amount = amount; }
-    public void setType(String type) { this.type = type; }
-    public void setDateTime(LocalDateTime dateTime) { this.dateTime = dateTime; }
-    public void setCategory(String category) { this.category = category; }
-    public void setNote(String note) { this.note = note; }
-    public void setTags(List<String> tags) { this.tags = tags; }
-
     @Override
     public String toString() {
         return String.format("[ID:%d] %s %.2f 元 | %s | %s | %s | 标签:%s", id, type, amount, dateTime.toString(), category, note, tags == null ? "" : String.join(",", tags));
     }
+
+    //返回此记录的文件存储格式字符串（制表符分隔，不含换行）
+    public String toFileFormat() {
+        return String.format("%d\t%.2f\t%s\t%s\t%s\t%s\t%s",
+                id, amount, type, dateTime.format(FORMATTER), category, note,
+                tags == null ? "" : String.join(",", tags));
+    }
 } 
\ No newline at end of file
@@ -1,128 +1,493 @@
 package com.example.payment;
 
+import com.example.util.ParallelFileLoader;
+
 import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.StampedLock;
 import java.util.stream.Collectors;
 
+/**
+ * 收支记录管理，可被多个线程同时使用（例如导入线程与交互菜单）。
+ * <p>
+ * 修改在写锁内更新内存中的记录、索引和汇总；按 id 查找、汇总查询使用乐观读，遍历类查询使用共享读锁，
+ * 读操作之间互不阻塞。记录对象发布后不再原地修改，更新时整条替换，读到的记录不会出现一半新一半旧。
+ * 普通模式下整文件重写在写锁之外进行，只在保存之间串行。
+ */
 public class PaymentRecordManager {
-    private final List<PaymentRecord> records = new ArrayList<>();
-    private int nextId = 1;
-    private static final String DATA_FILE = "data/payment_records.txt";
+    private final StampedLock lock = new StampedLock();
+    // 记录存储引擎，按 id 存取并保持添加顺序
+    private final PaymentStore records;
+    // 按时间排序的二级索引，与 records 同步维护
+    private final PaymentTimeIndex timeIndex = new PaymentTimeIndex();
+    // 按月份、分类的收支汇总，与 records 同步维护
+    private final PaymentAggregates aggregates = new PaymentAggregates(lock);
+    private final AtomicInteger nextId = new AtomicInteger(1);
+    // 普通模式下串行化数据文件的重写
+    private final Object saveMonitor = new Object();
+    static final String DATA_FILE = "data/payment_records.txt";
+    // 自动分类规则的配置文件名，放在数据文件所在目录
+    static final String CATEGORY_FILE = "category_keywords.txt";
     private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
 
+    private final String dataFile;
+    // 日志模式下非空：修改只追加到日志，由后台压缩回数据文件
+    private final PaymentJournal journal;
+    private volatile CategoryMatcher categoryMatcher;
+
     public PaymentRecordManager() {
+        this(DATA_FILE, false);
+    }
+
+    /**
+     * @param dataFile  数据文件路径
+     * @param journaled 为 true 时启用追加式日志持久化，每次修改的写入量与记录总数无关
+     */
+    public PaymentRecordManager(String dataFile, boolean journaled) {
+        this(dataFile, journaled, new ListPaymentStore());
+    }
+
+    /**
+     * @param dataFile  数据文件路径
+     * @param journaled 为 true 时启用追加式日志持久化
+     * @param store     记录存储引擎，例如大数据量时使用 {@link ColumnarPaymentStore}
+     */
+    public PaymentRecordManager(String dataFile, boolean journaled, PaymentStore store) {
+        this(dataFile, journaled, store, PaymentJournal.DEFAULT_COMPACT_THRESHOLD);
+    }
+
+    PaymentRecordManager(String dataFile, boolean journaled, long compactThreshold) {
+        this(dataFile, journaled, new ListPaymentStore(), compactThreshold);
+    }
+
+    PaymentRecordManager(String dataFile, boolean journaled, PaymentStore store, long compactThreshold) {
+        this.dataFile = dataFile;
+        this.records = store;
+        this.journal = journaled ? new PaymentJournal(dataFile, compactThreshold) : null;
+        this.categoryMatcher = loadCategoryMatcher();
+        if (journaled) createDataDirectory();
         loadRecords();
     }
 
+    //数据目录下有分类配置文件时使用它，否则使用内置规则
+    private CategoryMatcher loadCategoryMatcher() {
+        Path config = Paths.get(dataFile).toAbsolutePath().resolveSibling(CATEGORY_FILE);
+        if (Files.exists(config)) {
+            try {
+                return CategoryMatcher.load(config);
+            } catch (IOException | IllegalArgumentException e) {
+                System.err.println("读取分类配置错误，使用内置规则: " + e.getMessage());
+            }
+        }
+        return CategoryMatcher.defaults();
+    }
+
+    private void createDataDirectory() {
+        Path parent = Paths.get(dataFile).toAbsolutePath().getParent();
+        try {
+            if (parent != null) Files.createDirectories(parent);
+        } catch (IOException e) {
+            System.err.println(e.getMessage());
+        }
+    }
+
+    /**
+     * 添加一条记录，分类为空时按备注自动分类。
+     *
+     * @throws IllegalArgumentException 缺少类型/时间、金额非法或文本含制表符/换行，此时不会写入也不会占用 id
+     */
     public void addRecord(double amount, String type, LocalDateTime dateTime, String category, String note, List<String> tags) {
+        String error = validate(new PaymentRecord(0, amount, type, dateTime, category, note, tags));
+        if (error != null) throw new IllegalArgumentException("记录无效: " + error);
         if (category == null || category.trim().isEmpty()) {
             category = autoCategory(type, note);
         }
-        PaymentRecord record = new PaymentRecord(nextId++, amount, type, dateTime, category, note, tags);
-        records.add(record);
-        saveRecords();
+        PaymentRecord record = new PaymentRecord(nextId.getAndIncrement(), amount, type, dateTime, category, note, tags);
+        long stamp = lock.writeLock();
+        try {
+            records.put(record);
+            index(record);
+            if (journal != null) {
+                journal.appendUpsert(record);
+                afterJournalWrite();
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        if (journal == null) saveRecords();
+    }
+
+    /**
+     * 批量添加记录：先校验整批数据，再统一自动分类、分配 id，最后只持久化一次。
+     * 草稿记录的 id 会被忽略；任意一条校验失败时整批都不会写入。
+     *
+     * @param drafts 待添加的记录
+     * @return 实际添加的记录（含分配的 id），顺序与输入一致
+     * @throws IllegalArgumentException 某条记录缺少类型/时间、金额非法或文本含制表符/换行
+     */
+    public List<PaymentRecord> addRecords(List<PaymentRecord> drafts) {
+        for (int i = 0; i < drafts.size(); i++) {
+            String error = validate(drafts.get(i));
+            if (error != null) {
+                throw new IllegalArgumentException("第 " + (i + 1) + " 条记录无效: " + error);
+            }
+        }
+        if (drafts.isEmpty()) return new ArrayList<>();
+        // 一次分配整批 id，同一批记录的 id 连续
+        int id = nextId.getAndAdd(drafts.size());
+        List<PaymentRecord> added = new ArrayList<>(drafts.size());
+        for (PaymentRecord d : drafts) {
+            String category = d.getCategory();
+            if (category == null || category.trim().isEmpty()) {
+                category = autoCategory(d.getType(), d.getNote());
+            }
+            added.add(new PaymentRecord(id++, d.getAmount(), d.getType(), d.getDateTime(), category, d.getNote(), d.getTags()));
+        }
+        long stamp = lock.writeLock();
+        try {
+            for (PaymentRecord r : added) {
+                records.put(r);
+                timeIndex.append(r.getId(), r.getDateTime());
+                aggregates.add(r);
+            }
+            timeIndex.sort();
+            if (journal != null) {
+                for (PaymentRecord r : added) journal.appendUpsert(r);
+                afterJournalWrite();
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        if (journal == null) saveRecords();
+        return added;
+    }
+
+    //校验单条记录，合法时返回 null，否则返回原因
+    private String validate(PaymentRecord r) {
+        if (r == null) return "记录为空";
+        if (Double.isNaN(r.getAmount()) || Double.isInfinite(r.getAmount())) return "金额不是有效数字";
+        if (r.getType() == null || r.getType().trim().isEmpty()) return "类型不能为空";
+        if (r.getDateTime() == null) return "时间不能为空";
+        if (hasSeparator(r.getType()) || hasSeparator(r.getCategory()) || hasSeparator(r.getNote())) {
+            return "文本中不能包含制表符或换行";
+        }
+        if (r.getTags() != null) {
+            for (String tag : r.getTags()) {
+                if (hasSeparator(tag) || (tag != null && tag.indexOf(',') >= 0)) return "标签中不能包含逗号、制表符或换行";
+            }
+        }
+        return null;
+    }
+
+    private static boolean hasSeparator(String s) {
+        return s != null && (s.indexOf('\t') >= 0 || s.indexOf('\n') >= 0 || s.indexOf('\r') >= 0);
+    }
+
+    /**
+     * 重新读取数据目录下的分类配置，之后添加的记录和 {@link #recategorize} 使用新规则。
+     */
+    public void reloadCategoryRules() {
+        categoryMatcher = loadCategoryMatcher();
+    }
+
+    /**
+     * 用当前分类规则批量重新分类已有记录。
+     * <p>
+     * 先在读锁内取出所有记录，并行计算新分类；再在一次写锁内应用改动并同步更新汇总，最后只持久化一次。
+     * 备注未命中任何规则的记录保留原分类，不会被改回类型名，以免覆盖手工填写的分类。
+     *
+     * @param dryRun 为 true 时只统计将要发生的改动，不修改记录
+     * @return 扫描条数、改动条数及各分类之间的迁移笔数
+     */
+    public RecategorizeReport recategorize(boolean dryRun) {
+        CategoryMatcher matcher = categoryMatcher;
+        List<PaymentRecord> current = getAllRecords();
+        List<PaymentRecord> candidates = current.parallelStream()
+                .filter(r -> needsRecategorize(matcher, r))
+                .collect(Collectors.toList());
+
+        RecategorizeReport report = new RecategorizeReport(dryRun, current.size());
+        if (dryRun) {
+            for (PaymentRecord r : candidates) report.record(r.getCategory(), matcher.match(r.getNote()));
+            return report;
+        }
+        if (candidates.isEmpty()) return report;
+        long stamp = lock.writeLock();
+        try {
+            for (PaymentRecord candidate : candidates) {
+                // 计算期间记录可能已被修改或删除，以最新的记录为准
+                PaymentRecord old = records.get(candidate.getId());
+                if (old == null || !needsRecategorize(matcher, old)) continue;
+                String category = matcher.match(old.getNote());
+                PaymentRecord r = new PaymentRecord(old.getId(), old.getAmount(), old.getType(), old.getDateTime(),
+                        category, old.getNote(), old.getTags() == null ? null : new ArrayList<>(old.getTags()));
+                aggregates.remove(old);
+                records.put(r);
+                aggregates.add(r);
+                report.record(old.getCategory(), category);
+                if (journal != null) journal.appendUpsert(r);
+            }
+            if (journal != null && report.getChanged() > 0) afterJournalWrite();
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        if (journal == null && report.getChanged() > 0) saveRecords();
+        return report;
+    }
+
+    private static boolean needsRecategorize(CategoryMatcher matcher, PaymentRecord r) {
+        if (r.getNote() == null) return false;
+        String category = matcher.match(r.getNote());
+        return category != null && !category.equals(r.getCategory());
     }
 
     /**
-     * 根据备注和类型自动分配分类
+     * 根据备注和类型自动分配分类，备注未命中任何关键词时返回类型
      */
     private String autoCategory(String type, String note) {
         if (note == null) return type;
-        String n = note.trim();
-        // 简单关键词映射，可根据需要扩展
-        String[][] keywords = {
-            {"工资", "薪水", "奖金", "收入", "发薪"},
-            {"餐饮", "吃饭", "外卖", "饭店", "早餐", "午餐", "晚餐", "饮料"},
-            {"交通", "公交", "地铁", "打车", "出租", "高铁", "火车", "加油"},
-            {"购物", "买", "购物", "超市", "网购", "淘宝", "京东"},
-            {"房租", "租金", "房贷"},
-            {"娱乐", "电影", "游戏", "KTV", "娱乐"},
-            {"医疗", "医院", "药", "体检", "医疗"},
-            {"学习", "学费", "培训", "书", "学习"},
-            {"转账", "转账", "还款", "借款"},
-            {"投资", "理财", "基金", "股票", "投资"}
-        };
-        String[] cats = {"工资", "餐饮", "交通", "购物", "房租", "娱乐", "医疗", "学习", "转账", "投资"};
-        for (int i = 0; i < keywords.length; i++) {
-            for (String k : keywords[i]) {
-                if (n.contains(k)) return cats[i];
-            }
-        }
-        return type; // 默认返回类型
+        String category = categoryMatcher.match(note);
+        return category != null ? category : type;
     }
 
     public List<PaymentRecord> getAllRecords() {
-        return new ArrayList<>(records);
+        return StampedReads.locked(lock, records::values);
+    }
+
+    /**
+     * 增量维护的收支汇总，只读使用，读取时总能看到最新的汇总。
+     */
+    public PaymentAggregates getAggregates() {
+        return aggregates;
+    }
+
+    /**
+     * 用全量重算校验汇总是否与当前记录一致。
+     */
+    public boolean verifyAggregates() {
+        return StampedReads.locked(lock, () -> aggregates.isConsistentWith(records));
+    }
+
+    //把记录加入时间索引和汇总
+    private void index(PaymentRecord r) {
+        timeIndex.add(r.getId(), r.getDateTime());
+        aggregates.add(r);
+    }
+
+    /**
+     * 按 id 直接查找记录，不存在时返回 null。
+     * 记录不可修改，请通过 {@link #updateRecord} 修改。
+     */
+    public PaymentRecord getById(int id) {
+        return StampedReads.optimistic(lock, () -> records.get(id));
     }
 
+    /**
+     * 条件查询，参数为 null 表示不限。指定了时间段时通过时间索引只扫描该时间段，结果按时间升序；
+     * 否则按添加顺序返回。
+     */
     public List<PaymentRecord> queryRecords(LocalDateTime start, LocalDateTime end, String type, String category, Double minAmount, Double maxAmount) {
-        return records.stream().filter(r ->
-            (start == null || !r.getDateTime().isBefore(start)) &&
-            (end == null || !r.getDateTime().isAfter(end)) &&
-            (type == null || r.getType().equals(type)) &&
-            (category == null || r.getCategory().equals(category)) &&
-            (minAmount == null || r.getAmount() >= minAmount) &&
-            (maxAmount == null || r.getAmount() <= maxAmount)
-        ).collect(Collectors.toList());
+        return StampedReads.locked(lock, () -> query(start, end, type, category, minAmount, maxAmount));
+    }
+
+    private List<PaymentRecord> query(LocalDateTime start, LocalDateTime end, String type, String category, Double minAmount, Double maxAmount) {
+        Iterable<PaymentRecord> candidates = records;
+        if (start != null || end != null) {
+            int[] ids = timeIndex.range(start, end);
+            List<PaymentRecord> slice = new ArrayList<>(ids.length);
+            for (int id : ids) slice.add(records.get(id));
+            candidates = slice;
+        }
+        List<PaymentRecord> result = new ArrayList<>();
+        for (PaymentRecord r : candidates) {
+            if ((type == null || r.getType().equals(type)) &&
+                (category == null || r.getCategory().equals(category)) &&
+                (minAmount == null || r.getAmount() >= minAmount) &&
+                (maxAmount == null || r.getAmount() <= maxAmount)) {
+                result.add(r);
+            }
+        }
+        return result;
     }
 
     public boolean deleteRecord(int id) {
-        boolean removed = records.removeIf(r -> r.getId() == id);
-        if (removed) saveRecords();
-        return removed;
+        long stamp = lock.writeLock();
+        try {
+            PaymentRecord r = records.remove(id);
+            if (r == null) return false;
+            timeIndex.remove(id, r.getDateTime());
+            aggregates.remove(r);
+            if (journal != null) {
+                journal.appendDelete(id);
+                afterJournalWrite();
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        if (journal == null) saveRecords();
+        return true;
     }
 
+    /**
+     * 修改记录，参数为 null 的字段保持不变。修改后的记录是一个新对象，之前取得的记录对象不受影响。
+     */
     public boolean updateRecord(int id, Double amount, String type, LocalDateTime dateTime, String category, String note, List<String> tags) {
-        for (PaymentRecord r : records) {
-            if (r.getId() == id) {
-                if (amount != null) r.setAmount(amount);
-                if (type != null) r.setType(type);
-                if (dateTime != null) r.setDateTime(dateTime);
-                if (category != null) r.setCategory(category);
-                if (note != null) r.setNote(note);
-                if (tags != null) r.setTags(tags);
-                saveRecords();
-                return true;
+        long stamp = lock.writeLock();
+        try {
+            PaymentRecord old = records.get(id);
+            if (old == null) return false;
+            List<String> newTags = tags != null ? tags : old.getTags();
+            PaymentRecord r = new PaymentRecord(id,
+                    amount != null ? amount : old.getAmount(),
+                    type != null ? type : old.getType(),
+                    dateTime != null ? dateTime : old.getDateTime(),
+                    category != null ? category : old.getCategory(),
+                    note != null ? note : old.getNote(),
+                    newTags == null ? null : new ArrayList<>(newTags));
+            aggregates.remove(old);
+            records.put(r);
+            aggregates.add(r);
+            if (!r.getDateTime().equals(old.getDateTime())) {
+                timeIndex.remove(id, old.getDateTime());
+                timeIndex.add(id, r.getDateTime());
+            }
+            if (journal != null) {
+                journal.appendUpsert(r);
+                afterJournalWrite();
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        if (journal == null) saveRecords();
+        return true;
+    }
+
+    /**
+     * 立即把全量快照写回数据文件。日志模式下会清空日志，普通模式下等同于一次保存。
+     */
+    public void compact() {
+        if (journal == null) {
+            saveRecords();
+            return;
+        }
+        // 等进行中的压缩结束后，在写锁内轮转日志并取快照，快照在后台线程写出
+        while (true) {
+            journal.awaitCompaction();
+            long stamp = lock.writeLock();
+            try {
+                if (!journal.isCompacting()) {
+                    journal.compactAsync(snapshotRecords());
+                    break;
+                }
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+        journal.awaitCompaction();
+    }
+
+    /**
+     * 等待后台压缩结束并关闭日志文件；普通模式下无操作。
+     */
+    public void close() {
+        if (journal != null) {
+            long stamp = lock.writeLock();
+            try {
+                journal.flush();
+                journal.close();
+            } finally {
+                lock.unlockWrite(stamp);
             }
         }
-        return false;
+    }
+
+    //日志写入后刷盘，超过阈值时启动后台压缩；调用方持有写锁
+    private void afterJournalWrite() {
+        journal.flush();
+        if (journal.needsCompaction()) {
+            journal.compactAsync(snapshotRecords());
+        }
+    }
+
+    //复制当前记录，供后台线程写快照时使用
+    private List<PaymentRecord> snapshotRecords() {
+        return records.snapshot();
     }
 
     private void loadRecords() {
         records.clear();
-        File file = new File(DATA_FILE);
-        if (!file.exists()) return;
-        try (BufferedReader br = new BufferedReader(new FileReader(file))) {
-            String line;
-            while ((line = br.readLine()) != null) {
-                String[] parts = line.split("\t");
-                if (parts.length < 6) continue;
-                int id = Integer.parseInt(parts[0]);
-                double amount = Double.parseDouble(parts[1]);
-                String type = parts[2];
-                LocalDateTime dateTime = LocalDateTime.parse(parts[3], FORMATTER);
-                String category = parts[4];
-                String note = parts[5];
-                List<String> tags = parts.length > 6 ? Arrays.asList(parts[6].split(",")) : new java.util.ArrayList<>();
-                records.add(new PaymentRecord(id, amount, type, dateTime, category, note, tags));
-                if (id >= nextId) nextId = id + 1;
+        timeIndex.clear();
+        aggregates.clear();
+        int[] maxId = {0};
+        Path file = Paths.get(dataFile);
+        if (Files.exists(file)) {
+            try {
+                // 大文件按区间并行解析，每个区间解析完就按文件顺序写入存储，不保留整个文件的记录对象
+                ParallelFileLoader.forEachChunk(file, PaymentFileLoader::loadRange, chunk -> {
+                    for (PaymentRecord record : chunk) {
+                        records.put(record);
+                        maxId[0] = Math.max(maxId[0], record.getId());
+                    }
+                });
+            } catch (IOException e) {
+                System.err.println(e.getMessage());
             }
-        } catch (IOException e) {
-            System.err.println(e.getMessage());
         }
+        if (journal != null) {
+            journal.replay(new PaymentJournal.Listener() {
+                @Override
+                public void onUpsert(PaymentRecord record) {
+                    records.put(record);
+                    maxId[0] = Math.max(maxId[0], record.getId());
+                }
+
+                @Override
+                public void onDelete(int id) {
+                    records.remove(id);
+                }
+            });
+        }
+        for (PaymentRecord record : records) {
+            timeIndex.append(record.getId(), record.getDateTime());
+            aggregates.add(record);
+        }
+        timeIndex.sort();
+        nextId.set(maxId[0] + 1);
     }
 
+    //解析一行数据文件格式，字段不足时返回 null
+    static PaymentRecord parseLine(String line) {
+        String[] parts = line.split("\t");
+        if (parts.length < 6) return null;
+        int id = Integer.parseInt(parts[0]);
+        double amount = Double.parseDouble(parts[1]);
+        String type = parts[2];
+        LocalDateTime dateTime = LocalDateTime.parse(parts[3], FORMATTER);
+        String category = parts[4];
+        String note = parts[5];
+        List<String> tags = parts.length > 6 ? Arrays.asList(parts[6].split(",")) : new java.util.ArrayList<>();
+        return new PaymentRecord(id, amount, type, dateTime, category, note, tags);
+    }
+
+    //在读锁内取当前记录，释放锁后再写文件；多次保存依次进行，最后一次保存的总是最新状态
     private void saveRecords() {
-        try (BufferedWriter bw = new BufferedWriter(new FileWriter(DATA_FILE))) {
-            for (PaymentRecord r : records) {
-                bw.write(String.format("%d\t%.2f\t%s\t%s\t%s\t%s\t%s\n",
-                        r.getId(), r.getAmount(), r.getType(), r.getDateTime().format(FORMATTER), r.getCategory(), r.getNote(),
-                        r.getTags() == null ? "" : String.join(",", r.getTags())));
+        synchronized (saveMonitor) {
+            List<PaymentRecord> current = StampedReads.locked(lock, records::values);
+            try (BufferedWriter bw = Files.newBufferedWriter(Paths.get(dataFile), StandardCharsets.UTF_8)) {
+                for (PaymentRecord r : current) {
+                    bw.write(r.toFileFormat());
+                    bw.write('\n');
+                }
+            } catch (IOException e) {
+                System.err.println(e.getMessage());
             }
-        } catch (IOException e) {
-            System.err.println(e.getMessage());
         }
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,31 @@
+package com.example.payment;
+
+import java.util.List;
+
+/**
+ * {@link PaymentRecordManager} 背后的记录存储引擎，按 id 存取并保持添加顺序。
+ * <p>
+ * 记录不可修改，替换记录需 {@link #put} 一个新对象。{@link ListPaymentStore} 返回存储中的原对象，
+ * {@link ColumnarPaymentStore} 每次返回按需构造的视图。
+ */
+public interface PaymentStore extends Iterable<PaymentRecord> {
+
+    int size();
+
+    //按 id 查找，不存在时返回 null
+    PaymentRecord get(int id);
+
+    //id 已存在时原位替换（不改变顺序），否则追加到末尾
+    void put(PaymentRecord record);
+
+    //删除并返回被删除的记录，不存在时返回 null
+    PaymentRecord remove(int id);
+
+    void clear();
+
+    //按添加顺序返回所有记录的新列表
+    List<PaymentRecord> values();
+
+    //返回与存储互不影响的副本，供后台线程写快照
+    List<PaymentRecord> snapshot();
+}
@@ -0,0 +1,165 @@
+package com.example.payment;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+
+/**
+ * 按记录时间排序的二级索引，时间段查询只需 O(log n + k)。
+ * <p>
+ * 索引只保存记录 id，以记录当前的 {@code dateTime} 为键，因此修改记录时间时需要用旧时间 {@link #remove}，
+ * 再用新时间 {@link #add}。键存为 UTC 纪元秒 + 纳秒，与 id 一起放在三个按时间排好的原始类型数组里，
+ * 每条记录只占 16 字节，不为每条记录创建时间对象或映射节点。时间不早于已有记录的 {@link #add} 直接追加，
+ * 补录和删除需要移动其后的元素。批量加入时先 {@link #append}，最后 {@link #sort} 一次。
+ */
+class PaymentTimeIndex {
+    private static final int[] NO_IDS = new int[0];
+
+    private long[] seconds = new long[16];
+    private int[] nanos = new int[16];
+    private int[] ids = new int[16];
+    private int size;
+    // [0, sorted) 已按时间排好，同一时刻按加入顺序；其后是 append 加入、尚未排序的部分
+    private int sorted;
+
+    void add(int id, LocalDateTime dateTime) {
+        sort();
+        long second = dateTime.toEpochSecond(ZoneOffset.UTC);
+        int nano = dateTime.getNano();
+        int at = upperBound(second, nano);
+        ensureCapacity(size + 1);
+        System.arraycopy(seconds, at, seconds, at + 1, size - at);
+        System.arraycopy(nanos, at, nanos, at + 1, size - at);
+        System.arraycopy(ids, at, ids, at + 1, size - at);
+        set(at, second, nano, id);
+        size++;
+        sorted = size;
+    }
+
+    //加入但暂不排序，批量加入后需调用 sort，之前不能查询
+    void append(int id, LocalDateTime dateTime) {
+        ensureCapacity(size + 1);
+        set(size++, dateTime.toEpochSecond(ZoneOffset.UTC), dateTime.getNano(), id);
+    }
+
+    /**
+     * 把 append 加入的部分排好并与已排序部分归并，O(n + k log k)。同一时刻先加入的排在前面。
+     */
+    void sort() {
+        if (sorted == size) return;
+        // 按时间顺序追加的记录不需要排序
+        while (sorted < size && (sorted == 0 || compare(sorted - 1, sorted) <= 0)) sorted++;
+        if (sorted == size) return;
+
+        int[] order = new int[size - sorted];
+        for (int i = 0; i < order.length; i++) order[i] = sorted + i;
+        mergeSort(order, new int[order.length], 0, order.length);
+
+        long[] newSeconds = new long[seconds.length];
+        int[] newNanos = new int[nanos.length];
+        int[] newIds = new int[ids.length];
+        int i = 0, j = 0, n = 0;
+        while (i < sorted || j < order.length) {
+            int from = j == order.length || (i < sorted && compare(i, order[j]) <= 0) ? i++ : order[j++];
+            newSeconds[n] = seconds[from];
+            newNanos[n] = nanos[from];
+            newIds[n++] = ids[from];
+        }
+        seconds = newSeconds;
+        nanos = newNanos;
+        ids = newIds;
+        sorted = size;
+    }
+
+    void remove(int id, LocalDateTime dateTime) {
+        sort();
+        long second = dateTime.toEpochSecond(ZoneOffset.UTC);
+        int nano = dateTime.getNano();
+        for (int i = lowerBound(second, nano); i < size && seconds[i] == second && nanos[i] == nano; i++) {
+            if (ids[i] == id) {
+                System.arraycopy(seconds, i + 1, seconds, i, size - i - 1);
+                System.arraycopy(nanos, i + 1, nanos, i, size - i - 1);
+                System.arraycopy(ids, i + 1, ids, i, size - i - 1);
+                size--;
+                sorted = size;
+                return;
+            }
+        }
+    }
+
+    void clear() {
+        size = 0;
+        sorted = 0;
+    }
+
+    /**
+     * 返回时间在 [start, end] 内的记录 id，按时间升序，同一时刻按加入顺序。
+     * start 或 end 为 null 表示该端不设限。
+     */
+    int[] range(LocalDateTime start, LocalDateTime end) {
+        if (sorted != size) throw new IllegalStateException("批量加入后尚未排序");
+        if (start != null && end != null && start.isAfter(end)) return NO_IDS;
+        int from = start == null ? 0 : lowerBound(start.toEpochSecond(ZoneOffset.UTC), start.getNano());
+        int to = end == null ? size : upperBound(end.toEpochSecond(ZoneOffset.UTC), end.getNano());
+        return from >= to ? NO_IDS : Arrays.copyOfRange(ids, from, to);
+    }
+
+    //第一个时间不早于给定时间的位置
+    private int lowerBound(long second, int nano) {
+        int lo = 0, hi = size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (compare(mid, second, nano) < 0) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    //第一个时间晚于给定时间的位置
+    private int upperBound(long second, int nano) {
+        int lo = 0, hi = size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (compare(mid, second, nano) <= 0) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    private int compare(int i, long second, int nano) {
+        int c = Long.compare(seconds[i], second);
+        return c != 0 ? c : Integer.compare(nanos[i], nano);
+    }
+
+    private int compare(int i, int j) {
+        return compare(i, seconds[j], nanos[j]);
+    }
+
+    //按时间稳定排序 order[from, to) 中的位置
+    private void mergeSort(int[] order, int[] buffer, int from, int to) {
+        if (to - from < 2) return;
+        int mid = (from + to) >>> 1;
+        mergeSort(order, buffer, from, mid);
+        mergeSort(order, buffer, mid, to);
+        if (compare(order[mid - 1], order[mid]) <= 0) return;
+        System.arraycopy(order, from, buffer, from, to - from);
+        int i = from, j = mid, n = from;
+        while (i < mid || j < to) {
+            order[n++] = j == to || (i < mid && compare(buffer[i], buffer[j]) <= 0) ? buffer[i++] : buffer[j++];
+        }
+    }
+
+    private void set(int i, long second, int nano, int id) {
+        seconds[i] = second;
+        nanos[i] = nano;
+        ids[i] = id;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= ids.length) return;
+        int grown = Math.max(capacity, ids.length + (ids.length >> 1));
+        seconds = Arrays.copyOf(seconds, grown);
+        nanos = Arrays.copyOf(nanos, grown);
+        ids = Arrays.copyOf(ids, grown);
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.payment;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 一次批量重新分类的结果：扫描了多少条、改动了多少条，以及各分类之间的迁移笔数。
+ */
+public class RecategorizeReport {
+    private final boolean dryRun;
+    private final int scanned;
+    private int changed;
+    // 原分类 → 新分类 → 笔数，按首次出现顺序
+    private final Map<String, Map<String, Integer>> moves = new LinkedHashMap<>();
+
+    RecategorizeReport(boolean dryRun, int scanned) {
+        this.dryRun = dryRun;
+        this.scanned = scanned;
+    }
+
+    void record(String from, String to) {
+        moves.computeIfAbsent(from, k -> new LinkedHashMap<>()).merge(to, 1, Integer::sum);
+        changed++;
+    }
+
+    //为 true 时只统计，没有修改任何记录
+    public boolean isDryRun() {
+        return dryRun;
+    }
+
+    public int getScanned() {
+        return scanned;
+    }
+
+    public int getChanged() {
+        return changed;
+    }
+
+    //原分类 → 新分类 → 笔数
+    public Map<String, Map<String, Integer>> getMoves() {
+        return Collections.unmodifiableMap(moves);
+    }
+
+    //从 from 移到 to 的笔数
+    public int getMoved(String from, String to) {
+        Map<String, Integer> targets = moves.get(from);
+        return targets == null ? 0 : targets.getOrDefault(to, 0);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(dryRun ? "[预览] " : "").append("共扫描 ").append(scanned).append(" 条，")
+                .append(dryRun ? "将调整 " : "已调整 ").append(changed).append(" 条");
+        moves.forEach((from, targets) -> targets.forEach((to, count) ->
+                sb.append("\n  ").append(from).append(" -> ").append(to).append(": ").append(count).append(" 条")));
+        return sb.toString();
+    }
+}
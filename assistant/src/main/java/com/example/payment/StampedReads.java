@@ -0,0 +1,38 @@
+package com.example.payment;
+
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Supplier;
+
+/**
+ * {@link StampedLock} 的读操作封装。
+ * <p>
+ * 乐观读不加锁：读完后校验期间没有写操作才采用结果，否则（或读到不一致的状态抛出异常时）改用共享读锁重读。
+ * 乐观读只适合按键查找这类短小、必然结束的读取；需要遍历的读取直接用 {@link #locked}。
+ */
+final class StampedReads {
+
+    private StampedReads() {
+    }
+
+    static <T> T optimistic(StampedLock lock, Supplier<T> reader) {
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            try {
+                T result = reader.get();
+                if (lock.validate(stamp)) return result;
+            } catch (RuntimeException e) {
+                // 与写操作交错，读到了中间状态
+            }
+        }
+        return locked(lock, reader);
+    }
+
+    static <T> T locked(StampedLock lock, Supplier<T> reader) {
+        long stamp = lock.readLock();
+        try {
+            return reader.get();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package com.example.util;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
+
+/**
+ * 把按行存储的数据文件切成以换行对齐的字节区间，在 fork-join 线程池上并行解析。
+ * <p>
+ * 每个区间的解析结果单独存放，返回时按区间在文件中的先后排列，因此合并后的顺序与逐行读取一致。
+ * 文件较小或并行度为 1 时不切分，直接在调用线程上解析。{@link #forEachChunk} 则把各区间的结果依次交出，
+ * 不同时保留整个文件的解析结果。
+ * 并行度默认为 CPU 核数，可用系统属性 {@value #PARALLELISM_PROPERTY} 指定。
+ */
+public final class ParallelFileLoader {
+    public static final String PARALLELISM_PROPERTY = "assistant.load.parallelism";
+
+    // 小于该大小的文件不切分
+    static final long PARALLEL_THRESHOLD = 4L << 20;
+    // 单个区间的上限，保证每个区间都能整体映射
+    static final long MAX_CHUNK = 1L << 30;
+    // forEachChunk 的区间大小上限
+    static final long STREAM_CHUNK = 1L << 20;
+
+    /**
+     * 解析文件中 [start, end) 字节区间的所有行。区间总是从行首开始、在换行符之后或文件末尾结束。
+     */
+    @FunctionalInterface
+    public interface ChunkParser<T> {
+        List<T> parse(FileChannel channel, long start, long end) throws IOException;
+    }
+
+    private ParallelFileLoader() {
+    }
+
+    /**
+     * 按当前配置的并行度加载文件，返回各区间的解析结果，按文件顺序排列。
+     */
+    public static <T> List<List<T>> load(Path file, ChunkParser<T> parser) throws IOException {
+        return load(file, parser, parallelism());
+    }
+
+    public static <T> List<List<T>> load(Path file, ChunkParser<T> parser, int parallelism) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long[] bounds = split(channel, size, chunkCount(size, parallelism));
+            int chunks = bounds.length - 1;
+            if (chunks == 1) {
+                return Collections.singletonList(parser.parse(channel, 0, size));
+            }
+            List<T>[] parts = newParts(chunks);
+            ParseTask<T> task = new ParseTask<>(channel, parser, bounds, parts, 0, chunks);
+            try {
+                if (parallelism == ForkJoinPool.commonPool().getParallelism()) {
+                    ForkJoinPool.commonPool().invoke(task);
+                } else {
+                    ForkJoinPool pool = new ForkJoinPool(parallelism);
+                    try {
+                        pool.invoke(task);
+                    } finally {
+                        pool.shutdown();
+                    }
+                }
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            return Arrays.asList(parts);
+        }
+    }
+
+    /**
+     * 按当前配置的并行度解析文件，在调用线程上按文件顺序把每个区间的结果交给 consumer。
+     * 区间不超过 {@value #STREAM_CHUNK} 字节，已解析、尚未交出的区间最多为并行度的两倍，
+     * 因此同时存在的解析结果只与并行度有关，与文件大小无关。
+     */
+    public static <T> void forEachChunk(Path file, ChunkParser<T> parser, Consumer<List<T>> consumer) throws IOException {
+        forEachChunk(file, parser, consumer, parallelism());
+    }
+
+    public static <T> void forEachChunk(Path file, ChunkParser<T> parser, Consumer<List<T>> consumer,
+                                        int parallelism) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long streamChunks = (size + STREAM_CHUNK - 1) / STREAM_CHUNK;
+            long[] bounds = split(channel, size, (int) Math.max(chunkCount(size, parallelism), streamChunks));
+            int chunks = bounds.length - 1;
+            if (chunks == 1 || parallelism <= 1) {
+                for (int i = 0; i < chunks; i++) consumer.accept(parser.parse(channel, bounds[i], bounds[i + 1]));
+                return;
+            }
+            boolean common = parallelism == ForkJoinPool.commonPool().getParallelism();
+            ForkJoinPool pool = common ? ForkJoinPool.commonPool() : new ForkJoinPool(parallelism);
+            Deque<ForkJoinTask<List<T>>> pending = new ArrayDeque<>();
+            try {
+                int next = 0;
+                while (next < chunks || !pending.isEmpty()) {
+                    for (; next < chunks && pending.size() < 2 * parallelism; next++) {
+                        long start = bounds[next];
+                        long end = bounds[next + 1];
+                        pending.add(pool.submit(() -> parse(parser, channel, start, end)));
+                    }
+                    consumer.accept(pending.poll().join());
+                }
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            } finally {
+                for (ForkJoinTask<List<T>> task : pending) task.cancel(false);
+                if (!common) pool.shutdown();
+            }
+        }
+    }
+
+    private static <T> List<T> parse(ChunkParser<T> parser, FileChannel channel, long start, long end) {
+        try {
+            return parser.parse(channel, start, end);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    //配置的并行度，未配置或不合法时为 CPU 核数
+    public static int parallelism() {
+        String value = System.getProperty(PARALLELISM_PROPERTY);
+        if (value != null) {
+            try {
+                int n = Integer.parseInt(value.trim());
+                if (n > 0) return n;
+            } catch (NumberFormatException e) {
+                // 使用默认值
+            }
+        }
+        return Runtime.getRuntime().availableProcessors();
+    }
+
+    static int chunkCount(long size, int parallelism) {
+        if (size < PARALLEL_THRESHOLD || parallelism <= 1) {
+            return (int) Math.max(1, (size + MAX_CHUNK - 1) / MAX_CHUNK);
+        }
+        // 区间数多于线程数，便于工作窃取平衡各线程的负载
+        long chunks = Math.max((long) parallelism * 4, (size + MAX_CHUNK - 1) / MAX_CHUNK);
+        return (int) Math.min(chunks, size / (PARALLEL_THRESHOLD / 16));
+    }
+
+    /**
+     * 把 [0, size) 大致均分为 chunks 段，每个分界点后移到下一个换行符之后。
+     * 返回分界点数组，首元素为 0、末元素为 size；行过长导致的空区间会被去掉。
+     */
+    static long[] split(FileChannel channel, long size, int chunks) throws IOException {
+        long[] bounds = new long[chunks + 1];
+        int n = 1;
+        ByteBuffer buffer = ByteBuffer.allocate(8192);
+        for (int i = 1; i < chunks; i++) {
+            long target = Math.max(size / chunks * i, bounds[n - 1]);
+            long bound = nextLineStart(channel, buffer, target, size);
+            if (bound > bounds[n - 1] && bound < size) bounds[n++] = bound;
+        }
+        bounds[n++] = size;
+        return Arrays.copyOf(bounds, n);
+    }
+
+    //从 position 起找到第一个换行符，返回它的下一个位置；没有换行符时返回 size
+    private static long nextLineStart(FileChannel channel, ByteBuffer buffer, long position, long size) throws IOException {
+        long pos = position;
+        while (pos < size) {
+            buffer.clear();
+            int read = channel.read(buffer, pos);
+            if (read <= 0) break;
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == '\n') return pos + i + 1;
+            }
+            pos += read;
+        }
+        return size;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static <T> List<T>[] newParts(int n) {
+        return (List<T>[]) new List[n];
+    }
+
+    //对区间下标二分，叶子节点解析一个区间，结果写入对应下标
+    private static final class ParseTask<T> extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final FileChannel channel;
+        private final ChunkParser<T> parser;
+        private final long[] bounds;
+        private final List<T>[] parts;
+        private final int from;
+        private final int to;
+
+        ParseTask(FileChannel channel, ChunkParser<T> parser, long[] bounds, List<T>[] parts, int from, int to) {
+            this.channel = channel;
+            this.parser = parser;
+            this.bounds = bounds;
+            this.parts = parts;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                parts[from] = parse(parser, channel, bounds[from], bounds[from + 1]);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new ParseTask<>(channel, parser, bounds, parts, from, mid),
+                    new ParseTask<>(channel, parser, bounds, parts, mid, to));
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.health;
+
+import com.example.health.HealthStatistics.Metric;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HealthAnomalyDetectorTest {
+    private static final LocalDate START = LocalDate.of(2024, 1, 1);
+
+    private static HealthRecord record(int day, Double weight, Integer heartRate, Integer bpHigh) {
+        return new HealthRecord(START.plusDays(day), weight, 175.0, heartRate, bpHigh, null, null, null, "");
+    }
+
+    // 测试基线不足时不提醒，之后明显偏离的心率被标记
+    @Test
+    void testFlagsDeviationFromBaseline() {
+        HealthAnomalyDetector detector = new HealthAnomalyDetector();
+        Random random = new Random(1);
+        for (int day = 0; day < 30; day++) {
+            List<HealthAlert> alerts = detector.observe(record(day, 70 + random.nextGaussian() * 0.3, 70 + random.nextInt(5), 120));
+            assertTrue(alerts.isEmpty(), "第 " + day + " 天不应提醒: " + alerts);
+        }
+
+        List<HealthAlert> alerts = detector.observe(record(30, 70.1, 110, 121));
+        assertEquals(1, alerts.size());
+        HealthAlert alert = alerts.get(0);
+        assertEquals(Metric.HEART_RATE, alert.getMetric());
+        assertEquals(HealthAlert.Kind.ABOVE_BASELINE, alert.getKind());
+        assertEquals(110.0, alert.getValue());
+        assertEquals(START.plusDays(30), alert.getDate());
+        assertTrue(alert.getRobustZScore() >= HealthAnomalyDetector.ROBUST_Z_THRESHOLD);
+
+        alerts = detector.observe(record(31, 64.0, 72, 120));
+        assertEquals(1, alerts.size());
+        assertEquals(Metric.WEIGHT, alerts.get(0).getMetric());
+        assertEquals(HealthAlert.Kind.BELOW_BASELINE, alerts.get(0).getKind());
+    }
+
+    // 测试历史值完全相同时微小变化不被标记，早期数据不足时不提醒
+    @Test
+    void testMinimumSpreadAndWarmUp() {
+        HealthAnomalyDetector detector = new HealthAnomalyDetector();
+        for (int day = 0; day < HealthAnomalyDetector.MIN_BASELINE; day++) {
+            assertTrue(detector.observe(record(day, 70.0, 60 + day * 30, 120)).isEmpty());
+        }
+        assertTrue(detector.observe(record(7, 70.3, null, 122)).isEmpty());
+        assertFalse(detector.observe(record(8, 75.0, null, 120)).isEmpty());
+    }
+
+    // 测试 BMI 异常作为提醒返回
+    @Test
+    void testBmiAlert() {
+        HealthAnomalyDetector detector = new HealthAnomalyDetector();
+        List<HealthAlert> alerts = detector.observe(new HealthRecord(START, 250.0, 150.0, null, null, null, null, null, ""));
+        assertEquals(1, alerts.size());
+        assertEquals(HealthAlert.Kind.BMI_OUT_OF_RANGE, alerts.get(0).getKind());
+        assertEquals(250 / 2.25, alerts.get(0).getValue(), 1e-9);
+    }
+
+    // 测试重放与逐条检查结果一致，窗口滚动后旧的极端值不再影响中位数
+    @Test
+    void testReplayMatchesStreaming() {
+        List<HealthRecord> history = new ArrayList<>();
+        HealthAnomalyDetector streaming = new HealthAnomalyDetector();
+        List<HealthAlert> streamed = new ArrayList<>();
+        Random random = new Random(9);
+        for (int day = 0; day < 200; day++) {
+            int heartRate = day % 50 == 49 ? 150 : 65 + random.nextInt(6);
+            HealthRecord r = record(day, null, heartRate, null);
+            history.add(r);
+            streamed.addAll(streaming.observe(r));
+        }
+        List<HealthAlert> replayed = new HealthAnomalyDetector().replay(history);
+        assertEquals(streamed.size(), replayed.size());
+        assertEquals(4, replayed.size(), replayed.toString());
+        for (HealthAlert alert : replayed) assertEquals(150.0, alert.getValue());
+    }
+}
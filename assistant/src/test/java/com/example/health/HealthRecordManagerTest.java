@@ -1,5 +1,6 @@
 package com.example.health;
 
+import com.example.util.ParallelFileLoader;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -13,6 +14,7 @@ import java.nio.file.StandardOpenOption;
 import java.time.LocalDate;
 import java.util.Comparator;
 import java.util.List;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -158,6 +160,90 @@ public class HealthRecordManagerTest {
         assertTrue(results.size() >= 2, "应该在日期范围内找到至少两条记录");
     }
 
+    // 测试日期索引：补录的记录按日期返回，最近 N 天和去年同一天的查询随增删改同步
+    @Test
+    void testDateIndexQueries() {
+        HealthRecordManager dated = new HealthRecordManager(TEST_DATA_DIR, "dated_records.txt");
+        dated.addRecord(LocalDate.of(2024, 6, 27), 70.0, null, null, null, null, null, null, "27日");
+        dated.addRecord(LocalDate.of(2023, 6, 26), 72.0, null, null, null, null, null, null, "去年");
+        dated.addRecord(LocalDate.of(2024, 6, 25), 71.0, null, null, null, null, null, null, "25日");
+        dated.addRecord(LocalDate.of(2024, 6, 27), 70.5, null, null, null, null, null, null, "27日第二条");
+
+        assertEquals(List.of("25日", "27日", "27日第二条"),
+                notes(dated.searchByDateRange(LocalDate.of(2024, 6, 1), LocalDate.of(2024, 6, 30))));
+        assertTrue(dated.searchByDateRange(LocalDate.of(2024, 6, 30), LocalDate.of(2024, 6, 1)).isEmpty());
+        assertEquals(List.of("27日", "27日第二条"), notes(dated.findLatestDays(1)));
+        assertEquals(List.of("25日", "27日", "27日第二条"), notes(dated.findLatestDays(2)));
+        assertEquals(4, dated.findLatestDays(10).size());
+        assertTrue(dated.findLatestDays(0).isEmpty());
+        assertTrue(dated.findSameDayLastYear(LocalDate.of(2024, 6, 25)).isEmpty());
+
+        // 把 25 日的记录改到 26 日，再删掉去年的记录
+        dated.editRecord(3, LocalDate.of(2024, 6, 26), null, null, null, null, null, null, null, null);
+        assertEquals(List.of("去年"), notes(dated.findSameDayLastYear(LocalDate.of(2024, 6, 26))));
+        assertTrue(dated.searchByDateRange(LocalDate.of(2024, 6, 25), LocalDate.of(2024, 6, 25)).isEmpty());
+        dated.deleteRecord(2);
+        assertTrue(dated.findSameDayLastYear(LocalDate.of(2024, 6, 26)).isEmpty());
+
+        // 重新加载后索引一致
+        HealthRecordManager reloaded = new HealthRecordManager(TEST_DATA_DIR, "dated_records.txt");
+        assertEquals(3, reloaded.findLatestDays(2).size());
+        assertEquals(List.of("27日", "27日第二条"), notes(reloaded.findLatestDays(1)));
+    }
+
+    private static List<String> notes(List<HealthRecord> records) {
+        return records.stream().map(HealthRecord::getNotes).collect(Collectors.toList());
+    }
+
+    // 测试导入穿戴设备样本后汇总到当天记录：已有记录只更新对应字段，没有记录时新建
+    @Test
+    void testIngestSamplesRollsUpIntoDailyRecords() throws IOException {
+        HealthRecordManager wearable = new HealthRecordManager(TEST_DATA_DIR, "wearable_records.txt");
+        LocalDate day1 = LocalDate.of(2024, 6, 25);
+        LocalDate day2 = day1.plusDays(1);
+        wearable.addRecord(day1, 70.0, 175.0, 75, 120, 80, 8, 10000, "手动");
+
+        List<WearableSample> heartRates = List.of(
+                new WearableSample(day1.atTime(8, 0), 60),
+                new WearableSample(day1.atTime(8, 1), 70),
+                new WearableSample(day2.atTime(9, 0), 90));
+        assertEquals(2, wearable.ingestSamples(WearableSample.Type.HEART_RATE, heartRates));
+        assertEquals(2, wearable.getAllRecords().size());
+        assertEquals(65, wearable.getRecord(1).getHeartRate());
+        assertEquals(10000, wearable.getRecord(1).getSteps(), "其他字段保持不变");
+        assertEquals(90, wearable.getRecord(2).getHeartRate());
+        assertNull(wearable.getRecord(2).getSteps());
+        assertEquals(HealthRecordManager.SAMPLE_NOTE, wearable.getRecord(2).getNotes());
+
+        // 同一天再次导入时按当天全部样本重新汇总
+        wearable.ingestSamples(WearableSample.Type.HEART_RATE, List.of(new WearableSample(day1.atTime(20, 0), 80)));
+        wearable.ingestSamples(WearableSample.Type.STEPS, List.of(
+                new WearableSample(day2.atTime(9, 0), 120),
+                new WearableSample(day2.atTime(9, 1), 80)));
+        assertEquals(70, wearable.getRecord(1).getHeartRate());
+        assertEquals(200, wearable.getRecord(2).getSteps());
+
+        HealthRecordManager reloaded = new HealthRecordManager(TEST_DATA_DIR, "wearable_records.txt");
+        assertEquals(70, reloaded.getRecord(1).getHeartRate());
+        assertEquals(200, reloaded.getRecord(2).getSteps());
+        assertEquals(3, reloaded.getSampleStore()
+                .read(WearableSample.Type.HEART_RATE, day1.atStartOfDay(), day2.atStartOfDay()).size());
+    }
+
+    // 测试重复导入同一批样本时当天步数不重复累加
+    @Test
+    void testIngestSameSamplesTwice() throws IOException {
+        HealthRecordManager wearable = new HealthRecordManager(TEST_DATA_DIR, "wearable_twice.txt");
+        LocalDate day = LocalDate.of(2024, 6, 25);
+        List<WearableSample> steps = List.of(
+                new WearableSample(day.atTime(9, 0), 120),
+                new WearableSample(day.atTime(9, 1), 80));
+        wearable.ingestSamples(WearableSample.Type.STEPS, steps);
+        wearable.ingestSamples(WearableSample.Type.STEPS, steps);
+        assertEquals(1, wearable.getAllRecords().size());
+        assertEquals(200, wearable.getRecord(1).getSteps());
+    }
+
     // 测试记录编辑功能
     @Test
     void testEditRecord_validIndex_allFieldsUpdated() {
@@ -505,4 +591,34 @@ public class HealthRecordManagerTest {
         assertTrue(manager1.getAllRecords().size() >= 1, "管理器1应该有记录");
         assertTrue(manager2.getAllRecords().size() >= 1, "管理器2应该有记录");
     }
-} 
\ No newline at end of file
+
+    // 测试大文件并行加载与顺序加载结果一致
+    @Test
+    void testParallelLoadKeepsFileOrder() throws IOException {
+        StringBuilder content = new StringBuilder();
+        LocalDate start = LocalDate.of(2000, 1, 1);
+        int count = 100_000;
+        for (int i = 0; i < count; i++) {
+            content.append(start.plusDays(i % 9000)).append(" | ").append(60 + i % 30).append(".5 | 175.0 | ")
+                    .append(60 + i % 40).append(" | 120 | 80 | 8 | ").append(i).append(" | 第").append(i).append("条\r\n");
+        }
+        Files.write(TEST_DATA_PATH.resolve("large.txt"), content.toString().getBytes(StandardCharsets.UTF_8));
+
+        String previous = System.getProperty(ParallelFileLoader.PARALLELISM_PROPERTY);
+        try {
+            System.setProperty(ParallelFileLoader.PARALLELISM_PROPERTY, "4");
+            List<HealthRecord> records = new HealthRecordManager(TEST_DATA_DIR, "large.txt").getAllRecords();
+            assertEquals(count, records.size());
+            for (int i = 0; i < count; i++) {
+                assertEquals(i, records.get(i).getSteps());
+                assertEquals("第" + i + "条", records.get(i).getNotes());
+            }
+        } finally {
+            if (previous == null) {
+                System.clearProperty(ParallelFileLoader.PARALLELISM_PROPERTY);
+            } else {
+                System.setProperty(ParallelFileLoader.PARALLELISM_PROPERTY, previous);
+            }
+        }
+    }
+}
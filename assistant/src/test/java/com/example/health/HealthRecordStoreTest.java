@@ -0,0 +1,66 @@
+package com.example.health;
+
+import com.example.health.HealthStatistics.Metric;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HealthRecordStoreTest {
+
+    private static HealthRecord record(int day, Double weight, Integer steps, String notes) {
+        return new HealthRecord(LocalDate.of(2024, 1, 1).plusDays(day), weight, 170.0, 70, null, 80, 7, steps, notes);
+    }
+
+    // 测试视图还原出的字段与写入时一致，缺失的字段仍为 null
+    @Test
+    void testViewRoundTrip() {
+        HealthRecordStore store = new HealthRecordStore(2);
+        for (int i = 0; i < 10; i++) {
+            store.add(record(i, i % 2 == 0 ? 60.0 + i : null, i % 3 == 0 ? null : 1000 * i, "备注" + i));
+        }
+        assertEquals(10, store.size());
+        for (int i = 0; i < 10; i++) {
+            HealthRecord view = store.get(i);
+            HealthRecord expected = record(i, i % 2 == 0 ? 60.0 + i : null, i % 3 == 0 ? null : 1000 * i, "备注" + i);
+            assertEquals(expected.toFileFormat(), view.toFileFormat());
+            assertNull(view.getBloodPressureHigh());
+        }
+        assertTrue(Double.isNaN(store.value(1, Metric.WEIGHT)));
+        assertEquals(62.0, store.value(2, Metric.WEIGHT));
+        assertTrue(Double.isNaN(store.value(3, Metric.STEPS)));
+        assertTrue(Double.isNaN(store.value(3, Metric.BLOOD_PRESSURE_HIGH)));
+
+        // 修改视图不影响存储，写回后才生效
+        HealthRecord view = store.get(0);
+        view.setWeight(99.0);
+        assertEquals(60.0, store.get(0).getWeight());
+        store.set(0, view);
+        assertEquals(99.0, store.get(0).getWeight());
+    }
+
+    // 测试删除后其后记录前移，索引的下标同步减一
+    @Test
+    void testRemoveShiftsRecordsAndIndex() {
+        HealthRecordStore store = new HealthRecordStore();
+        HealthDateIndex index = new HealthDateIndex(store);
+        for (int i = 0; i < 5; i++) index.add(store.add(record(4 - i, null, null, "记录" + i)));
+
+        index.delete(1);
+        store.remove(1);
+        assertEquals(4, store.size());
+        assertEquals("记录2", store.get(1).getNotes());
+        assertEquals(4, index.all().size());
+        assertEquals("记录4", index.all().get(0).getNotes());
+        assertEquals("记录0", index.all().get(3).getNotes());
+        assertEquals("记录2", index.on(LocalDate.of(2024, 1, 3)).get(0).getNotes());
+
+        HealthRecordStore other = new HealthRecordStore();
+        other.add(record(9, 70.0, 5000, "追加"));
+        store.addAll(other);
+        assertEquals("追加", store.get(4).getNotes());
+        assertEquals(5000.0, store.value(4, Metric.STEPS));
+        assertThrows(IndexOutOfBoundsException.class, () -> store.get(5));
+    }
+}
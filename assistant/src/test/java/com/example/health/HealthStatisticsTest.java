@@ -0,0 +1,98 @@
+package com.example.health;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HealthStatisticsTest {
+
+    private static HealthRecord record(Double weight, Integer heartRate, Integer steps) {
+        return new HealthRecord(LocalDate.of(2024, 6, 1), weight, 175.0, heartRate, 120, 80, 8, steps, "");
+    }
+
+    // 测试各项统计值，缺失的值不计入
+    @Test
+    void testSummaryValues() {
+        List<HealthRecord> records = List.of(
+                record(70.0, 60, null),
+                record(72.0, null, 8000),
+                record(74.0, 80, null),
+                record(null, 70, 12000));
+        HealthStatistics stats = HealthStatistics.compute(records, false);
+        assertEquals(4, stats.getRecordCount());
+
+        HealthStatistics.Summary weight = stats.get(HealthStatistics.Metric.WEIGHT);
+        assertEquals(3, weight.getCount());
+        assertEquals(72.0, weight.getMean(), 1e-9);
+        assertEquals(70.0, weight.getMin());
+        assertEquals(74.0, weight.getMax());
+        assertEquals(8.0 / 3, weight.getVariance(), 1e-9);
+        assertEquals(72.0, weight.getMedian(), 1e-9);
+        assertEquals(71.0, weight.getPercentile(25), 1e-9);
+        assertEquals(74.0, weight.getPercentile(100), 1e-9);
+
+        HealthStatistics.Summary steps = stats.get(HealthStatistics.Metric.STEPS);
+        assertEquals(2, steps.getCount());
+        assertEquals(10000.0, steps.getMedian(), 1e-9);
+        assertEquals(4, stats.get(HealthStatistics.Metric.BLOOD_PRESSURE_LOW).getCount());
+        assertEquals(0.0, stats.get(HealthStatistics.Metric.SLEEP_HOURS).getVariance(), 1e-9);
+
+        assertThrows(IllegalArgumentException.class, () -> weight.getPercentile(101));
+    }
+
+    // 测试没有记录或某项指标全部缺失时结果为 NaN
+    @Test
+    void testEmpty() {
+        HealthStatistics stats = HealthStatistics.compute(new ArrayList<>());
+        assertEquals(0, stats.getRecordCount());
+        for (HealthStatistics.Metric metric : HealthStatistics.Metric.values()) {
+            HealthStatistics.Summary summary = stats.get(metric);
+            assertEquals(0, summary.getCount());
+            assertTrue(Double.isNaN(summary.getMean()));
+            assertTrue(Double.isNaN(summary.getMin()));
+            assertTrue(Double.isNaN(summary.getPercentile(50)));
+        }
+    }
+
+    // 测试并行计算与顺序计算结果一致，且与直接排序求得的值一致
+    @Test
+    void testParallelMatchesSequential() {
+        Random random = new Random(42);
+        int n = HealthStatistics.MIN_SPLIT * 7 + 3;
+        List<HealthRecord> records = new ArrayList<>(n);
+        double[] weights = new double[n];
+        int weightCount = 0;
+        for (int i = 0; i < n; i++) {
+            Double weight = random.nextInt(10) == 0 ? null : 40 + random.nextDouble() * 60;
+            if (weight != null) weights[weightCount++] = weight;
+            records.add(record(weight, 50 + random.nextInt(100), random.nextInt(30000)));
+        }
+
+        HealthStatistics sequential = HealthStatistics.compute(records, false);
+        HealthStatistics parallel = HealthStatistics.compute(records, true);
+        for (HealthStatistics.Metric metric : HealthStatistics.Metric.values()) {
+            HealthStatistics.Summary s = sequential.get(metric);
+            HealthStatistics.Summary p = parallel.get(metric);
+            assertEquals(s.getCount(), p.getCount(), metric.name());
+            assertEquals(s.getMean(), p.getMean(), 1e-6, metric.name());
+            assertEquals(s.getVariance(), p.getVariance(), 1e-6, metric.name());
+            assertEquals(s.getMin(), p.getMin(), metric.name());
+            assertEquals(s.getMax(), p.getMax(), metric.name());
+            assertEquals(s.getPercentile(90), p.getPercentile(90), metric.name());
+        }
+
+        double[] sorted = Arrays.copyOf(weights, weightCount);
+        Arrays.sort(sorted);
+        HealthStatistics.Summary weight = parallel.get(HealthStatistics.Metric.WEIGHT);
+        assertEquals(weightCount, weight.getCount());
+        assertEquals(Arrays.stream(sorted).average().orElseThrow(), weight.getMean(), 1e-9);
+        assertEquals(sorted[0], weight.getPercentile(0));
+        assertEquals(sorted[weightCount - 1], weight.getMax());
+    }
+}
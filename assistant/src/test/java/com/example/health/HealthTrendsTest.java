@@ -0,0 +1,99 @@
+package com.example.health;
+
+import com.example.health.HealthStatistics.Metric;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HealthTrendsTest {
+    private static final LocalDate START = LocalDate.of(2024, 1, 1);
+
+    private static HealthRecord record(LocalDate date, Double weight, Integer steps) {
+        return new HealthRecord(date, weight, null, null, null, null, null, steps, "");
+    }
+
+    // 测试滚动平均按日历日计算窗口，同一天的记录先取平均
+    @Test
+    void testRollingMeanAndDelta() {
+        List<HealthRecord> history = new ArrayList<>();
+        HealthTrends trends = new HealthTrends(() -> history, 0.5);
+        add(trends, history, record(START, 70.0, 1000));
+        add(trends, history, record(START.plusDays(1), 72.0, null));
+        add(trends, history, record(START.plusDays(1), 74.0, null));
+        add(trends, history, record(START.plusDays(10), 80.0, 3000));
+
+        assertEquals(START.plusDays(10), trends.getLatestDate());
+        // 7 天窗口只含第 10 天；30 天窗口含 70、73、80 三个日均值
+        assertEquals(80.0, trends.getRollingMean(Metric.WEIGHT, HealthTrends.WEEK), 1e-9);
+        assertEquals((70.0 + 73.0 + 80.0) / 3, trends.getRollingMean(Metric.WEIGHT, HealthTrends.MONTH), 1e-9);
+        assertEquals(7.0, trends.getDelta(Metric.WEIGHT), 1e-9);
+        assertEquals(2000.0, trends.getDelta(Metric.STEPS), 1e-9);
+        // EWMA(α=0.5)：70 → 71.5 → 75.75
+        assertEquals(75.75, trends.getEwma(Metric.WEIGHT), 1e-9);
+        assertEquals(80.0, trends.getLatestValue(Metric.WEIGHT), 1e-9);
+
+        // 只有步数的新记录把窗口终点推后，7 天窗口里已没有体重
+        add(trends, history, record(START.plusDays(20), null, 5000));
+        assertTrue(Double.isNaN(trends.getRollingMean(Metric.WEIGHT, HealthTrends.WEEK)));
+        assertEquals(80.0, trends.getLatestValue(Metric.WEIGHT), 1e-9);
+        assertTrue(Double.isNaN(trends.getEwma(Metric.SLEEP_HOURS)));
+        assertTrue(Double.isNaN(trends.getDelta(Metric.SLEEP_HOURS)));
+
+        assertThrows(IllegalArgumentException.class, () -> trends.getRollingMean(Metric.WEIGHT, 14));
+    }
+
+    // 测试增量结果与按日期重算的结果一致，补录旧记录后重建
+    @Test
+    void testIncrementalMatchesRecompute() {
+        Random random = new Random(7);
+        List<HealthRecord> history = new ArrayList<>();
+        HealthTrends trends = new HealthTrends(() -> history);
+        LocalDate date = START;
+        for (int i = 0; i < 400; i++) {
+            date = date.plusDays(random.nextInt(3));
+            add(trends, history, record(date, 60 + random.nextDouble() * 20, random.nextInt(20000)));
+            if (i % 50 == 0) assertMatchesBruteForce(trends, history);
+        }
+        assertMatchesBruteForce(trends, history);
+
+        // 补录一条更早的记录
+        add(trends, history, record(date.minusDays(3), 100.0, 0));
+        history.sort(Comparator.comparing(HealthRecord::getRecordDate));
+        assertMatchesBruteForce(trends, history);
+    }
+
+    private static void add(HealthTrends trends, List<HealthRecord> history, HealthRecord record) {
+        history.add(record);
+        trends.add(record);
+    }
+
+    private static void assertMatchesBruteForce(HealthTrends trends, List<HealthRecord> history) {
+        LocalDate latest = history.stream().map(HealthRecord::getRecordDate).max(Comparator.naturalOrder()).orElseThrow();
+        for (int window : new int[]{HealthTrends.WEEK, HealthTrends.MONTH, HealthTrends.QUARTER}) {
+            LocalDate first = latest.minusDays(window - 1);
+            double sum = 0;
+            int days = 0;
+            for (LocalDate d = first; !d.isAfter(latest); d = d.plusDays(1)) {
+                double daySum = 0;
+                int count = 0;
+                for (HealthRecord r : history) {
+                    if (r.getRecordDate().equals(d)) {
+                        daySum += r.getWeight();
+                        count++;
+                    }
+                }
+                if (count > 0) {
+                    sum += daySum / count;
+                    days++;
+                }
+            }
+            assertEquals(sum / days, trends.getRollingMean(Metric.WEIGHT, window), 1e-6, "window " + window);
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.health;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WearableSampleStoreTest {
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 31, 0, 0);
+
+    private Path dir;
+    private WearableSampleStore store;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        dir = Files.createTempDirectory("wearable-samples");
+        store = new WearableSampleStore(dir);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        try (var paths = Files.walk(dir)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    // 测试跨月份、乱序、跨块的样本读回后与写入一致，且按时间排序
+    @Test
+    void testRoundTripAcrossPartitionsAndBlocks() throws IOException {
+        Random random = new Random(3);
+        List<WearableSample> samples = new ArrayList<>();
+        for (int i = 0; i < 2 * 24 * 60; i++) {
+            int jitter = random.nextInt(5);
+            samples.add(new WearableSample(START.plusMinutes(i).plusSeconds(jitter), 40 + random.nextInt(140)));
+        }
+        List<WearableSample> shuffled = new ArrayList<>(samples);
+        Collections.shuffle(shuffled, random);
+        store.append(WearableSample.Type.HEART_RATE, shuffled.subList(0, 2000));
+        store.append(WearableSample.Type.HEART_RATE, shuffled.subList(2000, shuffled.size()));
+
+        assertTrue(Files.exists(dir.resolve("heart_rate").resolve("2024-01.seg")));
+        assertTrue(Files.exists(dir.resolve("heart_rate").resolve("2024-02.seg")));
+        List<WearableSample> all = store.read(WearableSample.Type.HEART_RATE, START, START.plusDays(2));
+        assertEquals(samples, all);
+
+        List<WearableSample> hour = store.read(WearableSample.Type.HEART_RATE, START.plusHours(23), START.plusHours(25));
+        assertEquals(samples.subList(23 * 60, 25 * 60), hour);
+        assertTrue(store.read(WearableSample.Type.STEPS, START, START.plusDays(2)).isEmpty());
+    }
+
+    // 测试每分钟一个样本时时间戳只占块头，数值按位打包
+    @Test
+    void testPerMinuteSamplesArePacked() throws IOException {
+        List<WearableSample> samples = new ArrayList<>();
+        for (int i = 0; i < 24 * 60; i++) {
+            samples.add(new WearableSample(START.plusMinutes(i), 60 + i % 100));
+        }
+        store.append(WearableSample.Type.HEART_RATE, samples);
+        long size = Files.size(dir.resolve("heart_rate").resolve("2024-01.seg"));
+        // 1440 个 7 位数值 = 1260 字节，加一个块头
+        assertTrue(size < 1400, "文件大小 " + size);
+
+        WearableSampleStore.Rollup rollup = store.rollup(WearableSample.Type.HEART_RATE, LocalDate.of(2024, 1, 31));
+        assertEquals(1440, rollup.count);
+        assertEquals(60, rollup.min);
+        assertEquals(159, rollup.max);
+        assertEquals(samples.stream().mapToInt(WearableSample::getValue).average().orElseThrow(), rollup.mean(), 1e-9);
+    }
+
+    // 测试文件末尾写了一半的块被忽略
+    @Test
+    void testTruncatedTailIsIgnored() throws IOException {
+        store.append(WearableSample.Type.STEPS, List.of(new WearableSample(START, 12), new WearableSample(START.plusMinutes(1), 30)));
+        Path file = dir.resolve("steps").resolve("2024-01.seg");
+        store.append(WearableSample.Type.STEPS, List.of(new WearableSample(START.plusMinutes(2), 50)));
+        byte[] withSecond = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(withSecond, withSecond.length - 1), StandardOpenOption.TRUNCATE_EXISTING);
+
+        assertEquals(List.of(new WearableSample(START, 12), new WearableSample(START.plusMinutes(1), 30)),
+                store.read(WearableSample.Type.STEPS, START, START.plusDays(1)));
+    }
+
+    // 测试截断的块在下次追加前被截掉，之后的数据仍可读
+    @Test
+    void testAppendAfterTruncatedTail() throws IOException {
+        store.append(WearableSample.Type.STEPS, List.of(new WearableSample(START, 12)));
+        Path file = dir.resolve("steps").resolve("2024-01.seg");
+        long complete = Files.size(file);
+        store.append(WearableSample.Type.STEPS, List.of(new WearableSample(START.plusMinutes(1), 30)));
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 3), StandardOpenOption.TRUNCATE_EXISTING);
+
+        assertEquals(2, store.append(WearableSample.Type.STEPS,
+                List.of(new WearableSample(START.plusMinutes(1), 30), new WearableSample(START.plusMinutes(2), 50))));
+        assertEquals(List.of(new WearableSample(START, 12), new WearableSample(START.plusMinutes(1), 30),
+                        new WearableSample(START.plusMinutes(2), 50)),
+                store.read(WearableSample.Type.STEPS, START, START.plusDays(1)));
+        assertTrue(Files.size(file) > complete);
+    }
+
+    // 测试同一秒的样本只存一次
+    @Test
+    void testDuplicateSecondsAreSkipped() throws IOException {
+        List<WearableSample> batch = List.of(new WearableSample(START, 12), new WearableSample(START.plusMinutes(1), 30));
+        assertEquals(2, store.append(WearableSample.Type.STEPS, batch));
+        assertEquals(0, store.append(WearableSample.Type.STEPS, batch));
+        assertEquals(1, store.append(WearableSample.Type.STEPS,
+                List.of(new WearableSample(START.plusMinutes(1), 99), new WearableSample(START.plusMinutes(2), 5),
+                        new WearableSample(START.plusMinutes(2), 5))));
+        assertEquals(47, store.rollup(WearableSample.Type.STEPS, START.toLocalDate()).sum);
+    }
+}
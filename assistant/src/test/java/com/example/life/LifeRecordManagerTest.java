@@ -11,8 +11,12 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardOpenOption;
 import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
 import java.util.Comparator;
 import java.util.List;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -242,7 +246,8 @@ public class LifeRecordManagerTest {
         LifeRecordManager newManager = new LifeRecordManager(TEST_DATA_DIR, TEST_FILE_NAME);
         LifeRecord loadedRecord = newManager.getRecord(1);
         assertEquals("原始标题", loadedRecord.getTitle(), "从文件加载的标题应与原始标题相同");
-        assertTrue(loadedRecord.getTimestamp().isAfter(originalTimestamp), "从文件加载的记录时间戳应该被更新");
+        assertEquals(editedRecord.getTimestamp().truncatedTo(ChronoUnit.SECONDS), loadedRecord.getTimestamp(),
+                "从文件加载的记录时间戳应为编辑时的时间（精确到秒）");
     }
 
     //测试使用无效索引（零或负数）编辑记录。
@@ -365,11 +370,15 @@ public class LifeRecordManagerTest {
         manager.deleteRecord(1);
 
         List<String> lines = Files.readAllLines(TEST_FILE_PATH, StandardCharsets.UTF_8);
+        assertEquals(3, lines.size(), "删除只追加一行删除标记，不重写文件");
 
-        assertEquals(1, lines.size(), "删除一条记录后，文件应该只剩一条记录");
+        manager.rewriteFile();
+        lines = Files.readAllLines(TEST_FILE_PATH, StandardCharsets.UTF_8);
+        assertEquals(1, lines.size(), "重写后文件应该只剩一条记录");
         assertTrue(lines.get(0).contains("记录B"), "文件中应该包含记录B");
 
         manager.deleteRecord(1);
+        manager.rewriteFile();
         lines = Files.readAllLines(TEST_FILE_PATH, StandardCharsets.UTF_8);
         assertTrue(lines.isEmpty(), "清空所有记录后，文件应该为空");
 
@@ -383,6 +392,321 @@ public class LifeRecordManagerTest {
         assertEquals("新记录2", loadedRecords.get(1).getTitle(), "重写后的第二条记录标题应正确");
     }
 
+    //测试编辑、删除只追加更新行和删除标记，重新加载后状态一致
+    @Test
+    void testEditAndDeleteAppendEntries() throws IOException {
+        manager.addRecord("记录1", "内容1", "日常", "开心");
+        manager.addRecord("记录2", "内容2", "学习", "思考");
+        manager.addRecord("记录3", "内容3", "旅行", "激动");
+        assertEquals(3, manager.getRecord(3).getId(), "新增记录应按顺序编号");
+
+        manager.editRecord(2, "记录2改", "内容2改", "工作", "冷静");
+        manager.deleteRecord(1);
+        manager.editRecord(1, "记录2再改", "内容2再改", "工作", "冷静");
+        assertEquals(2, manager.getRecord(1).getId(), "删除前面的记录后编号不变");
+
+        List<String> lines = Files.readAllLines(TEST_FILE_PATH, StandardCharsets.UTF_8);
+        assertEquals(6, lines.size(), "每次编辑、删除只追加一行");
+        assertTrue(lines.get(3).startsWith("@U | 2 | "), "编辑应追加更新行");
+        assertEquals("@D | 1", lines.get(4), "删除应追加删除标记");
+
+        LifeRecordManager reloaded = new LifeRecordManager(TEST_DATA_DIR, TEST_FILE_NAME);
+        List<LifeRecord> records = reloaded.getAllRecords();
+        assertEquals(2, records.size());
+        assertEquals("记录2再改", records.get(0).getTitle());
+        assertEquals("内容2再改", records.get(0).getContent());
+        assertEquals("记录3", records.get(1).getTitle());
+        assertEquals(3, records.get(1).getId());
+        assertEquals(1, reloaded.searchRecords("再改", null, null, null).size());
+
+        reloaded.addRecord("记录4", "内容4", "日常", "开心");
+        reloaded.deleteRecord(2);
+        LifeRecordManager again = new LifeRecordManager(TEST_DATA_DIR, TEST_FILE_NAME);
+        assertEquals(2, again.getAllRecords().size());
+        assertEquals("记录4", again.getRecord(2).getTitle(), "重启后新增记录的编号应接着文件中的记录行");
+    }
+
+    //测试失效行过多时自动压缩，压缩后编号不变且不留临时文件
+    @Test
+    void testAutomaticCompaction() throws IOException {
+        LifeRecordManager small = new LifeRecordManager(TEST_DATA_DIR, TEST_FILE_NAME, 5);
+        for (int i = 1; i <= 3; i++) small.addRecord("记录" + i, "内容" + i, "日常", "开心");
+        for (int i = 0; i < 5; i++) small.editRecord(3, "记录3第" + i + "次", "内容", "日常", "开心");
+        assertEquals(8, Files.readAllLines(TEST_FILE_PATH, StandardCharsets.UTF_8).size(), "未超过阈值时不压缩");
+
+        small.deleteRecord(1);
+        List<String> lines = Files.readAllLines(TEST_FILE_PATH, StandardCharsets.UTF_8);
+        assertEquals(2, lines.size(), "失效行超过阈值后应压缩为有效记录");
+        assertTrue(lines.get(1).endsWith("记录3第4次 | 内容"));
+        assertFalse(Files.exists(Paths.get(TEST_DATA_DIR, TEST_FILE_NAME + ".tmp")), "压缩后不应留下临时文件");
+        assertEquals(3, small.getRecord(2).getId(), "压缩后记录编号不变");
+        assertTrue(lines.get(1).startsWith("3 | "), "记录行以编号开头");
+
+        small.editRecord(2, "压缩后编辑", "内容", "日常", "开心");
+        LifeRecordManager reloaded = new LifeRecordManager(TEST_DATA_DIR, TEST_FILE_NAME);
+        assertEquals("记录2", reloaded.getRecord(1).getTitle());
+        assertEquals("压缩后编辑", reloaded.getRecord(2).getTitle());
+    }
+
+    //测试末行写了一半时重新加载后编辑，新追加的行不与残行拼接，编辑落到正确的记录上
+    @Test
+    void testEditAfterReloadWithPartialLastLine() throws IOException {
+        manager.addRecord("记录1", "内容1", "日常", "开心");
+        manager.addRecord("记录2", "内容2", "学习", "思考");
+        Files.writeString(TEST_FILE_PATH, "@U | 1 | 2024-01-01 00:00:00 | 日", StandardCharsets.UTF_8,
+                StandardOpenOption.APPEND);
+
+        LifeRecordManager reloaded = new LifeRecordManager(TEST_DATA_DIR, TEST_FILE_NAME);
+        assertEquals("记录1", reloaded.getRecord(1).getTitle(), "不完整的更新行被忽略");
+        reloaded.addRecord("记录3", "内容3", "旅行", "激动");
+        reloaded.editRecord(3, "记录3改", "内容3改", "旅行", "激动");
+        reloaded.editRecord(2, "记录2改", "内容2改", "学习", "思考");
+
+        LifeRecordManager again = new LifeRecordManager(TEST_DATA_DIR, TEST_FILE_NAME);
+        assertEquals(List.of("记录1", "记录2改", "记录3改"),
+                again.getAllRecords().stream().map(LifeRecord::getTitle).collect(Collectors.toList()));
+        assertEquals("内容3改", again.getRecord(3).getContent());
+        assertEquals(3, again.getRecord(3).getId());
+    }
+
+    //测试重新加载后保留文件中的时间戳，编辑行中的时间戳覆盖原值
+    @Test
+    void testTimestampsRoundTrip() throws IOException {
+        String content = "2024-03-01 08:00:00 | 日常 | 😊 开心 | 三月一日 | 内容\n" +
+                "2023-12-31 23:59:59 | 回忆 | 😌 冷静 | 跨年 | 内容\n" +
+                "@U | 2 | 2024-01-01 00:00:01 | 回忆 | 😌 冷静 | 跨年改 | 内容\n";
+        Files.writeString(TEST_FILE_PATH, content, StandardCharsets.UTF_8);
+
+        LifeRecordManager loaded = new LifeRecordManager(TEST_DATA_DIR, TEST_FILE_NAME);
+        assertEquals(LocalDateTime.of(2024, 3, 1, 8, 0, 0), loaded.getRecord(1).getTimestamp());
+        assertEquals(LocalDateTime.of(2024, 1, 1, 0, 0, 1), loaded.getRecord(2).getTimestamp());
+        assertEquals("跨年改", loaded.getRecord(2).getTitle());
+    }
+
+    //测试按时间范围查找：闭区间、开放端点、按时间排序，编辑和删除后索引同步
+    @Test
+    void testFindByTimeRange() throws IOException {
+        StringBuilder content = new StringBuilder();
+        LocalDateTime base = LocalDateTime.of(2024, 2, 25, 12, 0, 0);
+        // 倒序写入，结果仍应按时间升序
+        for (int day = 20; day >= 0; day--) {
+            content.append(base.plusDays(day).format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")))
+                    .append(" | 日常 | 😊 开心 | 第").append(day).append("天 | 内容\n");
+        }
+        Files.writeString(TEST_FILE_PATH, content.toString(), StandardCharsets.UTF_8);
+        LifeRecordManager loaded = new LifeRecordManager(TEST_DATA_DIR, TEST_FILE_NAME);
+
+        List<LifeRecord> march = loaded.findByTimeRange(LocalDateTime.of(2024, 3, 1, 0, 0),
+                LocalDateTime.of(2024, 3, 31, 23, 59, 59));
+        assertEquals(16, march.size(), "3 月 1 日到 16 日共 16 条");
+        assertEquals("第5天", march.get(0).getTitle());
+        assertEquals("第20天", march.get(15).getTitle());
+
+        assertEquals(1, loaded.findByTimeRange(base, base).size(), "两端都是闭区间");
+        assertEquals(3, loaded.findByTimeRange(base.plusDays(18), null).size());
+        assertEquals(21, loaded.findByTimeRange(null, null).size());
+        assertTrue(loaded.findByTimeRange(base.plusDays(1), base).isEmpty());
+
+        int index = loaded.getAllRecords().indexOf(march.get(0)) + 1;
+        loaded.editRecord(index, "改过了", "内容", "日常", "😊 开心");
+        assertEquals(15, loaded.findByTimeRange(LocalDateTime.of(2024, 3, 1, 0, 0),
+                LocalDateTime.of(2024, 3, 31, 23, 59, 59)).size(), "编辑后时间戳变为当前时间");
+        assertEquals("改过了", loaded.findByTimeRange(LocalDateTime.now().minusMinutes(1), null).get(0).getTitle());
+
+        loaded.deleteRecord(1);
+        assertTrue(loaded.findByTimeRange(base.plusDays(20), base.plusDays(20)).isEmpty(), "删除后不再出现");
+    }
+
+    //测试延迟加载模式：正文按需从文件读取，与普通模式内容一致，编辑、压缩后位置仍正确
+    @Test
+    void testLazyContent() {
+        manager.addRecord("标题1", "中文正文😊 含 | 分隔符", "日常", "😊 开心");
+        manager.addRecord("标题2", null, "学习", "🤔 思考");
+        manager.addRecord("标题3", "plain ascii", "工作", "😌 冷静");
+        manager.editRecord(3, "标题3改", "改过的正文 café", "工作", "😌 冷静");
+
+        LifeRecordManager lazy = new LifeRecordManager(TEST_DATA_DIR, TEST_FILE_NAME, true, 2, 2);
+        assertEquals("中文正文😊 含 | 分隔符", lazy.getRecord(1).getContent());
+        assertNull(lazy.getRecord(2).getContent());
+        assertEquals("改过的正文 café", lazy.getRecord(3).getContent());
+        assertEquals(1, lazy.searchRecords(null, "café", null, null).size(), "搜索应能读取按需加载的正文");
+
+        lazy.addRecord("标题4", "新增的正文", "旅行", "😎 激动");
+        lazy.editRecord(1, "标题1改", "编辑后的正文", "日常", "😊 开心");
+        assertEquals("新增的正文", lazy.getRecord(4).getContent());
+        assertEquals("编辑后的正文", lazy.getRecord(1).getContent());
+
+        // 失效行超过阈值，触发压缩，正文位置随之更新
+        lazy.deleteRecord(2);
+        assertEquals(3, lazy.getAllRecords().size());
+        assertEquals("编辑后的正文", lazy.getRecord(1).getContent());
+        assertEquals("改过的正文 café", lazy.getRecord(2).getContent());
+        assertEquals("新增的正文", lazy.getRecord(3).getContent());
+        assertTrue(lazy.getRecord(3).toString().contains("新增的正文"));
+        lazy.close();
+
+        LifeRecordManager eager = new LifeRecordManager(TEST_DATA_DIR, TEST_FILE_NAME);
+        assertEquals(3, eager.getAllRecords().size());
+        assertEquals("编辑后的正文", eager.getRecord(1).getContent());
+        assertEquals("新增的正文", eager.getRecord(3).getContent());
+    }
+
+    //测试跨越读取块边界的行（含多字节字符和 \r\n 换行）加载后内容和正文位置都正确
+    @Test
+    void testLoadLinesAcrossReadBlocks() throws IOException {
+        StringBuilder content = new StringBuilder();
+        for (int i = 1; i <= 300; i++) {
+            content.append(i).append(" | 2024-03-01 08:00:00 | 日常 | 😊 开心 | 标题").append(i).append(" | ")
+                    .append("正文😊".repeat(i * 7)).append(i % 2 == 0 ? "\r\n" : "\n");
+        }
+        Files.writeString(TEST_FILE_PATH, content.toString(), StandardCharsets.UTF_8);
+        assertTrue(Files.size(TEST_FILE_PATH) > 3 * LifeRecordManager.IO_BUFFER_SIZE);
+
+        LifeRecordManager lazy = new LifeRecordManager(TEST_DATA_DIR, TEST_FILE_NAME, true);
+        assertEquals(300, lazy.getAllRecords().size());
+        for (int i = 1; i <= 300; i++) {
+            assertEquals("标题" + i, lazy.getRecord(i).getTitle());
+            assertEquals("正文😊".repeat(i * 7), lazy.getRecord(i).getContent());
+        }
+        lazy.close();
+    }
+
+    //测试延迟加载的正文缓存有上限
+    @Test
+    void testLazyContentCacheIsBounded() {
+        for (int i = 1; i <= 20; i++) manager.addRecord("标题" + i, "正文" + i, "日常", "😊 开心");
+        LifeContentStore store = new LifeContentStore(TEST_FILE_PATH, 5);
+        LifeRecordManager lazy = new LifeRecordManager(TEST_DATA_DIR, TEST_FILE_NAME, true, 1000, 5);
+        for (int round = 0; round < 2; round++) {
+            for (int i = 1; i <= 20; i++) assertEquals("正文" + i, lazy.getRecord(i).getContent());
+        }
+        lazy.close();
+
+        // 读 10 个不同位置，只保留最近的 5 个
+        for (int offset = 0; offset < 10; offset++) assertNotNull(store.read(offset, 1));
+        assertEquals(5, store.cachedCount());
+        store.close();
+    }
+
+    //测试分类、心情、月份计数随加载、增删改同步，与逐条统计一致
+    @Test
+    void testFacets() throws IOException {
+        Files.writeString(TEST_FILE_PATH,
+                "2024-03-01 08:00:00 | 旅行 | 😊 开心 | 出游 | 内容\n" +
+                "2024-03-15 08:00:00 | 旅行 | 😢 难过 | 返程 | 内容\n" +
+                "2024-04-01 08:00:00 | 自定义 | 😊 开心 | 其他 | 内容\n" +
+                "@D | 2\n", StandardCharsets.UTF_8);
+        LifeRecordManager loaded = new LifeRecordManager(TEST_DATA_DIR, TEST_FILE_NAME);
+        LifeFacets facets = loaded.getFacets();
+        assertEquals(2, facets.getTotal());
+        assertEquals(1, facets.getCategoryCount("旅行"));
+        assertEquals(1, facets.getCategoryCount("自定义"), "不在预设列表中的分类计入其他");
+        assertEquals(1, facets.getCategoryCounts().get(LifeFacets.OTHER));
+        assertEquals(2, facets.getMoodCount("😊 开心"));
+        assertEquals(0, facets.getMoodCount("😢 难过"));
+        assertEquals(1, facets.getMonthCount(YearMonth.of(2024, 3)));
+        assertEquals(List.of(YearMonth.of(2024, 3), YearMonth.of(2024, 4)), List.copyOf(facets.getMonthCounts().keySet()));
+        assertEquals(loaded.getCategories(), List.copyOf(facets.getCategoryCounts().keySet()).subList(0, 10));
+
+        loaded.addRecord("新记录", "内容", "旅行", "😎 激动");
+        loaded.editRecord(1, "出游改", "内容", "工作", "😎 激动");
+        loaded.deleteRecord(2);
+        assertEquals(2, facets.getTotal());
+        assertEquals(1, facets.getCategoryCount("旅行"));
+        assertEquals(1, facets.getCategoryCount("工作"));
+        assertEquals(0, facets.getCategoryCount(LifeFacets.OTHER));
+        assertFalse(facets.getCategoryCounts().containsKey(LifeFacets.OTHER));
+        assertEquals(2, facets.getMoodCount("😎 激动"));
+        assertEquals(0, facets.getMonthCount(YearMonth.of(2024, 3)), "编辑后时间戳为当前时间");
+        assertEquals(2, facets.getMonthCount(YearMonth.now()));
+
+        for (String category : loaded.getCategories()) {
+            long expected = loaded.getAllRecords().stream().filter(r -> category.equals(r.getCategory())).count();
+            assertEquals(expected, facets.getCategoryCount(category));
+        }
+        assertEquals(1, facets.getCategoryCount(LifeCategory.TRAVEL));
+        assertEquals(2, facets.getMoodCount(LifeMood.EXCITED));
+    }
+
+    //测试搜索结果的分面计数只统计匹配的记录，取完后总数准确
+    @Test
+    void testSearchResultFacets() {
+        manager.addRecord("周末出游", "去海边", "旅行", "😊 开心");
+        manager.addRecord("出游返程", "堵车", "旅行", "😤 生气");
+        manager.addRecord("出游计划", "下次去山里", "日常", "😊 开心");
+        manager.addRecord("加班", "写报告", "工作", "😴 疲惫");
+
+        LifeSearchCursor results = manager.searchRecordsRanked("出游", null, null, null, 1);
+        LifeFacets facets = results.getFacets();
+        assertEquals(3, facets.getTotal());
+        assertEquals(2, facets.getCategoryCount(LifeCategory.TRAVEL));
+        assertEquals(1, facets.getCategoryCount(LifeCategory.DAILY));
+        assertEquals(0, facets.getCategoryCount(LifeCategory.WORK));
+        assertEquals(2, facets.getMoodCount(LifeMood.HAPPY));
+        assertTrue(results.isTotalExact());
+        assertEquals(3, results.getEstimatedTotal());
+        assertEquals(1, results.getPage(3).size());
+    }
+
+    //测试 NDJSON 导出再导入（含 GZIP），字段、时间戳和带换行的正文保持不变
+    @Test
+    void testExportImportRoundTrip() throws IOException {
+        manager.addRecord("标题 \"引号\"", "第一行\n第二行 | 分隔符\\反斜杠", "日常", "😊 开心");
+        manager.addRecord("标题2", null, "学习", null);
+        Path plain = TEST_DATA_PATH.resolve("export.ndjson");
+        Path gzip = TEST_DATA_PATH.resolve("export.ndjson.gz");
+        assertEquals(2, manager.exportRecords(plain, false));
+        assertEquals(2, manager.exportRecords(gzip, true));
+        assertEquals(2, Files.readAllLines(plain, StandardCharsets.UTF_8).size(), "每条记录恰好一行");
+
+        for (Path source : List.of(plain, gzip)) {
+            LifeRecordManager target = new LifeRecordManager(TEST_DATA_DIR, "import_" + source.getFileName() + ".txt");
+            assertEquals(2, target.importRecords(source));
+            assertRecordsEqual(manager.getAllRecords(), target.getAllRecords());
+
+            // 导入的记录已写入数据文件，重新加载（含延迟加载模式）后不变
+            LifeRecordManager reloaded = new LifeRecordManager(TEST_DATA_DIR, "import_" + source.getFileName() + ".txt", true);
+            assertRecordsEqual(manager.getAllRecords(), reloaded.getAllRecords());
+            assertEquals(1, reloaded.searchRecords(null, "第二行", null, null).size());
+            reloaded.close();
+        }
+    }
+
+    //测试导入按批写入数据文件，格式错误的行被跳过
+    @Test
+    void testImportInChunksSkipsMalformedLines() throws IOException {
+        int count = LifeRecordManager.IMPORT_CHUNK * 2 + 5;
+        StringBuilder ndjson = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            ndjson.append("{\"timestamp\":\"2024-05-01 10:00:00\",\"title\":\"t").append(i)
+                    .append("\",\"content\":\"c\",\"category\":\"日常\",\"mood\":null,\"extra\":\"x\"}\n");
+            if (i == 3) ndjson.append("{\"title\": \"没有结束\n\n");
+        }
+        Path source = TEST_DATA_PATH.resolve("import.ndjson");
+        Files.writeString(source, ndjson, StandardCharsets.UTF_8);
+
+        LifeRecordManager lazy = new LifeRecordManager(TEST_DATA_DIR, TEST_FILE_NAME, true);
+        assertEquals(count, lazy.importRecords(source));
+        assertEquals(count, Files.readAllLines(TEST_FILE_PATH, StandardCharsets.UTF_8).size());
+        assertEquals("t1004", lazy.getRecord(1005).getTitle());
+        assertEquals("c", lazy.getRecord(count).getContent());
+        assertEquals(count, lazy.getFacets().getMonthCount(YearMonth.of(2024, 5)));
+        lazy.close();
+    }
+
+    private static void assertRecordsEqual(List<LifeRecord> expected, List<LifeRecord> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            LifeRecord e = expected.get(i);
+            LifeRecord a = actual.get(i);
+            assertEquals(e.getTitle(), a.getTitle());
+            assertEquals(e.getContent(), a.getContent());
+            assertEquals(e.getCategory(), a.getCategory());
+            assertEquals(e.getMood(), a.getMood());
+            assertEquals(e.getTimestamp().truncatedTo(ChronoUnit.SECONDS), a.getTimestamp());
+        }
+    }
+
     //测试获取记录功能，验证获取指定索引的记录。
     @Test
     void testGetRecord_validIndex() {
@@ -703,13 +1027,14 @@ public class LifeRecordManagerTest {
 
         String line = lines.get(0);
         String[] parts = line.split(" \\| ");
-        assertEquals(5, parts.length, "记录应包含5个部分");
+        assertEquals(6, parts.length, "记录应包含编号和5个部分");
 
         // 验证各部分内容
-        assertTrue(parts[0].matches("\\d{4}-\\d{2}-\\d{2} \\d{2}:\\d{2}:\\d{2}"), "时间戳格式应正确");
-        assertEquals("测试分类", parts[1], "分类应匹配");
-        assertEquals("测试心情", parts[2], "心情应匹配");
-        assertEquals("测试标题", parts[3], "标题应匹配");
-        assertEquals("测试内容", parts[4], "内容应匹配");
+        assertEquals("1", parts[0], "编号应匹配");
+        assertTrue(parts[1].matches("\\d{4}-\\d{2}-\\d{2} \\d{2}:\\d{2}:\\d{2}"), "时间戳格式应正确");
+        assertEquals("测试分类", parts[2], "分类应匹配");
+        assertEquals("测试心情", parts[3], "心情应匹配");
+        assertEquals("测试标题", parts[4], "标题应匹配");
+        assertEquals("测试内容", parts[5], "内容应匹配");
     }
 }
\ No newline at end of file
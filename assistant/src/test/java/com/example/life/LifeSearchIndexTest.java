@@ -0,0 +1,171 @@
+package com.example.life;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LifeSearchIndexTest {
+
+    // 测试切词：中文切成二元组，西文按词切分，标点和表情忽略
+    @Test
+    void testTokenize() {
+        List<String> terms = new ArrayList<>();
+        LifeSearchIndex.tokenize("今天学习java 17并发，好!", (term, cjk, leftOpen, rightOpen) -> terms.add(term));
+        assertEquals(List.of("今天", "天学", "学习", "java", "17", "并发", "好"), terms);
+    }
+
+    // 测试关键词只是词的一部分时也能找到
+    @Test
+    void testPartialWords() {
+        LifeSearchIndex index = new LifeSearchIndex();
+        LifeRecord java = new LifeRecord("Java编程", "学习JavaScript和并发", "学习", "😊 开心");
+        LifeRecord run = new LifeRecord("跑步", "晨跑 5km", "健康", "😴 疲惫");
+        index.add(java);
+        index.add(run);
+
+        assertEquals(List.of(java), index.search(null, "ascr", null, null));
+        assertEquals(List.of(java), index.search("jav", null, null, null));
+        assertEquals(List.of(java), index.search("a编", null, null, null));
+        assertEquals(List.of(run), index.search(null, "跑 5k", null, null));
+        assertEquals(List.of(java), index.search(null, null, null, "开"));
+        assertTrue(index.search(null, "跑5", null, null).isEmpty());
+    }
+
+    // 测试编辑、删除后索引同步
+    @Test
+    void testUpdateAndRemove() {
+        LifeSearchIndex index = new LifeSearchIndex();
+        LifeRecord a = new LifeRecord("周末登山", "爬了香山", "旅行", "😊 开心");
+        LifeRecord b = new LifeRecord("项目总结", "完成了报告", "工作", "😌 冷静");
+        index.add(a);
+        index.add(b);
+
+        index.update(a, () -> a.setContent("去了海边"));
+        assertTrue(index.search(null, "香山", null, null).isEmpty());
+        assertEquals(List.of(a), index.search(null, "海边", null, null));
+
+        index.remove(a);
+        assertTrue(index.search("登山", null, null, null).isEmpty());
+        assertEquals(1, index.size());
+        assertEquals(List.of(b), index.search(null, null, "工作", null));
+    }
+
+    // 测试随机数据下与逐条 contains 扫描结果完全一致
+    @Test
+    void testMatchesLinearScan() {
+        String alphabet = "今天学习工作跑步心情很好的了aAbBcC 12，!😊";
+        Random random = new Random(7);
+        LifeSearchIndex index = new LifeSearchIndex();
+        List<LifeRecord> records = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            LifeRecord r = new LifeRecord(text(random, alphabet, 8), text(random, alphabet, 40),
+                    text(random, alphabet, 3), text(random, alphabet, 3));
+            records.add(r);
+            index.add(r);
+        }
+        for (int i = 0; i < 100; i++) {
+            LifeRecord r = records.get(random.nextInt(records.size()));
+            if (i % 2 == 0) {
+                index.remove(r);
+                records.remove(r);
+            } else {
+                index.update(r, () -> r.setContent(text(random, alphabet, 40)));
+            }
+        }
+
+        for (int n = 0; n < 3000; n++) {
+            String title = n % 3 == 0 ? text(random, alphabet, 2) : null;
+            String content = n % 3 != 2 ? text(random, alphabet, 1 + random.nextInt(4)).trim() : null;
+            String mood = n % 5 == 0 ? text(random, alphabet, 1) : null;
+            if (content != null && content.isEmpty()) content = null;
+            List<LifeRecord> expected = new ArrayList<>();
+            for (LifeRecord r : records) {
+                if (contains(r.getTitle(), title) && contains(r.getContent(), content) && contains(r.getMood(), mood)) {
+                    expected.add(r);
+                }
+            }
+            assertEquals(expected, index.search(title, content, null, mood), title + "/" + content + "/" + mood);
+        }
+    }
+
+    // 测试按相关度排序：标题命中优先，词频高、篇幅短的靠前
+    @Test
+    void testRankedOrder() {
+        LifeSearchIndex index = new LifeSearchIndex();
+        LifeRecord once = new LifeRecord("日记", "今天跑步了，然后去上班，晚上看书写字整理房间", "日常", "😌 冷静");
+        LifeRecord twice = new LifeRecord("日记", "跑步，又跑步", "健康", "😊 开心");
+        LifeRecord inTitle = new LifeRecord("跑步打卡", "今天跑步五公里", "健康", "😊 开心");
+        LifeRecord none = new LifeRecord("读书", "看完一本书", "学习", "🤔 思考");
+        for (LifeRecord r : List.of(once, twice, inTitle, none)) index.add(r);
+
+        LifeSearchCursor cursor = index.searchRanked(null, "跑步", null, null, 2);
+        assertEquals(List.of(inTitle, twice), cursor.getPage(1));
+        assertEquals(List.of(once), cursor.getPage(2));
+        assertTrue(cursor.getPage(3).isEmpty());
+        assertEquals(3, cursor.getEstimatedTotal());
+        assertTrue(cursor.isTotalExact());
+    }
+
+    // 测试分页只校验需要的候选，误报的候选在取到时才从估计总数中扣除
+    @Test
+    void testCursorIsLazy() {
+        LifeSearchIndex index = new LifeSearchIndex();
+        LifeRecord falsePositive = new LifeRecord("学习 习惯", "", "学习", "🤔 思考");
+        index.add(falsePositive);
+        for (int i = 0; i < 50; i++) index.add(new LifeRecord("学习惯性" + i, "", "学习", "🤔 思考"));
+
+        LifeSearchCursor cursor = index.searchRanked("学习惯", null, null, null, 10);
+        assertEquals(51, cursor.getEstimatedTotal());
+        assertEquals(6, cursor.getEstimatedPageCount());
+        assertEquals(10, cursor.getPage(1).size());
+        assertFalse(cursor.isTotalExact());
+        assertTrue(cursor.hasPage(5));
+        assertFalse(cursor.hasPage(6));
+        assertEquals(50, cursor.getEstimatedTotal());
+        assertTrue(cursor.isTotalExact());
+        assertThrows(IllegalArgumentException.class, () -> index.searchRanked("学习", null, null, null, 0));
+    }
+
+    // 测试排序结果与不排序的搜索是同一批记录
+    @Test
+    void testRankedMatchesSearch() {
+        String alphabet = "今天学习工作跑步心情很好的了ab ";
+        Random random = new Random(11);
+        LifeSearchIndex index = new LifeSearchIndex();
+        for (int i = 0; i < 300; i++) {
+            index.add(new LifeRecord(text(random, alphabet, 6), text(random, alphabet, 30), "日常", "😊 开心"));
+        }
+        for (int n = 0; n < 200; n++) {
+            String title = n % 2 == 0 ? text(random, alphabet, 1).trim() : null;
+            String content = text(random, alphabet, 2).trim();
+            if (title != null && title.isEmpty()) title = null;
+            if (content.isEmpty()) content = "学";
+            List<LifeRecord> expected = index.search(title, content, null, null);
+            LifeSearchCursor cursor = index.searchRanked(title, content, null, null, 7);
+            List<LifeRecord> all = new ArrayList<>();
+            for (int page = 1; cursor.hasPage(page); page++) all.addAll(cursor.getPage(page));
+            assertEquals(expected.size(), all.size());
+            assertTrue(all.containsAll(expected));
+            assertEquals(expected.size(), cursor.getEstimatedTotal());
+        }
+    }
+
+    private static boolean contains(String value, String keyword) {
+        return keyword == null || value.toLowerCase().contains(keyword.toLowerCase());
+    }
+
+    private static String text(Random random, String alphabet, int length) {
+        StringBuilder sb = new StringBuilder();
+        while (sb.length() < length) {
+            int i = random.nextInt(alphabet.length());
+            // 不拆开表情的代理对
+            if (Character.isLowSurrogate(alphabet.charAt(i))) i--;
+            sb.append(Character.isHighSurrogate(alphabet.charAt(i)) ? alphabet.substring(i, i + 2) : alphabet.charAt(i));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,194 @@
+package com.example.payment;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CategoryMatcherTest {
+    private static final String TEST_DATA_DIR = "test_data_payment";
+    private static final Path TEST_DATA_PATH = Paths.get(TEST_DATA_DIR);
+
+    // 原来逐条 contains 判断用的关键词表
+    private static final String[][] KEYWORDS = {
+            {"工资", "薪水", "奖金", "收入", "发薪"},
+            {"餐饮", "吃饭", "外卖", "饭店", "早餐", "午餐", "晚餐", "饮料"},
+            {"交通", "公交", "地铁", "打车", "出租", "高铁", "火车", "加油"},
+            {"购物", "买", "购物", "超市", "网购", "淘宝", "京东"},
+            {"房租", "租金", "房贷"},
+            {"娱乐", "电影", "游戏", "KTV", "娱乐"},
+            {"医疗", "医院", "药", "体检", "医疗"},
+            {"学习", "学费", "培训", "书", "学习"},
+            {"转账", "转账", "还款", "借款"},
+            {"投资", "理财", "基金", "股票", "投资"}
+    };
+    private static final String[] CATEGORIES = {"工资", "餐饮", "交通", "购物", "房租", "娱乐", "医疗", "学习", "转账", "投资"};
+
+    @BeforeEach
+    void setUp() throws IOException {
+        cleanupTestDirectory();
+        Files.createDirectories(TEST_DATA_PATH);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        cleanupTestDirectory();
+    }
+
+    private void cleanupTestDirectory() throws IOException {
+        if (Files.exists(TEST_DATA_PATH)) {
+            try (var paths = Files.walk(TEST_DATA_PATH)) {
+                paths.sorted(Comparator.reverseOrder())
+                        .map(Path::toFile)
+                        .forEach(file -> {
+                            if (!file.delete()) {
+                                System.err.println("无法删除文件: " + file.getAbsolutePath());
+                            }
+                        });
+            }
+        }
+    }
+
+    // 测试内置规则与逐条 contains 判断结果一致，包括命中多条规则时的优先顺序
+    @Test
+    void testDefaultsMatchNestedLoop() {
+        CategoryMatcher matcher = CategoryMatcher.defaults();
+        assertEquals("餐饮", matcher.match("午餐买书"));
+        assertEquals("交通", matcher.match("周末打车去超市"));
+        assertEquals("娱乐", matcher.match("和朋友KTV"));
+        assertNull(matcher.match("ktv"));
+        assertNull(matcher.match("其他"));
+
+        String alphabet = "工资薪水奖金收入餐饮外卖早午晚交通地铁打车购物买超市房租医院药书学费转账基金股票KTV的了是 ";
+        Random random = new Random(42);
+        for (int n = 0; n < 20000; n++) {
+            StringBuilder note = new StringBuilder();
+            int length = random.nextInt(12);
+            for (int i = 0; i < length; i++) note.append(alphabet.charAt(random.nextInt(alphabet.length())));
+            assertEquals(nestedLoop(note.toString()), matcher.match(note.toString()), note.toString());
+        }
+    }
+
+    // 测试关键词互为前后缀时不漏匹配
+    @Test
+    void testOverlappingKeywords() throws IOException {
+        Path config = TEST_DATA_PATH.resolve("rules.txt");
+        Files.write(config, Arrays.asList(
+                "# 注释行",
+                "",
+                "A=hers",
+                "B=she, his",
+                "C=he"), StandardCharsets.UTF_8);
+        CategoryMatcher matcher = CategoryMatcher.load(config);
+        assertEquals(3, matcher.ruleCount());
+        assertEquals("B", matcher.match("ushe"));
+        assertEquals("A", matcher.match("ushers"));
+        assertEquals("C", matcher.match("ahe"));
+        assertEquals("B", matcher.match("hhis"));
+        assertNull(matcher.match("hi"));
+
+        Files.write(config, Arrays.asList("没有等号"), StandardCharsets.UTF_8);
+        assertThrows(IllegalArgumentException.class, () -> CategoryMatcher.load(config));
+    }
+
+    // 测试数千个商户关键词时仍能正确匹配
+    @Test
+    void testLargeKeywordTable() throws IOException {
+        StringBuilder content = new StringBuilder();
+        for (int rule = 0; rule < 100; rule++) {
+            content.append("分类").append(rule).append('=');
+            for (int k = 0; k < 50; k++) {
+                content.append(k == 0 ? "" : ",").append("商户").append(rule * 50 + k).append("号店");
+            }
+            content.append('\n');
+        }
+        Path config = TEST_DATA_PATH.resolve("rules.txt");
+        Files.write(config, content.toString().getBytes(StandardCharsets.UTF_8));
+        CategoryMatcher matcher = CategoryMatcher.load(config);
+
+        assertEquals("分类0", matcher.match("在商户0号店消费"));
+        assertEquals("分类99", matcher.match("在商户4999号店消费"));
+        assertEquals("分类3", matcher.match("商户175号店和商户2000号店"));
+        assertNull(matcher.match("商户5000号店"));
+    }
+
+    // 测试管理器读取数据目录下的分类配置
+    @Test
+    void testManagerUsesConfigFile() throws IOException {
+        Files.write(TEST_DATA_PATH.resolve(PaymentRecordManager.CATEGORY_FILE),
+                Arrays.asList("咖啡=星巴克,瑞幸", "餐饮=午餐"), StandardCharsets.UTF_8);
+        PaymentRecordManager manager = new PaymentRecordManager(TEST_DATA_DIR + "/payment_records.txt", false);
+        LocalDateTime time = LocalDateTime.of(2024, 1, 15, 10, 30, 0);
+        manager.addRecord(30.0, "支出", time, null, "午餐后去星巴克", null);
+        manager.addRecord(20.0, "支出", time, null, "地铁", null);
+        assertEquals("咖啡", manager.getById(1).getCategory());
+        assertEquals("支出", manager.getById(2).getCategory());
+    }
+
+    private static String nestedLoop(String note) {
+        for (int i = 0; i < KEYWORDS.length; i++) {
+            for (String k : KEYWORDS[i]) {
+                if (note.contains(k)) return CATEGORIES[i];
+            }
+        }
+        return null;
+    }
+
+    // 测试修改规则后批量重新分类：预览不改动，应用后汇总同步、重启后保持
+    @Test
+    void testRecategorize() throws IOException {
+        for (boolean journaled : new boolean[]{false, true}) {
+            cleanupTestDirectory();
+            Files.createDirectories(TEST_DATA_PATH);
+            String dataFile = TEST_DATA_DIR + "/payment_records.txt";
+            PaymentRecordManager manager = new PaymentRecordManager(dataFile, journaled);
+            LocalDateTime time = LocalDateTime.of(2024, 1, 15, 10, 30, 0);
+            for (int i = 0; i < 300; i++) {
+                manager.addRecord(10.0, "支出", time.plusHours(i), null, i % 3 == 0 ? "星巴克咖啡" : "午餐", null);
+            }
+            manager.addRecord(99.0, "支出", time, "手工分类", "没有关键词", null);
+            assertEquals(100, manager.getAggregates().getCategory("支出").get("支出").getCount());
+
+            Files.write(TEST_DATA_PATH.resolve(PaymentRecordManager.CATEGORY_FILE),
+                    Arrays.asList("咖啡=星巴克", "工作餐=午餐"), StandardCharsets.UTF_8);
+            manager.reloadCategoryRules();
+
+            RecategorizeReport preview = manager.recategorize(true);
+            assertTrue(preview.isDryRun());
+            assertEquals(301, preview.getScanned());
+            assertEquals(300, preview.getChanged());
+            assertEquals(100, preview.getMoved("支出", "咖啡"));
+            assertEquals(200, preview.getMoved("餐饮", "工作餐"));
+            assertEquals("支出", manager.getById(1).getCategory());
+
+            RecategorizeReport applied = manager.recategorize(false);
+            assertFalse(applied.isDryRun());
+            assertEquals(300, applied.getChanged());
+            assertEquals(100, applied.getMoved("支出", "咖啡"));
+            assertEquals("咖啡", manager.getById(1).getCategory());
+            assertEquals("工作餐", manager.getById(2).getCategory());
+            assertEquals("手工分类", manager.getById(301).getCategory());
+            assertTrue(manager.getAggregates().getCategory("餐饮").isEmpty());
+            assertEquals(2000.0, manager.getAggregates().getCategoryTotal("工作餐", "支出"), 0.001);
+            assertTrue(manager.verifyAggregates());
+            assertEquals(0, manager.recategorize(false).getChanged());
+            manager.close();
+
+            PaymentRecordManager reloaded = new PaymentRecordManager(dataFile, journaled);
+            assertEquals("咖啡", reloaded.getById(1).getCategory());
+            assertEquals(1000.0, reloaded.getAggregates().getCategoryTotal("咖啡", "支出"), 0.001);
+            reloaded.close();
+        }
+    }
+}
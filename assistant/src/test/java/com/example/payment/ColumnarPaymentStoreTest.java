@@ -0,0 +1,193 @@
+package com.example.payment;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ColumnarPaymentStoreTest {
+    private LocalDateTime testDateTime;
+
+    @BeforeEach
+    void setUp() {
+        File dataDir = new File("data");
+        if (!dataDir.exists()) {
+            dataDir.mkdirs();
+        }
+        testDateTime = LocalDateTime.of(2024, 1, 15, 10, 30, 0);
+    }
+
+    @AfterEach
+    void tearDown() {
+        File dataFile = new File("data/payment_records.txt");
+        if (dataFile.exists()) {
+            dataFile.delete();
+        }
+        File dataDir = new File("data");
+        if (dataDir.exists()) {
+            dataDir.delete();
+        }
+    }
+
+    @Test
+    void testPutGetRoundTrip() {
+        ColumnarPaymentStore store = new ColumnarPaymentStore();
+        LocalDateTime precise = LocalDateTime.of(2024, 1, 15, 10, 30, 45, 123456789);
+        store.put(new PaymentRecord(7, 12.34, "支出", precise, "餐饮", "午餐", Arrays.asList("餐饮", "工作日")));
+        store.put(new PaymentRecord(8, 5000.0, "收入", testDateTime, "工资", null, null));
+
+        PaymentRecord r = store.get(7);
+        assertEquals(7, r.getId());
+        assertEquals(12.34, r.getAmount(), 0.001);
+        assertEquals("支出", r.getType());
+        assertEquals(precise, r.getDateTime());
+        assertEquals("餐饮", r.getCategory());
+        assertEquals("午餐", r.getNote());
+        assertEquals(Arrays.asList("餐饮", "工作日"), r.getTags());
+        assertNull(store.get(8).getNote());
+        assertTrue(store.get(8).getTags().isEmpty());
+
+        // 替换为新记录后生效，之前取得的视图不变
+        store.put(new PaymentRecord(7, r.getAmount(), r.getType(), r.getDateTime(), r.getCategory(), "晚餐", r.getTags()));
+        assertEquals("午餐", r.getNote());
+        assertEquals("晚餐", store.get(7).getNote());
+        assertEquals(2, store.size());
+    }
+
+    @Test
+    void testRemoveKeepsOrderAcrossCompaction() {
+        ColumnarPaymentStore store = new ColumnarPaymentStore();
+        for (int i = 1; i <= 5000; i++) {
+            store.put(new PaymentRecord(i, i, "支出", testDateTime.plusMinutes(i), "分类" + (i % 7), "记录" + i,
+                    Arrays.asList("标签" + (i % 3))));
+        }
+        for (int i = 1; i <= 5000; i++) {
+            if (i % 4 != 0) assertNotNull(store.remove(i));
+        }
+        assertNull(store.remove(1));
+        assertEquals(1250, store.size());
+
+        List<PaymentRecord> values = store.values();
+        assertEquals(1250, values.size());
+        for (int i = 0; i < values.size(); i++) {
+            PaymentRecord r = values.get(i);
+            int id = (i + 1) * 4;
+            assertEquals(id, r.getId());
+            assertEquals("记录" + id, r.getNote());
+            assertEquals(Arrays.asList("标签" + (id % 3)), r.getTags());
+        }
+        assertEquals("分类" + (4000 % 7), store.get(4000).getCategory());
+    }
+
+    // 测试管理器在列式存储下与默认存储行为一致
+    @Test
+    void testManagerWithColumnarStore() {
+        PaymentRecordManager manager = new PaymentRecordManager(PaymentRecordManager.DATA_FILE, false, new ColumnarPaymentStore());
+        manager.addRecord(5000.0, "收入", testDateTime, "工资", "1月工资", Arrays.asList("工资"));
+        manager.addRecord(100.0, "支出", testDateTime.plusDays(1), null, "午餐外卖", null);
+        manager.addRecord(200.0, "支出", testDateTime.plusDays(2), "购物", "买衣服", Arrays.asList("购物"));
+
+        assertTrue(manager.updateRecord(3, 250.0, null, testDateTime.plusDays(10), null, null, null));
+        assertTrue(manager.deleteRecord(1));
+
+        assertEquals("餐饮", manager.getById(2).getCategory());
+        assertEquals(250.0, manager.getById(3).getAmount(), 0.001);
+        assertEquals(1, manager.queryRecords(testDateTime.plusDays(5), null, null, null, null, null).size());
+        assertTrue(manager.verifyAggregates());
+
+        PaymentRecordManager reloaded = new PaymentRecordManager(PaymentRecordManager.DATA_FILE, false, new ColumnarPaymentStore());
+        assertEquals(2, reloaded.getAllRecords().size());
+        assertEquals(testDateTime.plusDays(10), reloaded.getById(3).getDateTime());
+    }
+
+    // 对比 100 万条记录在两种存储下的堆占用
+    @Test
+    @Tag("slow")
+    void testMemoryFootprintAgainstObjectList() {
+        int recordCount = 1_000_000;
+        long baseline = usedHeap();
+        List<PaymentRecord> list = new ArrayList<>(recordCount);
+        list.addAll(PaymentTestDataGenerator.generateTestRecords(recordCount, testDateTime));
+        long listBytes = usedHeap() - baseline;
+        assertEquals(recordCount, list.size());
+        list = null;
+
+        baseline = usedHeap();
+        ColumnarPaymentStore store = new ColumnarPaymentStore(recordCount);
+        for (int start = 0; start < recordCount; start += 10_000) {
+            for (PaymentRecord r : PaymentTestDataGenerator.generateTestRecords(10_000, testDateTime.plusDays(start))) {
+                store.put(new PaymentRecord(start + r.getId(), r.getAmount(), r.getType(), r.getDateTime(),
+                        r.getCategory(), r.getNote(), r.getTags()));
+            }
+        }
+        long columnarBytes = usedHeap() - baseline;
+        assertEquals(recordCount, store.size());
+
+        System.out.println("100万条记录 ArrayList<PaymentRecord> 占用: " + (listBytes / 1024 / 1024) + "MB, 列式存储占用: "
+                + (columnarBytes / 1024 / 1024) + "MB");
+        assertTrue(columnarBytes * 2 < listBytes,
+                "列式存储应至少节省一半内存: " + columnarBytes + " vs " + listBytes);
+    }
+
+    // 对比通过管理器加载 100 万条记录时两种存储的堆占用（含时间索引和汇总）
+    @Test
+    @Tag("slow")
+    void testManagerMemoryFootprintAgainstObjectList() throws IOException {
+        int recordCount = 1_000_000;
+        Path file = Paths.get("data", "payment_footprint.txt");
+        try {
+            try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+                for (int start = 0; start < recordCount; start += 10_000) {
+                    for (PaymentRecord r : PaymentTestDataGenerator.generateTestRecords(10_000, testDateTime.plusDays(start))) {
+                        writer.write(new PaymentRecord(start + r.getId(), r.getAmount(), r.getType(), r.getDateTime(),
+                                r.getCategory(), r.getNote(), r.getTags()).toFileFormat());
+                        writer.write('\n');
+                    }
+                }
+            }
+
+            long baseline = usedHeap();
+            PaymentRecordManager list = new PaymentRecordManager(file.toString(), false, new ListPaymentStore());
+            long listBytes = usedHeap() - baseline;
+            assertEquals(recordCount, list.getAggregates().getRecordCount());
+            list = null;
+
+            baseline = usedHeap();
+            PaymentRecordManager columnar = new PaymentRecordManager(file.toString(), false, new ColumnarPaymentStore());
+            long columnarBytes = usedHeap() - baseline;
+            assertEquals(recordCount, columnar.getAggregates().getRecordCount());
+            assertEquals(10, columnar.queryRecords(testDateTime.plusDays(500_000), testDateTime.plusDays(500_009),
+                    null, null, null, null).size());
+
+            System.out.println("通过管理器加载 100万条记录 ListPaymentStore 占用: " + (listBytes / 1024 / 1024)
+                    + "MB, ColumnarPaymentStore 占用: " + (columnarBytes / 1024 / 1024) + "MB");
+            // 两种存储都为每条记录保存一个备注 String，时间索引也相同，整体差距小于单独比较存储时
+            assertTrue(columnarBytes * 3 < listBytes * 2,
+                    "列式存储的管理器应至少节省三分之一内存: " + columnarBytes + " vs " + listBytes);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.payment;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OrderedIntMapTest {
+
+    @Test
+    void testPutGetRemove() {
+        OrderedIntMap<String> map = new OrderedIntMap<>();
+        assertNull(map.put(3, "c"));
+        assertNull(map.put(1, "a"));
+        assertNull(map.put(2, "b"));
+        assertEquals("a", map.get(1));
+        assertNull(map.get(4));
+
+        // 覆盖不改变顺序
+        assertEquals("c", map.put(3, "C"));
+        assertEquals(Arrays.asList("C", "a", "b"), map.values());
+
+        assertEquals("a", map.remove(1));
+        assertNull(map.remove(1));
+        assertFalse(map.containsKey(1));
+        assertEquals(2, map.size());
+        assertEquals(Arrays.asList("C", "b"), map.values());
+    }
+
+    @Test
+    void testIteratorKeepsInsertionOrder() {
+        OrderedIntMap<Integer> map = new OrderedIntMap<>();
+        for (int i = 0; i < 10; i++) map.put(i, i);
+        map.remove(0);
+        map.remove(5);
+        map.remove(9);
+
+        List<Integer> seen = new ArrayList<>();
+        for (Integer v : map) seen.add(v);
+        assertEquals(Arrays.asList(1, 2, 3, 4, 6, 7, 8), seen);
+    }
+
+    // 随机操作与 LinkedHashMap 对比，覆盖扩容、删除标记和压缩
+    @Test
+    void testRandomOperationsMatchLinkedHashMap() {
+        Random random = new Random(7);
+        OrderedIntMap<Integer> map = new OrderedIntMap<>(4);
+        Map<Integer, Integer> expected = new LinkedHashMap<>();
+        for (int i = 0; i < 200_000; i++) {
+            int key = random.nextInt(5_000) - 1_000;
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(key), map.remove(key));
+            } else {
+                assertEquals(expected.put(key, i), map.put(key, i));
+            }
+        }
+        assertEquals(expected.size(), map.size());
+        assertEquals(new ArrayList<>(expected.values()), map.values());
+        for (int key = -1_000; key < 4_000; key++) {
+            assertEquals(expected.get(key), map.get(key));
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package com.example.payment;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PaymentConcurrencyTest {
+    private static final String TEST_DATA_DIR = "test_data_payment";
+    private static final String TEST_FILE = TEST_DATA_DIR + "/payment_records.txt";
+    private static final Path TEST_DATA_PATH = Paths.get(TEST_DATA_DIR);
+    // 阈值很小，让后台压缩与并发写入交错发生
+    private static final long COMPACT_THRESHOLD = 16 * 1024;
+
+    private static final int WRITERS = 4;
+    private static final int PER_WRITER = 2000;
+
+    private LocalDateTime testDateTime;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        cleanupTestDirectory();
+        Files.createDirectories(TEST_DATA_PATH);
+        testDateTime = LocalDateTime.of(2024, 1, 15, 10, 30, 0);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        cleanupTestDirectory();
+    }
+
+    private void cleanupTestDirectory() throws IOException {
+        if (Files.exists(TEST_DATA_PATH)) {
+            try (var paths = Files.walk(TEST_DATA_PATH)) {
+                paths.sorted(Comparator.reverseOrder())
+                        .map(Path::toFile)
+                        .forEach(file -> {
+                            if (!file.delete()) {
+                                System.err.println("无法删除文件: " + file.getAbsolutePath());
+                            }
+                        });
+            }
+        }
+    }
+
+    // 测试多线程同时添加时 id 不重复、没有丢失，读线程同时查询不抛异常
+    @Test
+    void testConcurrentAddsWithReaders() throws Exception {
+        PaymentRecordManager manager = new PaymentRecordManager(TEST_FILE, true, COMPACT_THRESHOLD);
+        ConcurrentLinkedQueue<Throwable> errors = new ConcurrentLinkedQueue<>();
+        AtomicBoolean writing = new AtomicBoolean(true);
+        CountDownLatch start = new CountDownLatch(1);
+
+        List<Thread> writers = new ArrayList<>();
+        for (int w = 0; w < WRITERS; w++) {
+            int writer = w;
+            writers.add(thread(errors, start, () -> {
+                for (int i = 0; i < PER_WRITER; i++) {
+                    if (i % 100 == 0) {
+                        List<PaymentRecord> batch = new ArrayList<>();
+                        for (int j = 0; j < 10; j++) {
+                            batch.add(new PaymentRecord(0, 1.0, "支出", testDateTime.plusMinutes(i), "餐饮", "批量" + writer, null));
+                        }
+                        manager.addRecords(batch);
+                    }
+                    manager.addRecord(1.0, "支出", testDateTime.plusMinutes(i), "餐饮", "线程" + writer, null);
+                }
+            }));
+        }
+        List<Thread> readers = new ArrayList<>();
+        for (int r = 0; r < 2; r++) {
+            readers.add(thread(errors, start, () -> {
+                YearMonth month = YearMonth.from(testDateTime);
+                while (writing.get()) {
+                    List<PaymentRecord> day = manager.queryRecords(testDateTime, testDateTime.plusHours(2), "支出", null, null, null);
+                    for (PaymentRecord record : day) assertNotNull(record.getType());
+                    manager.getById(1 + day.size());
+                    assertTrue(manager.getAggregates().getMonthTotal(month, "支出") >= 0);
+                    manager.getAggregates().getCategories();
+                }
+            }));
+        }
+
+        start.countDown();
+        for (Thread t : writers) t.join();
+        writing.set(false);
+        for (Thread t : readers) t.join();
+        assertTrue(errors.isEmpty(), () -> "并发访问出错: " + errors.peek());
+
+        int expected = WRITERS * (PER_WRITER + PER_WRITER / 100 * 10);
+        List<PaymentRecord> all = manager.getAllRecords();
+        assertEquals(expected, all.size());
+        Set<Integer> ids = new HashSet<>();
+        for (PaymentRecord r : all) ids.add(r.getId());
+        assertEquals(expected, ids.size());
+        assertEquals(expected, manager.getAggregates().getRecordCount());
+        assertTrue(manager.verifyAggregates());
+
+        manager.close();
+        PaymentRecordManager reloaded = new PaymentRecordManager(TEST_FILE, true, COMPACT_THRESHOLD);
+        assertEquals(expected, reloaded.getAllRecords().size());
+        reloaded.close();
+    }
+
+    // 测试并发修改、删除不同记录时没有更新丢失，重启后状态一致
+    @Test
+    void testNoLostUpdates() throws Exception {
+        PaymentRecordManager manager = new PaymentRecordManager(TEST_FILE, true, COMPACT_THRESHOLD);
+        int total = WRITERS * 500;
+        List<PaymentRecord> drafts = new ArrayList<>();
+        for (int i = 0; i < total; i++) {
+            drafts.add(new PaymentRecord(0, 10.0, "支出", testDateTime.plusMinutes(i), "餐饮", "原始", null));
+        }
+        manager.addRecords(drafts);
+
+        ConcurrentLinkedQueue<Throwable> errors = new ConcurrentLinkedQueue<>();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int w = 0; w < WRITERS; w++) {
+            int writer = w;
+            threads.add(thread(errors, start, () -> {
+                // 每个线程负责 id % WRITERS == writer 的记录：偶数 id 修改多次，奇数 id 删除
+                for (int id = 1 + writer; id <= total; id += WRITERS) {
+                    if (id % 2 == 0) {
+                        for (int round = 1; round <= 3; round++) {
+                            assertTrue(manager.updateRecord(id, 10.0 + round, null, testDateTime.plusDays(round), null,
+                                    "线程" + writer + "第" + round + "次", Collections.singletonList("t" + writer)));
+                        }
+                    } else {
+                        assertTrue(manager.deleteRecord(id));
+                    }
+                }
+            }));
+        }
+        start.countDown();
+        for (Thread t : threads) t.join();
+        assertTrue(errors.isEmpty(), () -> "并发访问出错: " + errors.peek());
+
+        assertState(manager, total);
+        manager.close();
+        PaymentRecordManager reloaded = new PaymentRecordManager(TEST_FILE, true, COMPACT_THRESHOLD);
+        assertState(reloaded, total);
+        reloaded.close();
+    }
+
+    private void assertState(PaymentRecordManager manager, int total) {
+        assertEquals(total / 2, manager.getAllRecords().size());
+        for (int id = 1; id <= total; id++) {
+            PaymentRecord r = manager.getById(id);
+            if (id % 2 == 0) {
+                int writer = (id - 1) % WRITERS;
+                assertEquals(13.0, r.getAmount(), 0.001);
+                assertEquals(testDateTime.plusDays(3), r.getDateTime());
+                assertEquals("线程" + writer + "第3次", r.getNote());
+                assertEquals(Collections.singletonList("t" + writer), r.getTags());
+            } else {
+                assertNull(r);
+            }
+        }
+        assertEquals(13.0 * total / 2, manager.getAggregates().getCategoryTotal("餐饮", "支出"), 0.001);
+        assertTrue(manager.verifyAggregates());
+    }
+
+    //启动一个等待 start 信号的线程，断言失败和异常都收集到 errors
+    private static Thread thread(ConcurrentLinkedQueue<Throwable> errors, CountDownLatch start, Runnable body) {
+        Thread t = new Thread(() -> {
+            try {
+                start.await();
+                body.run();
+            } catch (Throwable e) {
+                errors.add(e);
+            }
+        });
+        t.start();
+        return t;
+    }
+}
@@ -0,0 +1,171 @@
+package com.example.payment;
+
+import com.example.util.ParallelFileLoader;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PaymentFileLoaderTest {
+    private static final String TEST_DATA_DIR = "test_data_payment";
+    private static final Path TEST_DATA_PATH = Paths.get(TEST_DATA_DIR);
+    private static final Path TEST_FILE = TEST_DATA_PATH.resolve("payment_records.txt");
+
+    private static final List<String> LINES = Arrays.asList(
+            "1\t5000.00\t收入\t2024-01-15 10:30:00\t工资\t1月工资\t工资",
+            "2\t12.34\t支出\t2024-01-16 08:05:09\t餐饮\t早餐 🍜 豆浆\t餐饮,工作日",
+            "3\t0.10\t支出\t2024-02-29 23:59:59\t交通\t地铁\t",
+            "",
+            "4\t-7.5\t支出\t2024-03-01 00:00:00\t其他\tnull\t,a,,b,,",
+            "5\t1e3\t收入\t2024-03-02 12:00:00\t奖金\t\t奖金",
+            "6\t99.99\t支出\t2024-03-03 12:00:00\t购物",
+            "7\t+3.14159265358979\t支出\t2023-02-30 12:00:00\t购物\t日期按格式化器规则处理\t购物",
+            "8\t100\t支出\t2024-03-04 12:00:00\t医疗\t多余字段\t医疗\textra");
+
+    @BeforeEach
+    void setUp() throws IOException {
+        cleanupTestDirectory();
+        Files.createDirectories(TEST_DATA_PATH);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        cleanupTestDirectory();
+    }
+
+    private void cleanupTestDirectory() throws IOException {
+        if (Files.exists(TEST_DATA_PATH)) {
+            try (var paths = Files.walk(TEST_DATA_PATH)) {
+                paths.sorted(Comparator.reverseOrder())
+                        .map(Path::toFile)
+                        .forEach(file -> {
+                            if (!file.delete()) {
+                                System.err.println("无法删除文件: " + file.getAbsolutePath());
+                            }
+                        });
+            }
+        }
+    }
+
+    // 测试各种写法的行与逐行 split 解析结果一致
+    @Test
+    void testMatchesLineParser() throws IOException {
+        Files.write(TEST_FILE, String.join("\r\n", LINES).getBytes(StandardCharsets.UTF_8));
+
+        List<PaymentRecord> loaded = loadAll(PaymentFileLoader.DEFAULT_WINDOW);
+
+        List<PaymentRecord> expected = new ArrayList<>();
+        for (String line : LINES) {
+            PaymentRecord r = PaymentRecordManager.parseLine(line);
+            if (r != null) expected.add(r);
+        }
+        assertEquals(expected.size(), loaded.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertSameRecord(expected.get(i), loaded.get(i));
+        }
+        assertEquals(LocalDateTime.of(2023, 2, 28, 12, 0), loaded.get(5).getDateTime());
+    }
+
+    // 测试窗口很小时跨窗口的行能正确拼接
+    @Test
+    void testLinesSpanningWindows() throws IOException {
+        StringBuilder content = new StringBuilder();
+        for (int i = 1; i <= 500; i++) {
+            content.append(i).append("\t").append(i).append(".25\t支出\t2024-01-15 10:30:00\t餐饮\t第")
+                    .append(i).append("笔午餐\t餐饮,外卖\n");
+        }
+        Files.write(TEST_FILE, content.toString().getBytes(StandardCharsets.UTF_8));
+
+        List<PaymentRecord> loaded = loadAll(100);
+        assertEquals(500, loaded.size());
+        for (int i = 0; i < 500; i++) {
+            assertEquals(i + 1, loaded.get(i).getId());
+            assertEquals(i + 1.25, loaded.get(i).getAmount());
+            assertEquals("第" + (i + 1) + "笔午餐", loaded.get(i).getNote());
+            assertEquals(Arrays.asList("餐饮", "外卖"), loaded.get(i).getTags());
+        }
+
+        assertThrows(IOException.class, () -> loadAll(10));
+    }
+
+    //按给定映射窗口解析整个测试文件
+    private static List<PaymentRecord> loadAll(int window) throws IOException {
+        try (FileChannel channel = FileChannel.open(TEST_FILE, StandardOpenOption.READ)) {
+            return PaymentFileLoader.loadRange(channel, 0, channel.size(), window);
+        }
+    }
+
+    // 测试管理器通过映射加载器读取自己保存的文件
+    @Test
+    void testManagerRoundTrip() {
+        String file = TEST_FILE.toString();
+        PaymentRecordManager manager = new PaymentRecordManager(file, false);
+        LocalDateTime time = LocalDateTime.of(2024, 1, 15, 10, 30, 0);
+        manager.addRecord(5000.0, "收入", time, "工资", "1月工资", Arrays.asList("工资"));
+        manager.addRecord(35.8, "支出", time.plusDays(1), null, "午餐外卖", null);
+
+        PaymentRecordManager reloaded = new PaymentRecordManager(file, false);
+        assertEquals(2, reloaded.getAllRecords().size());
+        assertEquals(35.8, reloaded.getById(2).getAmount());
+        assertEquals("餐饮", reloaded.getById(2).getCategory());
+        assertTrue(reloaded.getById(2).getTags().isEmpty());
+        assertTrue(reloaded.verifyAggregates());
+    }
+
+    private static void assertSameRecord(PaymentRecord expected, PaymentRecord actual) {
+        assertEquals(expected.getId(), actual.getId());
+        assertEquals(expected.getAmount(), actual.getAmount());
+        assertEquals(expected.getType(), actual.getType());
+        assertEquals(expected.getDateTime(), actual.getDateTime());
+        assertEquals(expected.getCategory(), actual.getCategory());
+        assertEquals(expected.getNote(), actual.getNote());
+        assertEquals(expected.getTags(), actual.getTags());
+    }
+
+    // 测试大文件并行加载与顺序解析一致，nextId 取所有区间的最大 id
+    @Test
+    void testParallelManagerLoad() throws IOException {
+        StringBuilder content = new StringBuilder();
+        int count = 100_000;
+        for (int i = 1; i <= count; i++) {
+            // id 乱序，最大 id 出现在文件中间
+            int id = i == count / 2 ? 10 * count : i;
+            content.append(id).append("\t").append(i).append(".50\t支出\t2024-01-15 10:30:00\t餐饮\t第")
+                    .append(i).append("笔\t餐饮\n");
+        }
+        Files.write(TEST_FILE, content.toString().getBytes(StandardCharsets.UTF_8));
+
+        String previous = System.getProperty(ParallelFileLoader.PARALLELISM_PROPERTY);
+        try {
+            System.setProperty(ParallelFileLoader.PARALLELISM_PROPERTY, "4");
+            PaymentRecordManager manager = new PaymentRecordManager(TEST_FILE.toString(), false);
+            List<PaymentRecord> records = manager.getAllRecords();
+            assertEquals(count, records.size());
+            for (int i = 0; i < count; i++) {
+                assertEquals("第" + (i + 1) + "笔", records.get(i).getNote());
+            }
+            manager.addRecord(1.0, "支出", LocalDateTime.of(2024, 2, 1, 0, 0), "餐饮", "新增", null);
+            assertNotNull(manager.getById(10 * count + 1));
+        } finally {
+            if (previous == null) {
+                System.clearProperty(ParallelFileLoader.PARALLELISM_PROPERTY);
+            } else {
+                System.setProperty(ParallelFileLoader.PARALLELISM_PROPERTY, previous);
+            }
+        }
+    }
+}
@@ -178,17 +178,19 @@ public class PaymentIntegrationTest {
         // 1. 添加记录
         manager.addRecord(1000.0, "收入", testDateTime, "工资", "测试工资", Arrays.asList("工资"));
         
-        // 2. 获取记录的副本
+        // 2. 获取记录
         List<PaymentRecord> records = manager.getAllRecords();
         PaymentRecord record = records.get(0);
         
-        // 3. 验证修改不影响原始数据（因为getAllRecords返回的是副本）
-        record.setAmount(2000.0);
-        record.setNote("修改后的备注");
+        // 3. 通过管理器修改，之前取得的记录对象不受影响
+        manager.updateRecord(record.getId(), 2000.0, null, null, null, "修改后的备注", null);
+        assertEquals(1000.0, record.getAmount(), 0.01);
+        assertEquals("测试工资", record.getNote());
         
         // 4. 重新获取记录验证数据完整性
         List<PaymentRecord> newRecords = manager.getAllRecords();
         assertEquals(2000.0, newRecords.get(0).getAmount(), 0.01); // 修改应该生效
         assertEquals("修改后的备注", newRecords.get(0).getNote());
+        assertTrue(manager.verifyAggregates());
     }
 } 
\ No newline at end of file
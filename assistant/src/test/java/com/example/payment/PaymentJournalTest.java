@@ -0,0 +1,152 @@
+package com.example.payment;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PaymentJournalTest {
+    private static final String TEST_DATA_DIR = "test_data_payment";
+    private static final String TEST_FILE = TEST_DATA_DIR + "/payment_records.txt";
+    private static final Path TEST_DATA_PATH = Paths.get(TEST_DATA_DIR);
+
+    private LocalDateTime testDateTime;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        cleanupTestDirectory();
+        Files.createDirectories(TEST_DATA_PATH);
+        testDateTime = LocalDateTime.of(2024, 1, 15, 10, 30, 0);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        cleanupTestDirectory();
+    }
+
+    private void cleanupTestDirectory() throws IOException {
+        if (Files.exists(TEST_DATA_PATH)) {
+            try (var paths = Files.walk(TEST_DATA_PATH)) {
+                paths.sorted(Comparator.reverseOrder())
+                        .map(Path::toFile)
+                        .forEach(file -> {
+                            if (!file.delete()) {
+                                System.err.println("无法删除文件: " + file.getAbsolutePath());
+                            }
+                        });
+            }
+        }
+    }
+
+    // 测试日志模式下增删改在重启后能完整恢复
+    @Test
+    void testJournalReplayAfterRestart() {
+        PaymentRecordManager manager = new PaymentRecordManager(TEST_FILE, true);
+        manager.addRecord(5000.0, "收入", testDateTime, "工资", "1月工资", Arrays.asList("工资"));
+        manager.addRecord(100.0, "支出", testDateTime.plusDays(1), "餐饮", "午餐", Arrays.asList("餐饮"));
+        manager.addRecord(200.0, "支出", testDateTime.plusDays(2), "购物", "买衣服", Arrays.asList("购物"));
+        manager.updateRecord(1, 6000.0, null, null, null, "涨薪", null);
+        manager.deleteRecord(2);
+        manager.close();
+
+        assertFalse(Files.exists(Paths.get(TEST_FILE)), "未压缩前不应重写数据文件");
+        assertTrue(Files.exists(Paths.get(TEST_FILE + ".journal")));
+
+        PaymentRecordManager reloaded = new PaymentRecordManager(TEST_FILE, true);
+        List<PaymentRecord> records = reloaded.getAllRecords();
+        assertEquals(2, records.size());
+        assertEquals(1, records.get(0).getId());
+        assertEquals(6000.0, records.get(0).getAmount(), 0.01);
+        assertEquals("涨薪", records.get(0).getNote());
+        assertEquals(3, records.get(1).getId());
+
+        // 新增记录的 id 应接着日志中的最大 id
+        reloaded.addRecord(50.0, "支出", testDateTime, "交通", "地铁", null);
+        assertEquals(4, reloaded.getAllRecords().get(2).getId());
+        reloaded.close();
+    }
+
+    // 测试超过阈值后后台压缩，数据文件与普通模式格式一致
+    @Test
+    void testCompactionWritesSnapshot() throws IOException {
+        PaymentRecordManager manager = new PaymentRecordManager(TEST_FILE, true, 512);
+        for (int i = 0; i < 100; i++) {
+            manager.addRecord(10.0 + i, "支出", testDateTime.plusHours(i), "餐饮", "记录" + i, Arrays.asList("测试"));
+        }
+        manager.deleteRecord(50);
+        manager.close();
+
+        assertTrue(Files.exists(Paths.get(TEST_FILE)), "压缩后应生成数据文件");
+        assertFalse(Files.exists(Paths.get(TEST_FILE + ".journal.compacting")));
+
+        // 普通模式读取压缩后的数据文件 + 日志模式回放，结果一致
+        PaymentRecordManager reloaded = new PaymentRecordManager(TEST_FILE, true);
+        assertEquals(99, reloaded.getAllRecords().size());
+        reloaded.compact();
+        reloaded.close();
+        assertFalse(Files.exists(Paths.get(TEST_FILE + ".journal")));
+
+        PaymentRecordManager plain = new PaymentRecordManager(TEST_FILE, false);
+        List<PaymentRecord> records = plain.getAllRecords();
+        assertEquals(99, records.size());
+        assertTrue(records.stream().noneMatch(r -> r.getId() == 50));
+    }
+
+    // 测试残留的压缩中日志和尾部半行都能被正确处理
+    @Test
+    void testRecoveryFromInterruptedCompaction() throws IOException {
+        Files.writeString(Paths.get(TEST_FILE),
+                "1\t100.00\t支出\t2024-01-15 10:30:00\t餐饮\t午餐\t餐饮\n", StandardCharsets.UTF_8);
+        Files.writeString(Paths.get(TEST_FILE + ".journal.compacting"),
+                "U\t2\t200.00\t支出\t2024-01-16 10:30:00\t购物\t买衣服\t购物\n", StandardCharsets.UTF_8);
+        Files.writeString(Paths.get(TEST_FILE + ".journal"),
+                "D\t1\nU\t3\t300.00\t支出\t2024-01-17 10:30:00\t交通\n", StandardCharsets.UTF_8);
+
+        PaymentRecordManager manager = new PaymentRecordManager(TEST_FILE, true);
+        List<PaymentRecord> records = manager.getAllRecords();
+        assertEquals(1, records.size(), "截断的尾行应被忽略");
+        assertEquals(2, records.get(0).getId());
+
+        manager.compact();
+        manager.close();
+        assertFalse(Files.exists(Paths.get(TEST_FILE + ".journal.compacting")));
+        assertEquals(1, new PaymentRecordManager(TEST_FILE, false).getAllRecords().size());
+    }
+
+    // 测试日志末行没有换行时，新追加的条目不会与半行拼接，重新加载后记录完整且 id 不重复
+    @Test
+    void testAppendAfterUnterminatedTail() throws IOException {
+        Files.writeString(Paths.get(TEST_FILE),
+                "2\t100.00\t支出\t2024-01-15 10:30:00\t餐饮\t午餐\t餐饮\n", StandardCharsets.UTF_8);
+        Files.writeString(Paths.get(TEST_FILE + ".journal"),
+                "U\t4\t200.00\t支出\t2024-01-16 10:30:00\t购物\t买衣服\t购物\n"
+                        + "U\t3\t300.00\tout\t2024-01-17 10:30:00\tcat", StandardCharsets.UTF_8);
+
+        PaymentRecordManager manager = new PaymentRecordManager(TEST_FILE, true);
+        assertEquals(2, manager.getAllRecords().size());
+        manager.addRecord(50.0, "支出", testDateTime, "交通", "打车", Arrays.asList("交通"));
+        manager.close();
+
+        PaymentRecordManager reloaded = new PaymentRecordManager(TEST_FILE, true);
+        List<PaymentRecord> records = reloaded.getAllRecords();
+        assertEquals(3, records.size());
+        assertEquals(3, records.stream().mapToInt(PaymentRecord::getId).distinct().count(), "id 不应重复");
+        PaymentRecord added = reloaded.getById(5);
+        assertNotNull(added, "新增记录应在重新加载后保留");
+        assertEquals("交通", added.getCategory());
+        assertEquals("打车", added.getNote());
+        assertEquals("购物", reloaded.getById(4).getCategory());
+        reloaded.close();
+    }
+}
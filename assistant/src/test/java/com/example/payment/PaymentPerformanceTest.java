@@ -305,4 +305,31 @@ public class PaymentPerformanceTest {
         System.out.println("大数据集(" + recordCount + "条)插入耗时: " + insertTime + "ms");
         System.out.println("大数据集复杂查询耗时: " + queryTime + "ms");
     }
-} 
\ No newline at end of file
+
+    @Test
+    void testBatchInsertPerformance() {
+        int recordCount = 10000;
+        List<PaymentRecord> drafts = new ArrayList<>(recordCount);
+        for (int i = 0; i < recordCount; i++) {
+            drafts.add(new PaymentRecord(
+                0,
+                100.0 + i,
+                i % 2 == 0 ? "收入" : "支出",
+                testDateTime.plusHours(i),
+                null,
+                i % 3 == 0 ? "午餐外卖" : "地铁",
+                Arrays.asList("批量")
+            ));
+        }
+
+        long startTime = System.currentTimeMillis();
+        manager.addRecords(drafts);
+        long duration = System.currentTimeMillis() - startTime;
+
+        assertEquals(recordCount, manager.getAllRecords().size());
+        // 性能断言：整批只写一次文件，10000条记录应在2秒内完成
+        assertTrue(duration < 2000, "批量导入" + recordCount + "条记录耗时过长: " + duration + "ms");
+
+        System.out.println("批量导入" + recordCount + "条记录耗时: " + duration + "ms");
+    }
+}
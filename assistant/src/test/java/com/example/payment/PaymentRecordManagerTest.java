@@ -186,4 +186,111 @@ public class PaymentRecordManagerTest {
         records.clear();
         assertEquals(1, manager.getAllRecords().size());
     }
+
+    @Test
+    void testAddRecordsBatch() {
+        manager.addRecord(100.0, "支出", testDateTime, "餐饮", "午餐", Arrays.asList("餐饮"));
+        List<PaymentRecord> drafts = Arrays.asList(
+            new PaymentRecord(0, 5000.0, "收入", testDateTime.plusDays(1), "工资", "2月工资", Arrays.asList("工资")),
+            new PaymentRecord(0, 30.0, "支出", testDateTime.plusDays(2), null, "地铁月卡", null)
+        );
+
+        List<PaymentRecord> added = manager.addRecords(drafts);
+        assertEquals(2, added.size());
+        assertEquals(2, added.get(0).getId());
+        assertEquals(3, added.get(1).getId());
+        assertEquals("交通", added.get(1).getCategory());
+
+        List<PaymentRecord> reloaded = new PaymentRecordManager().getAllRecords();
+        assertEquals(3, reloaded.size());
+        assertEquals("2月工资", reloaded.get(1).getNote());
+    }
+
+    @Test
+    void testAddRecordsBatchRejectsInvalidRecord() {
+        List<PaymentRecord> drafts = Arrays.asList(
+            new PaymentRecord(0, 100.0, "支出", testDateTime, "餐饮", "午餐", null),
+            new PaymentRecord(0, 200.0, "支出", null, "购物", "缺少时间", null)
+        );
+
+        assertThrows(IllegalArgumentException.class, () -> manager.addRecords(drafts));
+        assertEquals(0, manager.getAllRecords().size());
+    }
+
+    @Test
+    void testAddRecordRejectsInvalidRecord() {
+        assertThrows(IllegalArgumentException.class,
+            () -> manager.addRecord(100.0, "支出", testDateTime, "餐饮", "午餐\n伪造行", null));
+        assertThrows(IllegalArgumentException.class,
+            () -> manager.addRecord(Double.NaN, "支出", testDateTime, "餐饮", "午餐", null));
+        assertEquals(0, manager.getAllRecords().size());
+
+        manager.addRecord(100.0, "支出", testDateTime, "餐饮", "午餐", null);
+        assertEquals(1, manager.getAllRecords().get(0).getId());
+    }
+
+    @Test
+    void testQueryRecordsByDateRangeFollowsUpdatesAndDeletes() {
+        manager.addRecord(100.0, "支出", testDateTime.plusDays(5), "餐饮", "晚餐", null);
+        manager.addRecord(200.0, "支出", testDateTime, "购物", "买衣服", null);
+        manager.addRecord(300.0, "支出", testDateTime.plusDays(1), "交通", "打车", null);
+
+        // 结果按时间升序
+        List<PaymentRecord> records = manager.queryRecords(testDateTime, testDateTime.plusDays(5), null, null, null, null);
+        assertEquals(Arrays.asList(2, 3, 1), records.stream().map(PaymentRecord::getId).toList());
+
+        // 修改时间后应移出原时间段
+        manager.updateRecord(3, null, null, testDateTime.plusDays(30), null, null, null);
+        assertEquals(2, manager.queryRecords(testDateTime, testDateTime.plusDays(5), null, null, null, null).size());
+        assertEquals(1, manager.queryRecords(testDateTime.plusDays(30), null, null, null, null, null).size());
+
+        manager.deleteRecord(2);
+        records = manager.queryRecords(null, testDateTime.plusDays(5), null, null, null, null);
+        assertEquals(1, records.size());
+        assertEquals(1, records.get(0).getId());
+    }
+
+    @Test
+    void testGetById() {
+        manager.addRecord(100.0, "支出", testDateTime, "餐饮", "午餐", Arrays.asList("餐饮"));
+        manager.addRecord(200.0, "支出", testDateTime.plusDays(1), "购物", "买衣服", Arrays.asList("购物"));
+
+        assertEquals("买衣服", manager.getById(2).getNote());
+        assertNull(manager.getById(3));
+
+        manager.deleteRecord(1);
+        assertNull(manager.getById(1));
+        assertEquals(1, manager.getAllRecords().size());
+    }
+
+    @Test
+    void testAggregatesFollowMutations() {
+        java.time.YearMonth jan = java.time.YearMonth.of(2024, 1);
+        java.time.YearMonth feb = java.time.YearMonth.of(2024, 2);
+        manager.addRecord(5000.0, "收入", testDateTime, "工资", "1月工资", null);
+        manager.addRecord(100.10, "支出", testDateTime, "餐饮", "午餐", null);
+        manager.addRecord(200.20, "支出", testDateTime.plusDays(1), "餐饮", "晚餐", null);
+
+        PaymentAggregates agg = manager.getAggregates();
+        assertEquals(5000.0, agg.getMonthTotal(jan, "收入"), 0.001);
+        assertEquals(300.30, agg.getMonthTotal(jan, "支出"), 0.001);
+        assertEquals(2, agg.getMonth(jan).get("支出").getCount());
+        assertEquals(300.30, agg.getCategoryTotal("餐饮", "支出"), 0.001);
+
+        // 修改时间和分类后，旧桶扣减、新桶累加
+        manager.updateRecord(3, null, null, testDateTime.plusMonths(1), "交通", null, null);
+        assertEquals(100.10, agg.getMonthTotal(jan, "支出"), 0.001);
+        assertEquals(200.20, agg.getMonthTotal(feb, "支出"), 0.001);
+        assertEquals(200.20, agg.getCategoryTotal("交通", "支出"), 0.001);
+
+        manager.deleteRecord(2);
+        assertFalse(agg.getCategories().containsKey("餐饮"));
+        assertEquals(2, agg.getRecordCount());
+        assertTrue(manager.verifyAggregates());
+
+        // 重新加载后从原始记录重建
+        PaymentRecordManager reloaded = new PaymentRecordManager();
+        assertEquals(200.20, reloaded.getAggregates().getMonthTotal(feb, "支出"), 0.001);
+        assertTrue(reloaded.verifyAggregates());
+    }
 }
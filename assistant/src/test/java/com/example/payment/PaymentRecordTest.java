@@ -5,6 +5,7 @@ import org.junit.jupiter.api.BeforeEach;
 import static org.junit.jupiter.api.Assertions.*;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import com.example.payment.PaymentRecord;
@@ -50,24 +51,15 @@ public class PaymentRecordTest {
         assertEquals(Arrays.asList("工资", "月薪"), record.getTags());
     }
 
+    // 测试记录创建后不受传入标签列表的后续修改影响，标签列表本身也不可修改
     @Test
-    void testSetters() {
-        LocalDateTime newDateTime = LocalDateTime.of(2024, 2, 1, 12, 0, 0);
-        List<String> newTags = Arrays.asList("奖金", "年终奖");
-
-        record.setAmount(6000.0);
-        record.setType("收入");
-        record.setDateTime(newDateTime);
-        record.setCategory("奖金");
-        record.setNote("年终奖金");
-        record.setTags(newTags);
-
-        assertEquals(6000.0, record.getAmount(), 0.01);
-        assertEquals("收入", record.getType());
-        assertEquals(newDateTime, record.getDateTime());
-        assertEquals("奖金", record.getCategory());
-        assertEquals("年终奖金", record.getNote());
-        assertEquals(newTags, record.getTags());
+    void testTagsAreImmutable() {
+        List<String> tags = new ArrayList<>(Arrays.asList("奖金", "年终奖"));
+        PaymentRecord r = new PaymentRecord(2, 6000.0, "收入", testDateTime, "奖金", "年终奖金", tags);
+        tags.add("额外");
+
+        assertEquals(Arrays.asList("奖金", "年终奖"), r.getTags());
+        assertThrows(UnsupportedOperationException.class, () -> r.getTags().add("额外"));
     }
 
     @Test
@@ -0,0 +1,60 @@
+package com.example.payment;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PaymentTimeIndexTest {
+    private static final LocalDateTime BASE = LocalDateTime.of(2024, 1, 15, 10, 30, 0);
+
+    // 测试闭区间、开放端点，同一时刻按加入顺序，纳秒参与排序
+    @Test
+    void testRangeOrderAndTies() {
+        PaymentTimeIndex index = new PaymentTimeIndex();
+        index.add(1, BASE.plusDays(2));
+        index.add(2, BASE);
+        index.add(3, BASE.plusDays(2));
+        index.add(4, BASE.plusNanos(1));
+        index.add(5, BASE.minusDays(1));
+
+        assertArrayEquals(new int[]{5, 2, 4, 1, 3}, index.range(null, null));
+        assertArrayEquals(new int[]{2}, index.range(BASE, BASE));
+        assertArrayEquals(new int[]{2, 4, 1, 3}, index.range(BASE, null));
+        assertArrayEquals(new int[]{5, 2, 4}, index.range(null, BASE.plusDays(1)));
+        assertEquals(0, index.range(BASE.plusDays(1), BASE).length);
+
+        index.remove(1, BASE.plusDays(2));
+        index.remove(9, BASE);
+        assertArrayEquals(new int[]{5, 2, 4, 3}, index.range(null, null));
+    }
+
+    // 测试批量加入后排序与逐条加入结果一致，已有记录在同一时刻排在前面
+    @Test
+    void testAppendThenSortMatchesAdd() {
+        Random random = new Random(5);
+        List<Integer> days = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) days.add(random.nextInt(300));
+        PaymentTimeIndex incremental = new PaymentTimeIndex();
+        PaymentTimeIndex bulk = new PaymentTimeIndex();
+        for (int id = 1; id <= 1000; id++) {
+            incremental.add(id, BASE.plusDays(id % 100));
+            bulk.add(id, BASE.plusDays(id % 100));
+        }
+        Collections.shuffle(days, random);
+        for (int i = 0; i < days.size(); i++) {
+            incremental.add(1001 + i, BASE.plusDays(days.get(i)));
+            bulk.append(1001 + i, BASE.plusDays(days.get(i)));
+        }
+        assertThrows(IllegalStateException.class, () -> bulk.range(null, null));
+        bulk.sort();
+        assertArrayEquals(incremental.range(null, null), bulk.range(null, null));
+        assertArrayEquals(incremental.range(BASE.plusDays(50), BASE.plusDays(60)),
+                bulk.range(BASE.plusDays(50), BASE.plusDays(60)));
+    }
+}
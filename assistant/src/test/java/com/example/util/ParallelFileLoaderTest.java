@@ -0,0 +1,144 @@
+package com.example.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ParallelFileLoaderTest {
+    private static final Path TEST_DATA_PATH = Paths.get("test_data_util");
+    private static final Path TEST_FILE = TEST_DATA_PATH.resolve("lines.txt");
+
+    @BeforeEach
+    void setUp() throws IOException {
+        cleanupTestDirectory();
+        Files.createDirectories(TEST_DATA_PATH);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        cleanupTestDirectory();
+    }
+
+    private void cleanupTestDirectory() throws IOException {
+        if (Files.exists(TEST_DATA_PATH)) {
+            try (var paths = Files.walk(TEST_DATA_PATH)) {
+                paths.sorted(Comparator.reverseOrder())
+                        .map(Path::toFile)
+                        .forEach(file -> {
+                            if (!file.delete()) {
+                                System.err.println("无法删除文件: " + file.getAbsolutePath());
+                            }
+                        });
+            }
+        }
+    }
+
+    // 测试分界点都落在行首，过长的行不会产生空区间
+    @Test
+    void testSplitAlignsToLineStarts() throws IOException {
+        String content = "a\nbb\n" + "x".repeat(100) + "\nccc\nd";
+        Files.write(TEST_FILE, content.getBytes(StandardCharsets.UTF_8));
+        try (FileChannel channel = FileChannel.open(TEST_FILE, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long[] bounds = ParallelFileLoader.split(channel, size, 10);
+            assertEquals(0, bounds[0]);
+            assertEquals(size, bounds[bounds.length - 1]);
+            for (int i = 1; i < bounds.length - 1; i++) {
+                assertTrue(bounds[i] > bounds[i - 1]);
+                assertEquals('\n', content.charAt((int) bounds[i] - 1));
+            }
+            assertTrue(bounds.length - 1 < 10);
+        }
+    }
+
+    // 测试并行解析的结果按文件顺序合并
+    @Test
+    void testParallelLoadKeepsFileOrder() throws IOException {
+        StringBuilder content = new StringBuilder();
+        int count = 500_000;
+        for (int i = 0; i < count; i++) {
+            content.append("行").append(i).append('\n');
+        }
+        Files.write(TEST_FILE, content.toString().getBytes(StandardCharsets.UTF_8));
+
+        List<List<String>> chunks = ParallelFileLoader.load(TEST_FILE, ParallelFileLoaderTest::readLines, 4);
+        assertTrue(chunks.size() > 1);
+        List<String> lines = new ArrayList<>();
+        chunks.forEach(lines::addAll);
+        assertEquals(count, lines.size());
+        for (int i = 0; i < count; i++) {
+            assertEquals("行" + i, lines.get(i));
+        }
+
+        List<List<String>> single = ParallelFileLoader.load(TEST_FILE, ParallelFileLoaderTest::readLines, 1);
+        assertEquals(1, single.size());
+        assertEquals(lines, single.get(0));
+    }
+
+    // 测试逐区间交出的结果按文件顺序排列，区间不超过上限，出错时异常原样抛出
+    @Test
+    void testForEachChunkKeepsFileOrder() throws IOException {
+        StringBuilder content = new StringBuilder();
+        int count = 500_000;
+        for (int i = 0; i < count; i++) {
+            content.append("行").append(i).append('\n');
+        }
+        Files.write(TEST_FILE, content.toString().getBytes(StandardCharsets.UTF_8));
+
+        for (int parallelism : new int[]{1, 4}) {
+            List<String> lines = new ArrayList<>();
+            int[] chunks = {0};
+            ParallelFileLoader.forEachChunk(TEST_FILE, ParallelFileLoaderTest::readLines, chunk -> {
+                chunks[0]++;
+                lines.addAll(chunk);
+            }, parallelism);
+            assertTrue(chunks[0] >= Files.size(TEST_FILE) / ParallelFileLoader.STREAM_CHUNK);
+            assertEquals(count, lines.size());
+            for (int i = 0; i < count; i++) {
+                assertEquals("行" + i, lines.get(i));
+            }
+        }
+
+        IOException e = assertThrows(IOException.class, () -> ParallelFileLoader.forEachChunk(TEST_FILE,
+                (channel, start, end) -> {
+                    if (start > 0) throw new IOException("坏区间");
+                    return Arrays.asList("ok");
+                }, chunk -> { }, 4));
+        assertEquals("坏区间", e.getMessage());
+    }
+
+    // 测试解析出错时异常原样抛出
+    @Test
+    void testParserExceptionPropagates() throws IOException {
+        Files.write(TEST_FILE, "x\n".repeat(3_000_000).getBytes(StandardCharsets.UTF_8));
+        IOException e = assertThrows(IOException.class, () -> ParallelFileLoader.load(TEST_FILE, (channel, start, end) -> {
+            if (start > 0) throw new IOException("坏区间");
+            return Arrays.asList("ok");
+        }, 4));
+        assertEquals("坏区间", e.getMessage());
+    }
+
+    private static List<String> readLines(FileChannel channel, long start, long end) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate((int) (end - start));
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, start + buffer.position()) < 0) break;
+        }
+        String text = new String(buffer.array(), 0, buffer.position(), StandardCharsets.UTF_8);
+        return new ArrayList<>(text.lines().toList());
+    }
+}
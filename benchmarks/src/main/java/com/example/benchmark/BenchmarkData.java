@@ -0,0 +1,121 @@
+package com.example.benchmark;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.stream.Stream;
+
+/**
+ * 生成各模块数据文件的工具，文件格式与各管理器的存储格式一致。
+ */
+final class BenchmarkData {
+    static final LocalDateTime BASE_TIME = LocalDateTime.of(2015, 1, 1, 8, 0, 0);
+    static final DateTimeFormatter DATE_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    static final String[] EXPENSE_CATEGORIES = {"餐饮", "交通", "购物", "娱乐", "医疗", "学习", "房租"};
+    static final String[] EXPENSE_NOTES = {"午餐", "地铁", "超市", "电影", "买药", "买书", "房租"};
+    static final String[] LIFE_CATEGORIES = {"日常", "回忆", "事件", "工作", "学习", "健康", "旅行", "家庭", "朋友", "爱好"};
+    static final String[] LIFE_MOODS = {"😊 开心", "😢 难过", "😴 疲惫", "😌 冷静", "🤔 思考"};
+    static final String[] LIFE_WORDS = {"今天", "天气", "很好", "公园", "散步", "朋友", "一起", "吃饭", "工作", "学习",
+            "周末", "旅行", "读书", "电影", "音乐", "运动", "coffee", "travel", "meeting", "project"};
+
+    private BenchmarkData() {
+    }
+
+    static Path tempDir(String prefix) throws IOException {
+        return Files.createTempDirectory(prefix);
+    }
+
+    static void deleteRecursively(Path dir) throws IOException {
+        if (dir == null || !Files.exists(dir)) return;
+        try (Stream<Path> paths = Files.walk(dir)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    //每条记录间隔 5 分钟
+    static LocalDateTime paymentTime(int i) {
+        return BASE_TIME.plusMinutes(5L * i);
+    }
+
+    static void writePaymentFile(Path file, int size) throws IOException {
+        Random random = new Random(42);
+        try (BufferedWriter w = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            for (int i = 1; i <= size; i++) {
+                boolean income = random.nextInt(10) == 0;
+                int k = random.nextInt(EXPENSE_CATEGORIES.length);
+                w.write(i + "\t" + String.format("%.2f", (income ? 3000 + random.nextInt(7000) : 5 + random.nextInt(500)) + random.nextInt(100) / 100.0)
+                        + "\t" + (income ? "收入" : "支出")
+                        + "\t" + paymentTime(i).format(DATE_TIME)
+                        + "\t" + (income ? "工资" : EXPENSE_CATEGORIES[k])
+                        + "\t" + (income ? "发薪" : EXPENSE_NOTES[k])
+                        + "\t" + (income ? "工资" : EXPENSE_CATEGORIES[k]) + "\n");
+            }
+        }
+    }
+
+    static String lifeContent(Random random, int words) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            if (i > 0) sb.append(' ');
+            sb.append(LIFE_WORDS[random.nextInt(LIFE_WORDS.length)]);
+        }
+        return sb.toString();
+    }
+
+    static void writeLifeFile(Path file, int size) throws IOException {
+        Random random = new Random(42);
+        try (BufferedWriter w = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            for (int i = 0; i < size; i++) {
+                w.write(BASE_TIME.plusHours(i).format(DATE_TIME)
+                        + " | " + LIFE_CATEGORIES[random.nextInt(LIFE_CATEGORIES.length)]
+                        + " | " + LIFE_MOODS[random.nextInt(LIFE_MOODS.length)]
+                        + " | 日记" + i
+                        + " | " + lifeContent(random, 40) + System.lineSeparator());
+            }
+        }
+    }
+
+    static LocalDate healthDate(int i) {
+        return LocalDate.now().minusDays(i % 3650);
+    }
+
+    static void writeHealthFile(Path file, int size) throws IOException {
+        Random random = new Random(42);
+        try (BufferedWriter w = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            for (int i = 0; i < size; i++) {
+                int high = 105 + random.nextInt(30);
+                w.write(healthDate(i) + " | " + (55 + random.nextInt(300) / 10.0) + " | 170.0 | " + (55 + random.nextInt(40))
+                        + " | " + high + " | " + (high - 40) + " | " + (5 + random.nextInt(5)) + " | " + random.nextInt(20000)
+                        + " | 正常" + System.lineSeparator());
+            }
+        }
+    }
+
+    static void writeTodoFile(Path file, int size) throws IOException {
+        Random random = new Random(42);
+        try (BufferedWriter w = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            for (int i = 0; i < size; i++) {
+                w.write("待办" + i + "," + (1 + random.nextInt(3)) + "," + (random.nextInt(4) == 0) + ","
+                        + BASE_TIME.plusMinutes(i).format(DATE_TIME));
+                w.newLine();
+            }
+        }
+    }
+
+    //屏蔽被测代码中的控制台输出，返回原来的输出流
+    static PrintStream silenceStdout() {
+        PrintStream original = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        return original;
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.benchmark;
+
+import com.example.health.HealthRecord;
+import com.example.health.HealthRecordManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 健康记录管理器的加载、增删改查与统计基准。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class HealthRecordManagerBenchmark {
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int size;
+
+    private Path dir;
+    private HealthRecordManager manager;
+    // 管理器中当前的记录数，insert 会使它增长
+    private int count;
+    private Random random;
+    private PrintStream stdout;
+
+    @Setup
+    public void setUp() throws Exception {
+        stdout = BenchmarkData.silenceStdout();
+        dir = BenchmarkData.tempDir("health-bench");
+        BenchmarkData.writeHealthFile(dir.resolve("health_records.txt"), size);
+        manager = new HealthRecordManager(dir.toString(), "health_records.txt");
+        count = size;
+        random = new Random(7);
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        System.setOut(stdout);
+        BenchmarkData.deleteRecursively(dir);
+    }
+
+    @Benchmark
+    public HealthRecordManager load() {
+        return new HealthRecordManager(dir.toString(), "health_records.txt");
+    }
+
+    @Benchmark
+    public void insert() {
+        manager.addRecord(randomDate(), 65.0, 170.0, 72, 120, 80, 8, 8000, "正常");
+        count++;
+    }
+
+    //查询随机 30 天
+    @Benchmark
+    public List<HealthRecord> query() {
+        LocalDate start = randomDate();
+        return manager.searchByDateRange(start, start.plusDays(29));
+    }
+
+    @Benchmark
+    public boolean update() {
+        return manager.editRecord(1 + random.nextInt(size), null, 64.0 + random.nextInt(10), null, 70, null, null, null, null, null);
+    }
+
+    //删除一条并补一条新记录，保持数据量不变；编号无效时报错，避免测到空操作
+    @Benchmark
+    public void delete() {
+        int index = 1 + random.nextInt(count);
+        if (!manager.deleteRecord(index)) throw new IllegalStateException("记录 #" + index + " 不存在");
+        manager.addRecord(randomDate(), 66.0, 170.0, 75, 118, 78, 7, 6000, "补录");
+    }
+
+    @Benchmark
+    public void statistics() {
+        manager.showStatistics();
+    }
+
+    private LocalDate randomDate() {
+        return BenchmarkData.healthDate(random.nextInt(size));
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.benchmark;
+
+import com.example.life.LifeFacets;
+import com.example.life.LifeRecord;
+import com.example.life.LifeRecordManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 生活记录管理器的加载、增删改查与统计（分类、心情、月份计数）基准。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class LifeRecordManagerBenchmark {
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int size;
+
+    //true 时正文按需从文件读取
+    @Param({"false", "true"})
+    public boolean lazyContent;
+
+    private Path dir;
+    private LifeRecordManager manager;
+    // 管理器中当前的记录数，insert 会使它增长
+    private int count;
+    private Random random;
+    private PrintStream stdout;
+
+    @Setup
+    public void setUp() throws Exception {
+        stdout = BenchmarkData.silenceStdout();
+        dir = BenchmarkData.tempDir("life-bench");
+        BenchmarkData.writeLifeFile(dir.resolve("life_records.txt"), size);
+        manager = new LifeRecordManager(dir.toString(), "life_records.txt", lazyContent);
+        count = size;
+        random = new Random(7);
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        manager.close();
+        System.setOut(stdout);
+        BenchmarkData.deleteRecursively(dir);
+    }
+
+    @Benchmark
+    public LifeRecordManager load() {
+        LifeRecordManager loaded = new LifeRecordManager(dir.toString(), "life_records.txt", lazyContent);
+        loaded.close();
+        return loaded;
+    }
+
+    @Benchmark
+    public void insert() {
+        manager.addRecord("新日记", BenchmarkData.lifeContent(random, 40), "日常", "😊 开心");
+        count++;
+    }
+
+    //按内容关键词搜索
+    @Benchmark
+    public List<LifeRecord> query() {
+        return manager.searchRecords(null, BenchmarkData.LIFE_WORDS[random.nextInt(BenchmarkData.LIFE_WORDS.length)], null, null);
+    }
+
+    @Benchmark
+    public boolean update() {
+        return manager.editRecord(1 + random.nextInt(size), "修改后的日记", BenchmarkData.lifeContent(random, 40), "回忆", "😌 冷静");
+    }
+
+    //删除一条并补一条新记录，保持数据量不变；编号无效时报错，避免测到空操作
+    @Benchmark
+    public void delete() {
+        int index = 1 + random.nextInt(count);
+        if (manager.getRecord(index) == null) throw new IllegalStateException("记录 #" + index + " 不存在");
+        manager.deleteRecord(index);
+        manager.addRecord("补录日记", BenchmarkData.lifeContent(random, 40), "日常", "😊 开心");
+    }
+
+    //读取全部记录的分类、心情、月份计数
+    @Benchmark
+    public int statistics() {
+        LifeFacets facets = manager.getFacets();
+        return facets.getCategoryCounts().size() + facets.getMoodCounts().size() + facets.getMonthCounts().size();
+    }
+
+    //按内容关键词搜索，并统计全部结果的分类、心情、月份计数
+    @Benchmark
+    public LifeFacets searchFacets() {
+        String word = BenchmarkData.LIFE_WORDS[random.nextInt(BenchmarkData.LIFE_WORDS.length)];
+        return manager.searchRecordsRanked(null, word, null, null, 10).getFacets();
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.benchmark;
+
+import com.example.health.HealthRecordManager;
+import com.example.payment.PaymentRecordManager;
+import com.example.util.ParallelFileLoader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 启动加载随并行度的伸缩情况：同一份数据文件分别用 1 到 N 个线程加载。
+ * <p>
+ * 并行度通过 {@link ParallelFileLoader#PARALLELISM_PROPERTY} 设置，超过 CPU 核数的取值只用来观察调度开销。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class LoadScalingBenchmark {
+
+    @Param({"1000000"})
+    public int size;
+
+    @Param({"1", "2", "4", "8"})
+    public int parallelism;
+
+    private Path dir;
+    private PrintStream stdout;
+
+    @Setup
+    public void setUp() throws Exception {
+        stdout = BenchmarkData.silenceStdout();
+        System.setProperty(ParallelFileLoader.PARALLELISM_PROPERTY, String.valueOf(parallelism));
+        dir = BenchmarkData.tempDir("load-bench");
+        BenchmarkData.writePaymentFile(dir.resolve("payment_records.txt"), size);
+        BenchmarkData.writeHealthFile(dir.resolve("health_records.txt"), size);
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        System.clearProperty(ParallelFileLoader.PARALLELISM_PROPERTY);
+        System.setOut(stdout);
+        BenchmarkData.deleteRecursively(dir);
+    }
+
+    @Benchmark
+    public PaymentRecordManager payment() {
+        return new PaymentRecordManager(dir.resolve("payment_records.txt").toString(), false);
+    }
+
+    @Benchmark
+    public HealthRecordManager health() {
+        return new HealthRecordManager(dir.toString(), "health_records.txt");
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.benchmark;
+
+import com.example.payment.PaymentAggregates;
+import com.example.payment.PaymentRecord;
+import com.example.payment.PaymentRecordManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 收支记录管理器的加载、增删改查与统计基准。
+ * <p>
+ * journaled=true 为菜单实际使用的日志模式，false 为每次修改重写整个文件的普通模式。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class PaymentRecordManagerBenchmark {
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int size;
+
+    @Param({"true", "false"})
+    public boolean journaled;
+
+    private Path dir;
+    private String dataFile;
+    private PaymentRecordManager manager;
+    private Random random;
+    private int nextDelete;
+
+    @Setup
+    public void setUp() throws Exception {
+        dir = BenchmarkData.tempDir("payment-bench");
+        dataFile = dir.resolve("payment_records.txt").toString();
+        BenchmarkData.writePaymentFile(dir.resolve("payment_records.txt"), size);
+        manager = new PaymentRecordManager(dataFile, journaled);
+        random = new Random(7);
+        nextDelete = 1;
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        manager.close();
+        BenchmarkData.deleteRecursively(dir);
+    }
+
+    @Benchmark
+    public PaymentRecordManager load() {
+        return new PaymentRecordManager(dataFile, journaled);
+    }
+
+    @Benchmark
+    public void insert() {
+        manager.addRecord(25.5, "支出", randomTime(), null, "午餐外卖", Collections.singletonList("餐饮"));
+    }
+
+    //查询随机一天的支出
+    @Benchmark
+    public List<PaymentRecord> query() {
+        LocalDateTime start = randomTime().toLocalDate().atStartOfDay();
+        return manager.queryRecords(start, start.plusDays(1).minusSeconds(1), "支出", null, null, null);
+    }
+
+    @Benchmark
+    public boolean update() {
+        return manager.updateRecord(1 + random.nextInt(size), 10.0 + random.nextInt(100), null, null, null, "已修改", null);
+    }
+
+    //删除最早的一条并补一条新记录，保持数据量不变
+    @Benchmark
+    public void delete() {
+        manager.deleteRecord(nextDelete++);
+        manager.addRecord(88.0, "支出", randomTime(), "购物", "补录", null);
+    }
+
+    //按月汇总收支，与菜单中的月度对比、柱状图相同
+    @Benchmark
+    public double statistics() {
+        double balance = 0;
+        for (Map.Entry<YearMonth, Map<String, PaymentAggregates.Bucket>> e : manager.getAggregates().getMonths().entrySet()) {
+            for (Map.Entry<String, PaymentAggregates.Bucket> b : e.getValue().entrySet()) {
+                balance += "收入".equals(b.getKey()) ? b.getValue().getTotal() : -b.getValue().getTotal();
+            }
+        }
+        return balance;
+    }
+
+    //全量重算汇总，作为增量汇总的对照
+    @Benchmark
+    public boolean statisticsRecompute() {
+        return manager.verifyAggregates();
+    }
+
+    private LocalDateTime randomTime() {
+        return BenchmarkData.paymentTime(1 + random.nextInt(size));
+    }
+}
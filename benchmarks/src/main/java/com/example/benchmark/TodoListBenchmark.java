@@ -0,0 +1,99 @@
+package com.example.benchmark;
+
+import com.example.TODOlist.TodoItem;
+import com.example.TODOlist.TodoListMenu;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.Scanner;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 待办列表的加载、增删改查基准。
+ * <p>
+ * 菜单的增删改方法从控制台读取输入，这里按它们的实现直接操作 {@code todoList}：修改后排序并整体保存。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class TodoListBenchmark {
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int size;
+
+    private Path dir;
+    private String file;
+    private TodoListMenu menu;
+    private Random random;
+    private PrintStream stdout;
+
+    @Setup
+    public void setUp() throws Exception {
+        stdout = BenchmarkData.silenceStdout();
+        dir = BenchmarkData.tempDir("todo-bench");
+        file = dir.resolve("todo_list.txt").toString();
+        BenchmarkData.writeTodoFile(dir.resolve("todo_list.txt"), size);
+        menu = new TodoListMenu(new Scanner(""), file);
+        random = new Random(7);
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        System.setOut(stdout);
+        BenchmarkData.deleteRecursively(dir);
+    }
+
+    @Benchmark
+    public TodoListMenu load() {
+        return new TodoListMenu(new Scanner(""), file);
+    }
+
+    @Benchmark
+    public void insert() {
+        menu.todoList.add(new TodoItem("新待办", 1 + random.nextInt(3)));
+        Collections.sort(menu.todoList);
+        menu.saveTodoList();
+    }
+
+    //列出未完成的待办
+    @Benchmark
+    public List<TodoItem> query() {
+        return menu.view();
+    }
+
+    @Benchmark
+    public void update() {
+        TodoItem item = menu.todoList.get(random.nextInt(menu.todoList.size()));
+        item.setContent("修改后的待办");
+        item.setPriority(1 + random.nextInt(3));
+        Collections.sort(menu.todoList);
+        menu.saveTodoList();
+    }
+
+    //删除一条并补一条新待办，保持数据量不变
+    @Benchmark
+    public void delete() {
+        menu.todoList.remove(random.nextInt(menu.todoList.size()));
+        menu.todoList.add(new TodoItem("补录待办", 1 + random.nextInt(3)));
+        Collections.sort(menu.todoList);
+        menu.saveTodoList();
+    }
+}